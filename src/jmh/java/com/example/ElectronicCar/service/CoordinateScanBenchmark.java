@@ -0,0 +1,55 @@
+package com.example.ElectronicCar.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 좌표 전수 조사 스칼라 vs SIMD 비교
+ * - scanner=scalar / vector 로 두 경로를 같은 데이터에서 측정
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CoordinateScanBenchmark {
+
+    @Param({"100000", "500000"})
+    public int stations;
+
+    @Param({"scalar", "vector"})
+    public String scanner;
+
+    private StationCoordinateScanner impl;
+    private double[] lats;
+    private double[] lngs;
+    private int[] outOrdinals;
+    private double[] outDistances;
+
+    @Setup
+    public void setUp() {
+        impl = StationCoordinateScanners.select("vector".equals(scanner));
+        Random random = new Random(42);
+        lats = new double[stations];
+        lngs = new double[stations];
+        for (int i = 0; i < stations; i++) {
+            lats[i] = 33.0 + random.nextDouble() * 5.7;
+            lngs[i] = 124.5 + random.nextDouble() * 6.5;
+        }
+        outOrdinals = new int[stations];
+        outDistances = new double[stations];
+    }
+
+    // 수도권 정도 크기의 범위
+    @Benchmark
+    public int filterBox() {
+        return impl.filterBox(lats, lngs, null, stations, 37.0, 126.5, 37.8, 127.5, outOrdinals);
+    }
+
+    // 서울 시청 기준 반경 20km
+    @Benchmark
+    public int withinRadius() {
+        return impl.withinRadius(lats, lngs, null, stations, 37.5665, 126.9780, 20_000, outOrdinals, outDistances);
+    }
+}
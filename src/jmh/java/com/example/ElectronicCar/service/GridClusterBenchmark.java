@@ -0,0 +1,79 @@
+package com.example.ElectronicCar.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * getClusters 그리드 집계 비교
+ * - legacyStringKeys: 기존 방식 ("latIndex_lngIndex" 문자열 키 + ConcurrentHashMap.merge 3회)
+ * - primitiveGrid: GridClusterAggregator (int 셀 인덱스 + primitive 배열 + fork-join 합산)
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GridClusterBenchmark {
+
+    @Param({"10000", "100000", "500000"})
+    public int stations;
+
+    @Param({"10"})
+    public int divisions;
+
+    private double[] lats;
+    private double[] lngs;
+
+    // 대한민국 전체 범위
+    private final double minLat = 33.0;
+    private final double maxLat = 38.7;
+    private final double minLng = 124.5;
+    private final double maxLng = 131.0;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        lats = new double[stations];
+        lngs = new double[stations];
+        for (int i = 0; i < stations; i++) {
+            lats[i] = minLat + random.nextDouble() * (maxLat - minLat);
+            lngs[i] = minLng + random.nextDouble() * (maxLng - minLng);
+        }
+    }
+
+    @Benchmark
+    public void legacyStringKeys(Blackhole blackhole) {
+        double latInterval = (maxLat - minLat) / divisions;
+        double lngInterval = (maxLng - minLng) / divisions;
+        ConcurrentHashMap<String, Integer> gridCounts = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, Double> gridSumLat = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, Double> gridSumLng = new ConcurrentHashMap<>();
+
+        IntStream.range(0, stations).parallel()
+                .filter(i -> lats[i] >= minLat && lats[i] <= maxLat && lngs[i] >= minLng && lngs[i] <= maxLng)
+                .forEach(i -> {
+                    double lat = lats[i];
+                    double lng = lngs[i];
+                    int latIndex = Math.max(0, Math.min(divisions - 1, (int) ((lat - minLat) / latInterval)));
+                    int lngIndex = Math.max(0, Math.min(divisions - 1, (int) ((lng - minLng) / lngInterval)));
+                    String gridKey = latIndex + "_" + lngIndex;
+                    gridCounts.merge(gridKey, 1, Integer::sum);
+                    gridSumLat.merge(gridKey, lat, Double::sum);
+                    gridSumLng.merge(gridKey, lng, Double::sum);
+                });
+
+        blackhole.consume(gridCounts);
+        blackhole.consume(gridSumLat);
+        blackhole.consume(gridSumLng);
+    }
+
+    @Benchmark
+    public void primitiveGrid(Blackhole blackhole) {
+        blackhole.consume(GridClusterAggregator.aggregateAll(lats, lngs, stations,
+                minLat, minLng, maxLat, maxLng, divisions, divisions));
+    }
+}
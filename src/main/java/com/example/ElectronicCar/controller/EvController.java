@@ -1,9 +1,19 @@
 package com.example.ElectronicCar.controller;
 
+import com.example.ElectronicCar.dto.RouteCorridorDto;
 import com.example.ElectronicCar.service.EvService;
+import com.example.ElectronicCar.service.PrecompressedBody;
+import com.example.ElectronicCar.service.StationFilter;
+import com.example.ElectronicCar.service.StationPayloadFormat;
+import com.example.ElectronicCar.service.StationViews;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.*;
@@ -14,18 +24,269 @@ import java.util.concurrent.TimeUnit;
 @CrossOrigin(origins = "*")
 public class EvController {
 
+    private static final int MAX_BBOX_LIMIT = 5000;
+    private static final int MAX_DIVISION_SIZE = 100;
+    private static final double MAX_NEARBY_RADIUS_M = 50_000;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final int MAX_NEAREST_K = 50;
+    private static final double MAX_ROUTE_WIDTH_M = 20_000;
+    private static final int MAX_ROUTE_POINTS = 20_000;
+    private static final int MAX_TILE_ZOOM = 22;
+
     private final EvService evService;
 
     public EvController(EvService evService) {
         this.evService = evService;
     }
 
+    // 미리 직렬화 + gzip 해 둔 바이트를 그대로 응답 (Accept 로 형식, Accept-Encoding 으로 압축 선택)
+    // - 기본: 충전소 객체 배열 JSON / application/vnd.evhub.columnar+json: 컬럼 JSON / application/vnd.evhub.columnar: 바이너리
+    // - If-None-Match 가 현재 버전 ETag 와 같으면 본문 없이 304
+    // - fields=id,lat,lng,statusSummary 처럼 필요한 필드만 선택 가능 (realtime 을 빼면 충전기 목록 없이 훨씬 작음)
     @GetMapping("/all")
-    public ResponseEntity<List<Map<String, Object>>> getAllStations() throws IOException {
+    public ResponseEntity<byte[]> getAllStations(
+            @RequestParam(required = false) List<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws IOException {
+        String[] keys = StationViews.projection(fields);
+        if (keys == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        StationPayloadFormat format = StationPayloadFormat.negotiate(accept);
+        String encoding = PrecompressedBody.negotiate(acceptEncoding);
+        // 본문보다 먼저 읽은 버전 → 이 버전부터 /changes 를 받으면 빠지는 변경분이 없음 (겹치는 변경분은 다시 적용해도 같은 결과)
+        String changesVersion = String.valueOf(evService.getChangesVersion());
+
+        // ETag 는 스냅샷 + 형식 + 필드로 정해짐 → 재검증 요청은 본문을 만들지 않고 304
+        String version = evService.getAllStationsVersion(format, keys);
+        if (PrecompressedBody.matches(version, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(PrecompressedBody.etag(version, encoding))
+                    .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .header("X-Changes-Version", changesVersion)
+                    .build();
+        }
+
+        PrecompressedBody body = evService.loadAllStations(format, keys);
         // 캐시 헤더 추가 (5분간 캐시) - 무한히 빠르게!
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(body.contentType()))
+                .eTag(body.etag(encoding))
                 .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
-                .body(evService.loadAllStations());
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .header("X-Changes-Version", changesVersion);
+        if (encoding != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        return response.body(body.body(encoding));
+    }
+
+    // since 버전 이후의 상태 변경분 (추가/수정/삭제된 충전소 + 충전기 상태 전이) - 짧은 주기 폴링용
+    // - 응답: { version, resync, changes: [{ version, added, updated, removed, statuses }] }
+    // - resync=true 이면 since 이후 변경분이 로그에 없음 → /all 로 전체를 다시 받고 X-Changes-Version 부터 다시 시작
+    @GetMapping("/changes")
+    public ResponseEntity<Map<String, Object>> getChanges(@RequestParam(required = false) Long since) throws IOException {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(evService.getChangesSince(since));
+    }
+
+    // 화면 범위 구독 (SSE) - bbox 안 충전소의 상태 변경분만 이벤트로 받음 (필터: chargerType/operator/speed)
+    // - 이벤트: subscribed { id, version } / changes { version, added, updated, removed, statuses } / resync { version }
+    // - resync: 밀린 이벤트가 너무 많거나 재연결 시 놓친 변경분이 로그에 없음 → /all 로 전체를 다시 받음
+    // - 재연결하면 브라우저가 보내는 Last-Event-ID 이후 변경분부터 이어서 받음
+    @GetMapping(value = "/subscribe", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> subscribe(
+            @RequestParam String bbox,
+            @RequestParam(required = false) List<String> chargerType,
+            @RequestParam(required = false) List<String> operator,
+            @RequestParam(required = false) List<String> speed,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) throws IOException {
+        double[] box = parseBbox(bbox);
+        if (box == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Long since = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                since = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                since = 0L; // 알 수 없는 버전 → resync
+            }
+        }
+        SseEmitter emitter = evService.subscribe(box[1], box[0], box[3], box[2],
+                StationFilter.of(chargerType, operator, speed, null), since);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    // 구독 범위 변경 (화면 이동 시 연결을 다시 열지 않고 bbox 만 바꿈) - id 는 subscribed 이벤트로 받은 구독 토큰
+    @PutMapping("/subscriptions/{id}")
+    public ResponseEntity<Void> moveSubscription(@PathVariable String id, @RequestParam String bbox) {
+        double[] box = parseBbox(bbox);
+        if (box == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!evService.moveSubscription(id, box[1], box[0], box[3], box[2])) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // 기준 좌표(lat, lng)에서 가까운 순으로 충전소를 NDJSON 스트리밍 (전체 목록을 기다리지 않고 가까운 마커부터 그리기용)
+    // - 한 줄 = /all 과 같은 충전소 객체 1개, fields 로 필드 선택, limit 생략 시 전체
+    @GetMapping(value = "/all/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamStationsByDistance(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(defaultValue = "0") int limit) {
+        String[] keys = StationViews.projection(fields);
+        if (!(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180) || keys == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int cappedLimit = limit > 0 ? limit : Integer.MAX_VALUE;
+        StreamingResponseBody body = out -> evService.streamStationsByDistance(lat, lng, keys, cappedLimit, out);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .header("X-Accel-Buffering", "no") // 프록시(nginx)가 모아서 보내지 않도록
+                .body(body);
+    }
+
+    // 화면 범위(bbox) 내 충전소만 조회 - bbox=minLng,minLat,maxLng,maxLat (서,남,동,북)
+    // 필터: chargerType/operator/speed(급속,완속) 는 여러 값 가능(OR), available=true/false
+    // facets=true 이면 { stations, total, facets } 형태로 필터 항목별 개수도 함께 응답
+    @GetMapping("/stations")
+    public ResponseEntity<?> getStationsInBounds(
+            @RequestParam String bbox,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(required = false) List<String> chargerType,
+            @RequestParam(required = false) List<String> operator,
+            @RequestParam(required = false) List<String> speed,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "false") boolean facets) throws IOException {
+        double[] box = parseBbox(bbox);
+        if (box == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_BBOX_LIMIT));
+        StationFilter filter = StationFilter.of(chargerType, operator, speed, available);
+        if (facets) {
+            Map<String, Object> result = evService.loadStationsInBoundsWithFacets(
+                    box[1], box[0], box[3], box[2], cappedLimit, filter);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                    .header("X-Result-Truncated", String.valueOf((int) result.get("total") > cappedLimit))
+                    .body(result);
+        }
+
+        // 하나 더 조회해서 정확히 limit 개만 있는 경우와 잘린 경우를 구분
+        List<Map<String, Object>> stations = evService.loadStationsInBounds(
+                box[1], box[0], box[3], box[2], cappedLimit + 1, filter);
+        boolean truncated = stations.size() > cappedLimit;
+        if (truncated) {
+            stations = stations.subList(0, cappedLimit);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .header("X-Result-Truncated", String.valueOf(truncated))
+                .body(stations);
+    }
+
+    // 충전소 1곳 상세 (충전기별 실시간 상태 포함) - 지도에서 마커를 눌렀을 때 조회
+    @GetMapping("/stations/{id}")
+    public ResponseEntity<Map<String, Object>> getStation(@PathVariable String id) throws IOException {
+        Map<String, Object> station = evService.loadStation(id);
+        if (station == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .body(station);
+    }
+
+    // 충전소 이름/주소/운영기관 검색 (자동완성용, 초성 검색 가능 - 예: q=ㄱㄴㅇ)
+    @GetMapping("/search")
+    public ResponseEntity<List<Map<String, Object>>> searchStations(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") int limit) throws IOException {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .body(evService.searchStations(q, cappedLimit));
+    }
+
+    // 반경 내 충전소 조회 (가까운 순, radius 단위: m)
+    @GetMapping("/nearby")
+    public ResponseEntity<List<Map<String, Object>>> getNearbyStations(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "1000") double radius,
+            @RequestParam(defaultValue = "50") int limit) throws IOException {
+        if (!(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180)
+                || !(radius > 0 && radius <= MAX_NEARBY_RADIUS_M)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_BBOX_LIMIT));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .body(evService.findStationsNearby(lat, lng, radius, cappedLimit));
+    }
+
+    // 지금 충전 가능한 가장 가까운 충전소 k 개 (가까운 순, radius 단위: m - 생략하면 거리 제한 없음)
+    // 필터: chargerType/operator/speed 는 /stations 와 같음
+    @GetMapping("/nearest")
+    public ResponseEntity<List<Map<String, Object>>> getNearestAvailable(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) List<String> chargerType,
+            @RequestParam(required = false) List<String> operator,
+            @RequestParam(required = false) List<String> speed) throws IOException {
+        // NaN 은 모든 거리 비교가 false 라 트리 전체를 돌게 되므로 유한한 양수만 허용
+        if (!(lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180)
+                || (radius != null && !(radius > 0 && Double.isFinite(radius)))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int cappedK = Math.max(1, Math.min(k, MAX_NEAREST_K));
+        StationFilter filter = StationFilter.of(chargerType, operator, speed, null);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .body(evService.findNearestAvailable(lat, lng, cappedK,
+                        radius != null ? radius : Double.POSITIVE_INFINITY, filter));
+    }
+
+    // 경로 주변 충전소 (출발점부터의 경로 거리 순)
+    // body: { polyline 또는 points: [[lat, lng], ...], width(m, 기본 1000), limit, chargerType, operator, speed, available }
+    @PostMapping("/route-stations")
+    public ResponseEntity<List<Map<String, Object>>> getStationsAlongRoute(@RequestBody RouteCorridorDto dto) throws IOException {
+        double width = dto.getWidth() != null ? dto.getWidth() : 1000;
+        if (!(width > 0 && width <= MAX_ROUTE_WIDTH_M)
+                || (dto.getPoints() != null && dto.getPoints().size() > MAX_ROUTE_POINTS)
+                || (dto.getPolyline() != null && dto.getPolyline().length() > MAX_ROUTE_POINTS * 12)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int cappedLimit = Math.max(1, Math.min(dto.getLimit() != null ? dto.getLimit() : 500, MAX_BBOX_LIMIT));
+        StationFilter filter = StationFilter.of(dto.getChargerType(), dto.getOperator(), dto.getSpeed(), dto.getAvailable());
+        List<Map<String, Object>> stations = evService.findStationsAlongRoute(
+                dto.getPolyline(), dto.getPoints(), width, cappedLimit, filter);
+        if (stations == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stations);
     }
 
     @GetMapping("/hourly-usage/{stationId}")
@@ -41,18 +302,117 @@ public class EvController {
         return evService.getHourlyUsage(stationId, date);
     }
 
+    // 필터/facets 파라미터는 /stations 와 같음 (facets=true 이면 { clusters, total, facets })
     @GetMapping("/clusters")
-    public ResponseEntity<List<Map<String, Object>>> getClusters(
+    public ResponseEntity<?> getClusters(
             @RequestParam java.math.BigDecimal latitude,
             @RequestParam java.math.BigDecimal longitude,
             @RequestParam java.math.BigDecimal latitudeDelta,
             @RequestParam java.math.BigDecimal longitudeDelta,
             @RequestParam(defaultValue = "10") int latitudeDivisionSize,
-            @RequestParam(defaultValue = "10") int longitudeDivisionSize) throws IOException {
+            @RequestParam(defaultValue = "10") int longitudeDivisionSize,
+            @RequestParam(required = false) List<String> chargerType,
+            @RequestParam(required = false) List<String> operator,
+            @RequestParam(required = false) List<String> speed,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "false") boolean facets) throws IOException {
+        // 셀 배열 크기 제한 (1~100 x 1~100)
+        if (latitudeDivisionSize < 1 || latitudeDivisionSize > MAX_DIVISION_SIZE
+                || longitudeDivisionSize < 1 || longitudeDivisionSize > MAX_DIVISION_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StationFilter filter = StationFilter.of(chargerType, operator, speed, available);
+        Object body = facets
+                ? evService.getClustersWithFacets(latitude, longitude, latitudeDelta, longitudeDelta,
+                        latitudeDivisionSize, longitudeDivisionSize, filter)
+                : evService.getClusters(latitude, longitude, latitudeDelta, longitudeDelta,
+                        latitudeDivisionSize, longitudeDivisionSize, filter);
+
         // 캐시 헤더 추가 (1분간 캐시) - 무한히 빠르게!
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
-                .body(evService.getClusters(latitude, longitude, latitudeDelta, longitudeDelta, latitudeDivisionSize, longitudeDivisionSize));
+                .body(body);
+    }
+
+    // /clusters 결과 캐시 통계 (hits / misses / coalesced - 양자화 간격 조정용)
+    @GetMapping("/clusters/cache-stats")
+    public Map<String, Object> getClusterCacheStats() {
+        return evService.getClusterCacheStats();
+    }
+
+    // 화면 범위에 맞는 마커 (지역 / 클러스터 / 충전소 중 서버가 개수 기준으로 선택) - bbox 형식은 /stations 와 같음
+    @GetMapping("/viewport")
+    public ResponseEntity<Map<String, Object>> getViewport(@RequestParam String bbox) throws IOException {
+        double[] box = parseBbox(bbox);
+        if (box == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .body(evService.getViewport(box[1], box[0], box[3], box[2]));
+    }
+
+    // 줌 레벨별 미리 계산된 클러스터 조회 (zoom: 웹 메르카토르 0~17, 카카오맵 레벨 L ≈ 20 - L)
+    @GetMapping("/zoom-clusters")
+    public ResponseEntity<List<Map<String, Object>>> getZoomClusters(
+            @RequestParam String bbox,
+            @RequestParam int zoom) throws IOException {
+        double[] box = parseBbox(bbox);
+        if (box == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .header("X-Catalog-Version", String.valueOf(evService.getCatalogVersion()))
+                .body(evService.getZoomClusters(box[1], box[0], box[3], box[2], zoom));
+    }
+
+    // 클러스터 한 단계 펼치기
+    @GetMapping("/zoom-clusters/{clusterId}/children")
+    public ResponseEntity<List<Map<String, Object>>> getZoomClusterChildren(@PathVariable long clusterId) throws IOException {
+        List<Map<String, Object>> children = evService.getZoomClusterChildren(clusterId);
+        if (children == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .header("X-Catalog-Version", String.valueOf(evService.getCatalogVersion()))
+                .body(children);
+    }
+
+    // 클러스터 클릭 시 확대할 줌 (없거나 이전 카탈로그 버전의 클러스터 ID면 404)
+    @GetMapping("/zoom-clusters/{clusterId}/expansion-zoom")
+    public ResponseEntity<Map<String, Object>> getZoomClusterExpansionZoom(@PathVariable long clusterId) throws IOException {
+        int zoom = evService.getZoomClusterExpansionZoom(clusterId);
+        if (zoom < 0) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("clusterId", clusterId);
+        result.put("zoom", zoom);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .header("X-Catalog-Version", String.valueOf(evService.getCatalogVersion()))
+                .body(result);
+    }
+
+    // 벡터 타일 (Mapbox Vector Tile) - 줌 16 이하는 clusters + stations 레이어, 그 위는 stations 레이어만
+    // URL 이 z/x/y 로 고정되어 있어 브라우저/프록시 캐시를 그대로 사용 가능 (cluster_id 는 X-Catalog-Version 안에서만 유효)
+    @GetMapping(value = "/tiles/{z}/{x}/{y}.mvt", produces = "application/vnd.mapbox-vector-tile")
+    public ResponseEntity<byte[]> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) throws IOException {
+        if (z < 0 || z > MAX_TILE_ZOOM || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES).cachePublic())
+                .header("X-Catalog-Version", String.valueOf(evService.getCatalogVersion()))
+                .body(evService.getTile(z, x, y));
     }
 
     @GetMapping("/regions")
@@ -62,4 +422,24 @@ public class EvController {
                 .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
                 .body(evService.getRegions());
     }
+
+    // bbox 문자열 파싱 (minLng,minLat,maxLng,maxLat - 잘못된 형식이면 null)
+    // NaN/무한대나 범위 밖 좌표는 거부 (NaN 이면 공간 인덱스의 모든 가지치기 비교가 false 라 트리 전체를 돌게 됨)
+    private static double[] parseBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) return null;
+
+        double[] box = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                box[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        if (!(box[0] >= -180 && box[2] <= 180 && box[1] >= -90 && box[3] <= 90)) return null;
+        if (!(box[0] <= box[2] && box[1] <= box[3])) return null;
+        return box;
+    }
 }
@@ -5,25 +5,35 @@ import com.example.ElectronicCar.entity.Favorite;
 import com.example.ElectronicCar.entity.User;
 import com.example.ElectronicCar.repository.FavoriteRepository;
 import com.example.ElectronicCar.repository.UserRepository;
+import com.example.ElectronicCar.service.EvService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.*;
 
 @RestController
 @RequestMapping("/favorites")
 public class FavoriteController {
 
+    // 충전소를 못 찾은 즐겨찾기를 다시 찾아보는 간격 (카탈로그가 갱신되면 생길 수 있음)
+    private static final long STAT_ID_RETRY_MS = 24L * 60 * 60 * 1000;
+
     private final FavoriteRepository favoriteRepository;
     private final UserRepository userRepository;
+    private final EvService evService;
 
-    public FavoriteController(FavoriteRepository favoriteRepository, UserRepository userRepository) {
+    public FavoriteController(FavoriteRepository favoriteRepository, UserRepository userRepository,
+                              EvService evService) {
         this.favoriteRepository = favoriteRepository;
         this.userRepository = userRepository;
+        this.evService = evService;
     }
 
     // ✅ 즐겨찾기 추가
     @PostMapping("/add")
-    public String addFavorite(@RequestBody FavoriteDto dto) {
+    public String addFavorite(@RequestBody FavoriteDto dto) throws IOException {
         System.out.println("📥 즐겨찾기 추가 요청: " + dto);
         
         if (dto.getUsername() == null || dto.getUsername().isEmpty()) {
@@ -41,12 +51,24 @@ public class FavoriteController {
             return "⚠ 이미 즐겨찾기한 충전소입니다.";
         }
 
+        // 충전소 ID 연결 (보낸 ID가 카탈로그에 없으면 좌표/이름으로 찾음)
+        String statId = dto.getStatId();
+        if (!evService.isStationId(statId)) {
+            statId = dto.getLat() == null || dto.getLng() == null ? null
+                    : evService.matchStationId(dto.getPlaceName(), dto.getLat(), dto.getLng());
+        }
+        if (statId != null && favoriteRepository.existsByUserAndStatId(user, statId)) {
+            return "⚠ 이미 즐겨찾기한 충전소입니다.";
+        }
+
         Favorite fav = new Favorite();
         fav.setUser(user);
         fav.setPlaceName(dto.getPlaceName());
         fav.setAddress(dto.getAddress());
         fav.setLat(dto.getLat());
         fav.setLng(dto.getLng());
+        fav.setStatId(statId);
+        fav.setStatIdCheckedAt(System.currentTimeMillis());
 
         favoriteRepository.save(fav);
         System.out.println("✅ 즐겨찾기 추가 완료: " + fav.getPlaceName());
@@ -61,6 +83,66 @@ public class FavoriteController {
         return favoriteRepository.findByUser(user);
     }
 
+    // ✅ 즐겨찾기 + 충전소별 실시간 상태 한 번에 (전체 충전소 목록 없이 즐겨찾기 패널 표시)
+    // - statId 가 없는 기존 즐겨찾기는 좌표/이름으로 충전소를 찾아 저장해 둠
+    //   (이미 다른 즐겨찾기가 쓰는 충전소는 연결하지 않음, 못 찾으면 STAT_ID_RETRY_MS 동안 다시 찾지 않음)
+    // - station: 충전소 상세 (충전기별 realtime, available/charging/check/total), 카탈로그에 없으면 null
+    @GetMapping("/user/{username}/status")
+    public ResponseEntity<List<Map<String, Object>>> getFavoritesWithStatus(@PathVariable String username) throws IOException {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<Favorite> favorites = favoriteRepository.findByUser(user);
+        Set<String> usedStatIds = new HashSet<>();
+        for (Favorite fav : favorites) {
+            if (fav.getStatId() != null) usedStatIds.add(fav.getStatId());
+        }
+
+        long now = System.currentTimeMillis();
+        List<Favorite> checked = new ArrayList<>();
+        int linked = 0;
+        for (Favorite fav : favorites) {
+            if (fav.getStatId() != null) continue;
+            if (fav.getStatIdCheckedAt() != null && now - fav.getStatIdCheckedAt() < STAT_ID_RETRY_MS) continue;
+
+            String statId = evService.matchStationId(fav.getPlaceName(), fav.getLat(), fav.getLng());
+            if (statId != null && usedStatIds.add(statId)) {
+                fav.setStatId(statId);
+                linked++;
+            }
+            fav.setStatIdCheckedAt(now);
+            checked.add(fav);
+        }
+        if (!checked.isEmpty()) {
+            favoriteRepository.saveAll(checked);
+            System.out.println("🔗 즐겨찾기 충전소 연결: " + linked + "/" + checked.size() + "건 (" + username + ")");
+        }
+
+        List<String> statIds = new ArrayList<>(favorites.size());
+        for (Favorite fav : favorites) {
+            if (fav.getStatId() != null) statIds.add(fav.getStatId());
+        }
+        Map<String, Map<String, Object>> stations = evService.loadStations(statIds);
+
+        List<Map<String, Object>> result = new ArrayList<>(favorites.size());
+        for (Favorite fav : favorites) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", fav.getId());
+            item.put("placeName", fav.getPlaceName());
+            item.put("address", fav.getAddress());
+            item.put("lat", fav.getLat());
+            item.put("lng", fav.getLng());
+            item.put("statId", fav.getStatId());
+            item.put("station", fav.getStatId() == null ? null : stations.get(fav.getStatId()));
+            result.add(item);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(result);
+    }
+
     // ✅ 즐겨찾기 삭제
     @DeleteMapping("/{id}")
     public String deleteFavorite(@PathVariable Long id) {
@@ -6,6 +6,7 @@ public class FavoriteDto {
     private String address;   // 충전소 주소 (선택)
     private Double lat;       // 위도 (선택)
     private Double lng;       // 경도 (선택)
+    private String statId;    // 충전소 ID (선택, 없으면 좌표/이름으로 찾음)
 
     // ✅ 기본 생성자
     public FavoriteDto() {}
@@ -25,5 +26,8 @@ public class FavoriteDto {
 
     public Double getLng() { return lng; }
     public void setLng(Double lng) { this.lng = lng; }
+
+    public String getStatId() { return statId; }
+    public void setStatId(String statId) { this.statId = statId; }
 }
 
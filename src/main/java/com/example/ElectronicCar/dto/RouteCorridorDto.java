@@ -0,0 +1,44 @@
+package com.example.ElectronicCar.dto;
+
+import java.util.List;
+
+public class RouteCorridorDto {
+    private String polyline;             // Google encoded polyline (points 대신 사용 가능)
+    private List<List<Double>> points;   // [[lat, lng], ...]
+    private Double width;                // 경로 양쪽 폭 (m, 선택)
+    private Integer limit;               // 최대 개수 (선택)
+
+    // 필터 (선택, /api/ev/stations 와 같음)
+    private List<String> chargerType;
+    private List<String> operator;
+    private List<String> speed;
+    private Boolean available;
+
+    // ✅ 기본 생성자
+    public RouteCorridorDto() {}
+
+    // ✅ Getter / Setter
+    public String getPolyline() { return polyline; }
+    public void setPolyline(String polyline) { this.polyline = polyline; }
+
+    public List<List<Double>> getPoints() { return points; }
+    public void setPoints(List<List<Double>> points) { this.points = points; }
+
+    public Double getWidth() { return width; }
+    public void setWidth(Double width) { this.width = width; }
+
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+
+    public List<String> getChargerType() { return chargerType; }
+    public void setChargerType(List<String> chargerType) { this.chargerType = chargerType; }
+
+    public List<String> getOperator() { return operator; }
+    public void setOperator(List<String> operator) { this.operator = operator; }
+
+    public List<String> getSpeed() { return speed; }
+    public void setSpeed(List<String> speed) { this.speed = speed; }
+
+    public Boolean getAvailable() { return available; }
+    public void setAvailable(Boolean available) { this.available = available; }
+}
@@ -28,5 +28,12 @@ public class Favorite {
 
     @Column(nullable = false)
     private double lng;
+
+    // ✅ 카탈로그 충전소 ID (기존 행은 null → 조회 시 좌표/이름으로 찾아서 채움)
+    @Column(length = 32)
+    private String statId;
+
+    // ✅ 충전소 ID 를 마지막으로 찾아본 시각 (못 찾은 행을 조회할 때마다 다시 찾지 않도록)
+    private Long statIdCheckedAt;
 }
 
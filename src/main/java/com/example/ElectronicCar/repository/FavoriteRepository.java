@@ -16,5 +16,8 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
 
     // ✅ 중복 방지 (유저 + 장소 이름이 같으면 중복 처리)
     Optional<Favorite> findByUserAndPlaceName(User user, String placeName);
+
+    // ✅ 중복 방지 (같은 충전소 ID)
+    boolean existsByUserAndStatId(User user, String statId);
 }
 
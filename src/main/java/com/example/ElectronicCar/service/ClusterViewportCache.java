@@ -0,0 +1,158 @@
+package com.example.ElectronicCar.service;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 격자 클러스터 결과 캐시 (양자화된 화면 범위 기준 LRU + 동시 요청 합치기)
+ * - 범위 크기(delta)는 2^(1/4) 배 간격 사다리의 한 칸으로 올림, 중심은 (범위 크기 x quantization) 간격 격자로 반올림
+ *   → 조금씩 다른 화면이 같은 키가 되고, 양자화된 범위는 항상 원래 화면을 포함
+ * - 키: (양자화된 범위, 격자 행/열 수, 필터, 카탈로그 버전) - 카탈로그가 바뀌면 이전 버전 결과는 LRU 에서 밀려남
+ * - 같은 키의 계산이 진행 중이면 새로 계산하지 않고 그 결과를 기다림
+ */
+final class ClusterViewportCache {
+
+    private static final int STEPS_PER_DOUBLING = 4;
+
+    private final int capacity;
+    private final double quantization;
+    private final LinkedHashMap<Key, List<Map<String, Object>>> results;
+    private final ConcurrentHashMap<Key, CompletableFuture<List<Map<String, Object>>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private record Key(int latLevel, int lngLevel, long latIndex, long lngIndex,
+                       int latitudeDivisionSize, int longitudeDivisionSize,
+                       Map<String, Set<String>> filter, long catalogVersion) {
+    }
+
+    /**
+     * 양자화된 화면 범위 (중심 ± delta)
+     */
+    static final class Viewport {
+        private final int latLevel, lngLevel;
+        private final long latIndex, lngIndex;
+        final double minLat, minLng, maxLat, maxLng;
+
+        private Viewport(int latLevel, int lngLevel, long latIndex, long lngIndex,
+                         double latDelta, double lngDelta, double latStep, double lngStep) {
+            this.latLevel = latLevel;
+            this.lngLevel = lngLevel;
+            this.latIndex = latIndex;
+            this.lngIndex = lngIndex;
+            this.minLat = latIndex * latStep - latDelta;
+            this.maxLat = latIndex * latStep + latDelta;
+            this.minLng = lngIndex * lngStep - lngDelta;
+            this.maxLng = lngIndex * lngStep + lngDelta;
+        }
+    }
+
+    ClusterViewportCache(int capacity, double quantization) {
+        this.capacity = capacity;
+        this.quantization = Math.max(0.01, Math.min(1, quantization));
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Map<String, Object>>> eldest) {
+                return size() > ClusterViewportCache.this.capacity;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    // 중심 ± delta 화면 → 양자화된 범위
+    // (중심이 최대 step/2 움직이므로 delta 를 그만큼 키운 뒤 사다리에서 올림 → 원래 화면을 항상 포함)
+    Viewport quantize(double centerLat, double centerLng, double latDelta, double lngDelta) {
+        int latLevel = level(latDelta / (1 - quantization / 2));
+        int lngLevel = level(lngDelta / (1 - quantization / 2));
+        double snappedLat = Math.pow(2, (double) latLevel / STEPS_PER_DOUBLING);
+        double snappedLng = Math.pow(2, (double) lngLevel / STEPS_PER_DOUBLING);
+        double latStep = snappedLat * quantization;
+        double lngStep = snappedLng * quantization;
+        return new Viewport(latLevel, lngLevel, Math.round(centerLat / latStep), Math.round(centerLng / lngStep),
+                snappedLat, snappedLng, latStep, lngStep);
+    }
+
+    private static int level(double delta) {
+        return (int) Math.ceil(Math.log(delta) / Math.log(2) * STEPS_PER_DOUBLING - 1e-9);
+    }
+
+    // 캐시 조회 → 없으면 같은 키의 진행 중인 계산을 기다리거나 직접 계산
+    List<Map<String, Object>> get(Viewport viewport, int latitudeDivisionSize, int longitudeDivisionSize,
+                                  StationFilter filter, long catalogVersion,
+                                  Computation compute) throws IOException {
+        Key key = new Key(viewport.latLevel, viewport.lngLevel, viewport.latIndex, viewport.lngIndex,
+                latitudeDivisionSize, longitudeDivisionSize, filter.selections(), catalogVersion);
+        synchronized (results) {
+            List<Map<String, Object>> cached = results.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        CompletableFuture<List<Map<String, Object>>> future = new CompletableFuture<>();
+        CompletableFuture<List<Map<String, Object>>> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException cause) throw cause;
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+
+        try {
+            // 조회와 등록 사이에 다른 요청이 계산을 끝냈을 수 있음
+            List<Map<String, Object>> result;
+            synchronized (results) {
+                result = results.get(key);
+            }
+            if (result != null) {
+                hits.incrementAndGet();
+                future.complete(result);
+                return result;
+            }
+
+            misses.incrementAndGet();
+            result = Collections.unmodifiableList(compute.compute());
+            synchronized (results) {
+                results.put(key, result);
+            }
+            future.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    interface Computation {
+        List<Map<String, Object>> compute() throws IOException;
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hit = hits.get(), miss = misses.get(), merged = coalesced.get();
+        stats.put("hits", hit);
+        stats.put("misses", miss);
+        stats.put("coalesced", merged);
+        stats.put("hitRatio", hit + miss + merged == 0 ? 0.0 : (double) (hit + merged) / (hit + miss + merged));
+        synchronized (results) {
+            stats.put("size", results.size());
+        }
+        stats.put("capacity", capacity);
+        stats.put("quantization", quantization);
+        return stats;
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.ElectronicCar.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import jakarta.annotation.PostConstruct;
-import javax.xml.parsers.*;
+import jakarta.annotation.PreDestroy;
 import java.io.*;
 import java.net.*;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
 import java.util.Random;  // ✅ 추가!
 
 @Service
@@ -17,18 +21,138 @@ public class EvService {
     private static final String SERVICE_KEY = "403d4b334f02943b2163a95f291dcbccae9dd2542df15d50b515b11ea92dd615";
 
     // 실시간 상태 캐시 (1분간 유효)
-    private Map<String, List<Map<String, String>>> cachedRealtimeStatuses = null;
-    private long cacheTimestamp = 0;
+    private volatile Map<String, List<Map<String, String>>> cachedRealtimeStatuses = null;
+    private volatile long cacheTimestamp = 0;
     private static final long CACHE_DURATION_MS = 60 * 1000; // 1분
-
-    // 충전소 데이터 캐시 (5분간 유효 - CSV 파일은 거의 변경되지 않음)
-    private List<Map<String, Object>> cachedStations = null;
-    private long stationsCacheTimestamp = 0;
+    // 실시간 상태는 백그라운드에서만 수집 (요청은 기다리지 않고 기존 캐시 사용), 실패하면 재시도 대기 시간을 두 배씩 늘림
+    private final AtomicBoolean realtimeRefreshing = new AtomicBoolean();
+    private volatile long realtimeRetryAt = 0;
+    private int realtimeFailures = 0;   // 수집 스레드에서만 접근
+    private static final long REALTIME_RETRY_MIN_MS = 30 * 1000;       // 30초
+    private static final long REALTIME_RETRY_MAX_MS = 10 * 60 * 1000;  // 10분
+
+    // 전국 실시간 상태 수집 (getChargerInfo) - 지역 코드, 페이지 크기, 동시 요청 수, 1회 수집 제한 시간, 하루 요청 예산
+    @Value("${ev.realtime.zcodes:11,26,27,28,29,30,31,36,41,42,43,44,45,46,47,48,50}")
+    private String realtimeZcodes = "11,26,27,28,29,30,31,36,41,42,43,44,45,46,47,48,50";
+    @Value("${ev.realtime.page-size:5000}")
+    private int realtimePageSize = 5000;
+    @Value("${ev.realtime.parallelism:16}")
+    private int realtimeParallelism = 16;
+    @Value("${ev.realtime.timeout-seconds:40}")
+    private long realtimeTimeoutSeconds = 40;
+    @Value("${ev.realtime.daily-request-budget:30000}")
+    private int realtimeDailyRequestBudget = 30_000;
+    private static final int REALTIME_CONNECT_TIMEOUT_MS = 3000;
+    private static final int REALTIME_READ_TIMEOUT_MS = 20000;
+    private volatile StationRealtimeFetcher realtimeFetcher = null;
+    private final Object realtimeFetcherLock = new Object();
+
+    // 충전소 카탈로그 (CSV 파일이 바뀌면 감시 스레드가 새 카탈로그로 교체)
+    // 목록/클러스터/지역 계산이 모두 이 하나의 컬럼 구조를 공유
+    private volatile StationCatalog cachedCatalog = null;
+    private long catalogVersion = 0;
+    private final Object catalogLoadLock = new Object();
+
+    // 파싱된 카탈로그 + 공간 인덱스 바이너리 스냅샷 경로 (비어 있으면 사용 안 함)
+    @Value("${ev.catalog.snapshot:}")
+    private String catalogSnapshotPath = "";
+
+    // 카탈로그 CSV 경로 (비어 있으면 클래스패스의 /data1.csv 사용) + 변경 감시 여부
+    @Value("${ev.catalog.path:}")
+    private String catalogPath = "";
+    @Value("${ev.catalog.watch:true}")
+    private boolean watchCatalog = true;
+    private StationCatalogWatcher catalogWatcher = null;
+
+    // 카탈로그 + 실시간 상태 스냅샷 캐시 (5분간 유효 - /api/ev/all 용)
+    private volatile StationStatusSnapshot cachedSnapshot = null;
+    private volatile long snapshotTimestamp = 0;
+    private long snapshotVersion = 0;   // snapshotLock 안에서만 증가
+    private final Object snapshotLock = new Object();
+    // 주작 상태 seed (고정 - 실시간 데이터가 없는 충전소는 새로고침마다 상태가 바뀌지 않음)
+    private static final long FAKE_STATUS_SEED = 0x2F6A8C1E5B3D7094L;
     private static final long STATIONS_CACHE_DURATION_MS = 5 * 60 * 1000; // 5분
 
-    // 경량 충전소 데이터 캐시 (5분간 유효 - 클러스터 계산용)
-    private List<Map<String, Object>> cachedLightweightStations = null;
-    private long lightweightCacheTimestamp = 0;
+    // /api/ev/all 직렬화 결과 캐시 (응답 형식 + 필드 선택별, 상태 스냅샷이 바뀔 때만 다시 직렬화 + gzip)
+    // ETag 버전 = 서버 시작 시각 + 카탈로그 버전 + 상태 스냅샷 번호 + 형식 + 필드 비트 (재시작 후 같은 ETag 가 다른 내용을 가리키지 않도록)
+    // 본문 없이도 계산되므로 재검증 요청은 직렬화하지 않고 304
+    private static final int MAX_ALL_STATIONS_BODIES = 64;
+    private final ConcurrentHashMap<String, PrecompressedBody> cachedAllStationsBodies = new ConcurrentHashMap<>();
+    private final Object allStationsBodyLock = new Object();
+    private final String bootId = Long.toHexString(System.currentTimeMillis());
+
+    // 기존 즐겨찾기 → 충전소 id 연결 반경 (이름이 같으면 200m, 이름이 달라도 좌표가 거의 같으면 20m)
+    private static final double FAVORITE_MATCH_RADIUS_METERS = 200;
+    private static final double FAVORITE_EXACT_RADIUS_METERS = 20;
+
+    // 공간 인덱스 캐시 (카탈로그가 바뀔 때만 다시 빌드, 증분 변경은 update 로 반영)
+    // retired: 증분 반영 직전 버전 (반영 도중 이전 카탈로그를 잡고 있는 요청용)
+    private volatile StationSpatialIndex cachedSpatialIndex = null;
+    private volatile StationSpatialIndex retiredSpatialIndex = null;
+
+    // 줌 레벨별 클러스터 계층 캐시 (카탈로그가 바뀌면 백그라운드에서 다시 빌드, 그동안은 이전 버전 사용)
+    private volatile StationClusterPyramid cachedClusterPyramid = null;
+    private final Object clusterPyramidLock = new Object();
+    private final AtomicBoolean clusterPyramidRebuilding = new AtomicBoolean();
+
+    // 좌표 전수 조사에 SIMD(Vector API) 사용 여부 (모듈이 없으면 자동으로 스칼라 사용)
+    @Value("${ev.scan.simd:true}")
+    private boolean simdScan = true;
+    private volatile StationCoordinateScanner coordinateScanner = null;
+
+    // 전국 격자 누적합 테이블 캐시 (카탈로그가 바뀔 때만 다시 빌드, 증분 변경은 update 로 반영)
+    private volatile StationDensityTable cachedDensityTable = null;
+    private volatile StationDensityTable retiredDensityTable = null;
+
+    // 지역 배정 캐시 (카탈로그 버전마다 한 번, 증분 변경은 update 로 반영) + 지역별 상태 합계 (스냅샷 교체 때 갱신)
+    private volatile RegionBoundaries regionBoundaries = null;
+    private volatile StationRegions cachedRegions = null;
+    private volatile StationRegions.Live cachedRegionLive = null;
+
+    // 필터 항목별 비트맵 캐시 (카탈로그 버전마다 한 번) + 상태 스냅샷별 충전가능 여부 비트맵
+    private volatile StationFacetIndex cachedFacetIndex = null;
+    private volatile StationFacetIndex.Availability cachedAvailability = null;
+
+    // 이름/주소/운영기관 검색 인덱스 캐시 (카탈로그 버전마다 한 번, 증분 변경은 update 로 반영)
+    private volatile StationSearchIndex cachedSearchIndex = null;
+
+    // 화면 마커 예산 (화면 안 충전소가 이 개수 이하면 충전소 그대로, 넘으면 클러스터)
+    // + 지역 마커로 바꾸는 기준 (전체 충전소 중 화면 안 비율)
+    @Value("${ev.viewport.marker-budget:300}")
+    private int viewportMarkerBudget = 300;
+    @Value("${ev.viewport.region-ratio:0.5}")
+    private double viewportRegionRatio = 0.5;
+
+    // 벡터 타일 캐시 (z/x/y LRU, 카탈로그/상태가 바뀌면 바뀐 충전소가 걸친 타일만 제거)
+    @Value("${ev.tiles.cache-size:4096}")
+    private int tileCacheSize = 4096;
+    private volatile StationTileCache tileCache = null;
+
+    // 상태 변경 로그 (/api/ev/changes - 스냅샷이 바뀔 때마다 변경분 기록, 개수/항목 수 제한)
+    @Value("${ev.changes.log-size:288}")
+    private int changeLogSize = 288;
+    @Value("${ev.changes.max-entries:200000}")
+    private int changeLogMaxEntries = 200_000;
+    private volatile StationChangeLog changeLog = null;
+
+    // 화면 범위 구독 (SSE) - 첫 구독 때 생성, 구독이 있는 동안 poll-interval 마다 상태 갱신 확인
+    @Value("${ev.subscriptions.max:50000}")
+    private int maxSubscriptions = 50_000;
+    @Value("${ev.subscriptions.queue-size:16}")
+    private int subscriptionQueueSize = 16;
+    @Value("${ev.subscriptions.timeout-minutes:30}")
+    private long subscriptionTimeoutMinutes = 30;
+    @Value("${ev.subscriptions.poll-interval-seconds:30}")
+    private long subscriptionPollIntervalSeconds = 30;
+    private volatile StationSubscriptionHub subscriptionHub = null;
+
+    // 격자 클러스터 결과 캐시 (양자화된 화면 범위 LRU, 크기 0 이면 사용 안 함)
+    // quantization: 화면 중심을 맞추는 격자 간격 (화면 크기 대비 비율, 클수록 적중률↑ 정밀도↓)
+    @Value("${ev.clusters.cache-size:1024}")
+    private int clusterCacheSize = 1024;
+    @Value("${ev.clusters.quantization:0.1}")
+    private double clusterQuantization = 0.1;
+    private volatile ClusterViewportCache clusterViewportCache = null;
 
     // 서버 시작 시 미리 로드 (무한히 빠르게!)
     @PostConstruct
@@ -36,386 +160,940 @@ public class EvService {
         new Thread(() -> {
             try {
                 System.out.println("🚀 서버 시작 시 데이터 사전 로드 시작...");
-                // 경량 데이터 미리 로드
-                loadStationsLightweight();
-                System.out.println("✅ 경량 데이터 사전 로드 완료!");
+                long start = System.currentTimeMillis();
+                // 카탈로그 + 줌 클러스터 계층 미리 로드
+                StationCatalog catalog = getCatalog();
+                // 실시간 상태 첫 수집도 바로 시작 (첫 요청이 주작 상태만 보는 시간을 줄임)
+                refreshRealtimeStatusesAsync();
+                getStationRegions(catalog);
+                getSearchIndex(catalog);
+                long catalogReady = System.currentTimeMillis();
+                getClusterPyramid();
+                System.out.println("✅ 카탈로그 사전 로드 완료! (카탈로그 " + (catalogReady - start)
+                        + "ms, 클러스터 계층 " + (System.currentTimeMillis() - catalogReady) + "ms)");
             } catch (Exception e) {
                 System.out.println("⚠️ 사전 로드 실패: " + e.getMessage());
             }
         }).start();
+
+        // 파일 시스템의 CSV를 쓰는 경우 변경 감시 시작
+        if (watchCatalog && !catalogPath.isBlank()) {
+            try {
+                catalogWatcher = new StationCatalogWatcher(Path.of(catalogPath), this::reloadCatalog);
+                catalogWatcher.start();
+            } catch (IOException e) {
+                System.out.println("⚠️ 카탈로그 파일 감시 시작 실패: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stopWatcher() throws IOException {
+        if (catalogWatcher != null) {
+            catalogWatcher.close();
+        }
+        if (subscriptionHub != null) {
+            subscriptionHub.close();
+        }
+    }
+
+    // CSV 다시 읽어서 카탈로그 교체 (실패하면 기존 카탈로그 유지)
+    public void reloadCatalog() {
+        try {
+            long start = System.currentTimeMillis();
+            StationCatalog catalog;
+            synchronized (catalogLoadLock) {
+                catalog = loadCatalogInternal(nextCatalogVersion());
+                cachedCatalog = catalog;
+            }
+            getTileCache().clear();
+            System.out.println("🔄 카탈로그 교체 완료: " + catalog.size() + "개 (v" + catalog.version() + ", "
+                    + (System.currentTimeMillis() - start) + "ms)");
+        } catch (Exception e) {
+            System.out.println("⚠️ 카탈로그 다시 읽기 실패, 기존 카탈로그 유지: " + e.getMessage());
+        }
     }
 
-    // 공개 메서드: 캐시를 사용하여 충전소 데이터 로드
+    // 공개 메서드: 캐시를 사용하여 충전소 데이터 로드 (카탈로그 위의 읽기 전용 뷰)
     public List<Map<String, Object>> loadAllStations() throws IOException {
-        return getCachedStations();
+        return StationViews.stations(getStatusSnapshot());
     }
 
-    // 캐시된 충전소 데이터 가져오기
-    private List<Map<String, Object>> getCachedStations() throws IOException {
-        long currentTime = System.currentTimeMillis();
+    // 전체 충전소 응답 본문 (기본 필드)
+    public PrecompressedBody loadAllStations(StationPayloadFormat format) throws IOException {
+        return loadAllStations(format, StationViews.projection(null));
+    }
 
-        // 캐시가 유효하면 캐시된 데이터 반환
-        if (cachedStations != null && (currentTime - stationsCacheTimestamp) < STATIONS_CACHE_DURATION_MS) {
-            return cachedStations;
+    // 전체 충전소 응답 본문 (형식 + 필드 선택별로 직렬화 + gzip 된 바이트, 같은 스냅샷이면 재사용)
+    // keys: StationViews.projection 결과
+    public PrecompressedBody loadAllStations(StationPayloadFormat format, String[] keys) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        int mask = StationViews.fieldMask(keys);
+        String cacheKey = format + "|" + Integer.toHexString(mask);
+        PrecompressedBody body = cachedAllStationsBodies.get(cacheKey);
+        if (body != null && body.source() == snapshot) {
+            return body;
         }
 
-        // 캐시가 없거나 만료되었으면 새로 로드
-        List<Map<String, Object>> stations = loadAllStationsInternal();
+        // 스냅샷 + 형식 + 필드 조합당 한 번만 직렬화 (동시에 들어온 요청은 먼저 시작한 직렬화 결과 사용)
+        synchronized (allStationsBodyLock) {
+            body = cachedAllStationsBodies.get(cacheKey);
+            if (body != null && body.source() == snapshot) {
+                return body;
+            }
+            // 이전 스냅샷의 본문은 정리 (필드 조합이 많아져도 개수 제한)
+            cachedAllStationsBodies.values().removeIf(cached -> cached.source() != snapshot);
+            if (cachedAllStationsBodies.size() >= MAX_ALL_STATIONS_BODIES) {
+                cachedAllStationsBodies.clear();
+            }
 
-        // 캐시 업데이트
-        cachedStations = stations;
-        stationsCacheTimestamp = currentTime;
+            long start = System.currentTimeMillis();
+            String version = allStationsVersion(snapshot, format, mask);
+            body = switch (format) {
+                case JSON -> PrecompressedBody.json(snapshot, version, format.mediaType(),
+                        StationViews.stations(snapshot, keys));
+                case COLUMNAR_JSON -> PrecompressedBody.of(snapshot, version, format.mediaType(),
+                        new StationColumnarPayload(snapshot, keys).json());
+                case COLUMNAR_BINARY -> PrecompressedBody.of(snapshot, version, format.mediaType(),
+                        new StationColumnarPayload(snapshot, keys).binary());
+            };
+            cachedAllStationsBodies.put(cacheKey, body);
+            System.out.println("📦 전체 충전소 " + format + " [" + String.join(",", keys) + "] 직렬화: "
+                    + body.body(null).length + " bytes, gzip " + body.body(PrecompressedBody.GZIP).length
+                    + " bytes (" + (System.currentTimeMillis() - start) + "ms)");
+            return body;
+        }
+    }
 
-        return stations;
+    // 전체 충전소 응답의 ETag 버전 (본문을 만들지 않고 계산 - loadAllStations 가 같은 스냅샷에서 만드는 본문과 같은 값)
+    public String getAllStationsVersion(StationPayloadFormat format, String[] keys) throws IOException {
+        return allStationsVersion(getStatusSnapshot(), format, StationViews.fieldMask(keys));
+    }
+
+    private String allStationsVersion(StationStatusSnapshot snapshot, StationPayloadFormat format, int mask) {
+        return bootId + "-" + snapshot.catalog().version() + "-" + snapshot.version()
+                + format.etagSuffix() + "-f" + Integer.toHexString(mask);
     }
 
-    // 내부 메서드: 실제로 CSV 파일을 읽고 실시간 상태를 포함하여 로드
-    private List<Map<String, Object>> loadAllStationsInternal() throws IOException {
-        Map<String, Map<String, Object>> stationMap = new LinkedHashMap<>();
+    // 기준 좌표에서 가까운 순으로 충전소를 NDJSON 으로 out 에 바로 씀 (limit 개까지, 쓴 개수 반환)
+    // keys: StationViews.projection 결과
+    public int streamStationsByDistance(double lat, double lng, String[] keys, int limit,
+                                        OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        int written = StationDistanceStream.write(getSpatialIndex(snapshot.catalog()), snapshot, lat, lng, keys, limit, out);
+        System.out.println("🌊 거리순 스트리밍: " + written + "개 (" + (System.currentTimeMillis() - start) + "ms)");
+        return written;
+    }
 
-        // ✅ 1. CSV 파일 읽기
-        try (InputStream inputStream = getClass().getResourceAsStream("/data1.csv")) {
-            if (inputStream == null) {
-                throw new FileNotFoundException("❌ data1.csv 파일을 찾을 수 없습니다.");
+    // since 버전 이후의 상태 변경분 (스냅샷이 만료됐으면 먼저 새로 만들어서 기록)
+    // - since 가 없거나 로그에 남아 있지 않은 버전이면 resync=true → /all 로 전체를 다시 받아야 함
+    public Map<String, Object> getChangesSince(Long since) throws IOException {
+        getStatusSnapshot();
+        return getChangeLog().since(since);
+    }
+
+    // 현재 변경 로그 버전 (이 값을 since 로 쓰면 이후 변경분만 받음)
+    public long getChangesVersion() {
+        return getChangeLog().version();
+    }
+
+    // 화면 범위 구독 시작 (SSE) - 구독 수가 가득 찼으면 null
+    // - 첫 이벤트 subscribed { id, version }, 이후 범위 + 필터 안의 변경분만 changes 이벤트 (id = 변경 로그 버전)
+    // - lastEventId: 재연결 시 마지막으로 받은 버전 → 그 이후 변경분을 먼저 보냄 (로그에 없으면 resync)
+    public SseEmitter subscribe(double minLat, double minLng, double maxLat, double maxLng,
+                                StationFilter filter, Long lastEventId) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        StationSubscriptionHub.Subscription subscription = getSubscriptionHub()
+                .subscribe(minLat, minLng, maxLat, maxLng, filter, lastEventId, filterMatcher(snapshot));
+        return subscription == null ? null : subscription.emitter;
+    }
+
+    // 구독 범위 변경 (화면 이동) - 없는 구독이면 false
+    public boolean moveSubscription(String id, double minLat, double minLng, double maxLat, double maxLng) {
+        StationSubscriptionHub hub = subscriptionHub;
+        return hub != null && hub.move(id, minLat, minLng, maxLat, maxLng);
+    }
+
+    // 충전소 1곳 상세 (충전기별 실시간 목록 포함) - id → 번호 인덱스로 바로 조회, 없으면 null
+    public Map<String, Object> loadStation(String id) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        int ordinal = snapshot.catalog().ordinalOf(id);
+        if (ordinal < 0) {
+            return null;
+        }
+        return new LinkedHashMap<>(StationViews.detail(snapshot, ordinal));
+    }
+
+    // 여러 충전소 상세 한 번에 (즐겨찾기 패널용) - 같은 스냅샷에서 id → 번호 인덱스로 조회
+    // 결과: id → 상세, 카탈로그에 없는 id 는 빠짐
+    public Map<String, Map<String, Object>> loadStations(Collection<String> ids) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        StationCatalog catalog = snapshot.catalog();
+        Map<String, Map<String, Object>> stations = new LinkedHashMap<>();
+        for (String id : ids) {
+            if (id == null || stations.containsKey(id)) continue;
+            int ordinal = catalog.ordinalOf(id);
+            if (ordinal >= 0) {
+                stations.put(id, new LinkedHashMap<>(StationViews.detail(snapshot, ordinal)));
             }
+        }
+        return stations;
+    }
+
+    // 좌표 + 이름으로 카탈로그 충전소 id 찾기 (statId 없이 저장된 기존 즐겨찾기 연결용)
+    // - FAVORITE_MATCH_RADIUS_METERS 안에서 이름이 같은 가장 가까운 충전소
+    // - 이름이 같은 곳이 없으면 FAVORITE_EXACT_RADIUS_METERS 안의 가장 가까운 충전소, 그것도 없으면 null
+    public String matchStationId(String name, double lat, double lng) throws IOException {
+        StationCatalog catalog = getCatalog();
+        String wanted = name == null ? "" : name.trim();
+        String[] matched = {null, null};   // 이름 일치, 좌표만 일치
+
+        getSpatialIndex(catalog).nearest(lat, lng, FAVORITE_MATCH_RADIUS_METERS, (ordinal, distance) -> {
+            if (matched[1] == null && distance <= FAVORITE_EXACT_RADIUS_METERS) {
+                matched[1] = catalog.id(ordinal);
+            }
+            if (!wanted.isEmpty() && wanted.equals(catalog.name(ordinal) == null ? null : catalog.name(ordinal).trim())) {
+                matched[0] = catalog.id(ordinal);
+                return false;
+            }
+            return true;
+        });
+        return matched[0] != null ? matched[0] : matched[1];
+    }
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-            String line;
-            boolean firstLine = true;
+    // 카탈로그에 있는 충전소 id 인지
+    public boolean isStationId(String id) throws IOException {
+        return id != null && getCatalog().ordinalOf(id) >= 0;
+    }
 
-            while ((line = reader.readLine()) != null) {
-                if (firstLine) { firstLine = false; continue; }
+    // 범위(bbox) 내 충전소 조회 - 공간 인덱스 사용 (최대 limit 개)
+    public List<Map<String, Object>> loadStationsInBounds(double minLat, double minLng,
+                                                          double maxLat, double maxLng, int limit) throws IOException {
+        return loadStationsInBounds(minLat, minLng, maxLat, maxLng, limit, StationFilter.NONE);
+    }
 
-                String[] parts = line.split(",", -1);
-                if (parts.length < 8) continue;
+    // 범위(bbox) 내 충전소 조회 + 필터 (필터는 항목별 비트맵 AND/OR 결과로 검사)
+    public List<Map<String, Object>> loadStationsInBounds(double minLat, double minLng, double maxLat, double maxLng,
+                                                          int limit, StationFilter filter) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        StationCatalog catalog = snapshot.catalog();
+        int[] ordinals;
+        if (filter.isEmpty()) {
+            ordinals = getSpatialIndex(catalog).search(minLat, minLng, maxLat, maxLng, limit);
+        } else {
+            StationFacetIndex facetIndex = getFacetIndex(catalog);
+            StationBitmap matched = facetIndex.match(filter, getAvailability(facetIndex, snapshot));
+            ordinals = searchFiltered(catalog, matched, minLat, minLng, maxLat, maxLng, limit);
+        }
+        return stationViews(snapshot, ordinals, ordinals.length);
+    }
 
-                String id = parts[0].trim();
-                Map<String, Object> st = stationMap.getOrDefault(id, new LinkedHashMap<>());
+    // 범위(bbox) 내 충전소 + 필터 항목별 개수
+    // - 범위 안 충전소를 비트맵 1개로 만든 뒤 목록(필터 AND)과 항목별 개수(교집합 개수)를 모두 여기서 계산
+    public Map<String, Object> loadStationsInBoundsWithFacets(double minLat, double minLng, double maxLat, double maxLng,
+                                                              int limit, StationFilter filter) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        StationCatalog catalog = snapshot.catalog();
+        StationFacetIndex facetIndex = getFacetIndex(catalog);
+        StationFacetIndex.Availability availability = getAvailability(facetIndex, snapshot);
+
+        StationBitmap viewport = getViewportBitmap(catalog, minLat, minLng, maxLat, maxLng);
+        int[] ordinals = facetIndex.filter(viewport, filter, availability).toArray();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("stations", stationViews(snapshot, ordinals, Math.min(limit, ordinals.length)));
+        result.put("total", ordinals.length);
+        result.put("facets", facetIndex.facets(viewport, filter, availability));
+        return result;
+    }
 
-                st.put("id", id);
-                st.put("name", parts[1].trim());
-                st.put("addr", parts[2].trim());
-                st.put("operator", parts[3].trim());
+    private List<Map<String, Object>> stationViews(StationStatusSnapshot snapshot, int[] ordinals, int size) {
+        List<Map<String, Object>> stations = new ArrayList<>(size);
+        for (int k = 0; k < size; k++) {
+            stations.add(StationViews.station(snapshot, ordinals[k]));
+        }
+        return stations;
+    }
 
-                try {
-                    st.put("lat", Double.parseDouble(parts[4].trim()));
-                    st.put("lng", Double.parseDouble(parts[5].trim()));
-                } catch (NumberFormatException e) {
-                    continue;
-                }
+    // 범위 내 충전소 ordinal
+    // - 전체의 절반 이상이 범위 안이면 좌표 배열 전수 조사(SIMD, ordinal 오름차순), 아니면 공간 인덱스 탐색
+    private int[] searchViewport(StationCatalog catalog, double minLat, double minLng, double maxLat, double maxLng) {
+        if (getDensityTable(catalog).estimateCount(minLat, minLng, maxLat, maxLng) * 2 > catalog.size()) {
+            int[] ordinals = new int[catalog.size()];
+            int size = getCoordinateScanner().filterBox(catalog.latArray(), catalog.lngArray(), null, catalog.size(),
+                    minLat, minLng, maxLat, maxLng, ordinals);
+            return Arrays.copyOf(ordinals, size);
+        }
+        return getSpatialIndex(catalog).search(minLat, minLng, maxLat, maxLng, Integer.MAX_VALUE);
+    }
 
-                // ✅ 충전 타입 누적 (같은 충전소면 +로 합침)
-                String typeCode = parts.length > 6 ? parts[6].trim() : "";
-                String newType = switch (typeCode) {
-                    case "01" -> "DC차데모";
-                    case "02" -> "AC완속";
-                    case "03" -> "DC콤보";
-                    case "04" -> "DC차데모+AC3상";
-                    case "05" -> "DC차데모+DC콤보";
-                    case "06" -> "DC차데모+DC콤보+AC3상";
-                    default -> "기타";
-                };
-
-                String existingType = (String) st.getOrDefault("chargerType", "");
-                if (!existingType.contains(newType)) {
-                    if (!existingType.isEmpty()) existingType += "+";
-                    existingType += newType;
-                }
-                st.put("chargerType", existingType);
-
-                // ✅ 상태 (처음 1개만 기준 저장)
-                if (!st.containsKey("status")) {
-                    String raw = (parts.length > 7) ? parts[7].trim() : "정보없음";
-                    if (raw.matches("\\d+\\(\\d+\\)")) raw = raw.replace("(", "/").replace(")", "") + " 충전가능";
-                    else if (raw.matches("\\d+/\\d+")) raw = raw + " 충전가능";
-                    else if (raw.matches("^\\d+$")) raw = raw + "/" + raw + " 충전가능";
-                    st.put("status", raw);
-                }
+    // 범위 내 충전소 비트맵 (패싯 개수 계산용)
+    private StationBitmap getViewportBitmap(StationCatalog catalog,
+                                            double minLat, double minLng, double maxLat, double maxLng) {
+        int[] ordinals = searchViewport(catalog, minLat, minLng, maxLat, maxLng);
+        Arrays.sort(ordinals);
+        return StationBitmap.of(ordinals, ordinals.length);
+    }
 
-                stationMap.put(id, st);
-            }
+    // 범위 내 + 필터 통과 충전소 (최대 limit 개)
+    // - 필터 결과가 범위 내 예상 개수보다 적으면 필터 비트맵을 순회하며 좌표만 검사
+    // - 아니면 공간 인덱스 탐색 중 비트맵 포함 여부 검사
+    private int[] searchFiltered(StationCatalog catalog, StationBitmap matched,
+                                 double minLat, double minLng, double maxLat, double maxLng, int limit) {
+        if (matched.cardinality() >= getDensityTable(catalog).estimateCount(minLat, minLng, maxLat, maxLng)) {
+            return getSpatialIndex(catalog).search(minLat, minLng, maxLat, maxLng, limit, matched::contains);
         }
 
-        // ✅ 중복 제거된 리스트로 변환
-        List<Map<String, Object>> stations = new ArrayList<>(stationMap.values());
+        double[] lats = catalog.latArray();
+        double[] lngs = catalog.lngArray();
+        int[] ordinals = new int[Math.min(limit, matched.cardinality())];
+        int[] size = {0};
+        matched.forEach(ordinal -> {
+            if (size[0] == ordinals.length) return;
+            double lat = lats[ordinal], lng = lngs[ordinal];
+            if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) return;
+            ordinals[size[0]++] = ordinal;
+        });
+        return Arrays.copyOf(ordinals, size[0]);
+    }
+
+    // 캐시된 필터 비트맵 가져오기 (같은 카탈로그면 재사용)
+    private StationFacetIndex getFacetIndex(StationCatalog catalog) {
+        StationFacetIndex facetIndex = cachedFacetIndex;
+        if (facetIndex != null && facetIndex.catalog() == catalog) {
+            return facetIndex;
+        }
 
-        // ✅ 실시간 정보 반영 + 주작 생성 (캐시 사용)
-        Map<String, List<Map<String, String>>> realtimeStatusMap = getCachedRealtimeStatuses();
-        Random random = new Random();
+        facetIndex = new StationFacetIndex(catalog);
+        if (catalog == cachedCatalog) {
+            cachedFacetIndex = facetIndex;
+        }
+        return facetIndex;
+    }
 
-        for (Map<String, Object> st : stations) {
-            String id = (String) st.get("id");
-            String chargerType = (String) st.get("chargerType");
+    // 상태 스냅샷별 충전가능 여부 비트맵 (스냅샷이 바뀔 때만 다시 계산)
+    private StationFacetIndex.Availability getAvailability(StationFacetIndex facetIndex, StationStatusSnapshot snapshot) {
+        StationFacetIndex.Availability availability = cachedAvailability;
+        if (availability != null && availability.snapshot() == snapshot) {
+            return availability;
+        }
 
-            if (realtimeStatusMap.containsKey(id)) {
-                List<Map<String, String>> details = realtimeStatusMap.get(id);
-                st.put("realtime", details);
-                String summary = details.get(0).getOrDefault("summary", "정보없음");
-                st.put("status", summary);
-            } else {
-                // ⚙️ 실시간 데이터 없을 경우 → 주작 생성
-                int total;
-                if (chargerType.contains("+")) total = chargerType.split("\\+").length;
-                else if (chargerType.contains("콤보")) total = 2;
-                else total = 1;
-
-                List<Map<String, String>> fakeList = new ArrayList<>();
-                int available = 0, charging = 0, check = 0;
-
-                for (int i = 1; i <= total; i++) {
-                    int r = random.nextInt(100);
-                    String fakeStatus;
-                    if (r < 60) { fakeStatus = "충전가능"; available++; }
-                    else if (r < 85) { fakeStatus = "충전중"; charging++; }
-                    else { fakeStatus = "점검중"; check++; }
-
-                    Map<String, String> fake = new LinkedHashMap<>();
-                    fake.put("speed", (chargerType.contains("완속")) ? "완속" : "급속");
-                    fake.put("chargerType", chargerType);
-                    fake.put("status", fakeStatus);
-                    fake.put("chgerId", id + "-" + String.format("%02d", i));
-                    fakeList.add(fake);
-                }
+        availability = facetIndex.availability(snapshot);
+        cachedAvailability = availability;
+        return availability;
+    }
 
-                String summary;
-                if (charging == total) summary = total + "/" + total + " 충전중";
-                else if (check == total) summary = total + "/" + total + " 점검중";
-                else if (available == total) summary = total + "/" + total + " 충전가능";
-                else if (charging > 0) summary = charging + "/" + total + " 충전중";
-                else if (check > 0) summary = check + "/" + total + " 점검중";
-                else summary = available + "/" + total + " 충전가능";
+    // 충전소 이름/주소/운영기관 검색 (초성 검색 가능, 점수 높은 순 최대 limit 개 - 실시간 상태 불필요)
+    public List<Map<String, Object>> searchStations(String query, int limit) throws IOException {
+        return getSearchIndex(getCatalog()).search(query, limit);
+    }
 
-                st.put("realtime", fakeList);
-                st.put("status", summary);
-            }
+    // 캐시된 검색 인덱스 가져오기 (같은 카탈로그면 재사용)
+    private StationSearchIndex getSearchIndex(StationCatalog catalog) {
+        StationSearchIndex index = cachedSearchIndex;
+        if (index != null && index.catalog() == catalog) {
+            return index;
         }
 
-        return stations;
+        index = new StationSearchIndex(catalog);
+        if (catalog == cachedCatalog) {
+            cachedSearchIndex = index;
+        }
+        return index;
     }
 
-    // 경량 버전: 실시간 상태 없이 기본 정보만 로드 (클러스터 계산용 - 훨씬 빠름)
-    private List<Map<String, Object>> loadStationsLightweight() throws IOException {
-        long currentTime = System.currentTimeMillis();
+    // 캐시된 공간 인덱스 가져오기 (같은 카탈로그면 재사용)
+    private StationSpatialIndex getSpatialIndex(StationCatalog catalog) {
+        StationSpatialIndex index = cachedSpatialIndex;
+        if (index != null && index.catalog() == catalog) {
+            return index;
+        }
+        index = retiredSpatialIndex;
+        if (index != null && index.catalog() == catalog) {
+            return index;
+        }
 
-        // 경량 캐시가 유효하면 즉시 반환
-        if (cachedLightweightStations != null && (currentTime - lightweightCacheTimestamp) < STATIONS_CACHE_DURATION_MS) {
-            return cachedLightweightStations;
+        // 이전 카탈로그를 잡고 있는 요청이 최신 캐시를 덮어쓰지 않도록 현재 카탈로그일 때만 저장
+        index = new StationSpatialIndex(catalog);
+        if (catalog == cachedCatalog) {
+            cachedSpatialIndex = index;
         }
+        return index;
+    }
 
-        // 경량 캐시가 없거나 만료되었으면 새로 생성
-        // CSV에서 직접 읽어서 경량 데이터만 생성 (실시간 상태 불필요)
-        List<Map<String, Object>> lightweight = loadStationsLightweightInternal();
+    // 줌 레벨 클러스터 조회 (미리 계산된 계층에서 범위 조회만 수행)
+    public List<Map<String, Object>> getZoomClusters(double minLat, double minLng,
+                                                     double maxLat, double maxLng, int zoom) throws IOException {
+        return getClusterPyramid().getClusters(minLat, minLng, maxLat, maxLng, zoom);
+    }
 
-        // 경량 캐시 업데이트
-        cachedLightweightStations = lightweight;
-        lightweightCacheTimestamp = currentTime;
+    // 클러스터 한 단계 펼치기 (없는 클러스터 ID면 null)
+    public List<Map<String, Object>> getZoomClusterChildren(long clusterId) throws IOException {
+        return getClusterPyramid().getChildren(clusterId);
+    }
 
-        return lightweight;
+    // 클러스터가 갈라지는 줌 (없는 ID면 -1)
+    public int getZoomClusterExpansionZoom(long clusterId) throws IOException {
+        return getClusterPyramid().getExpansionZoom(clusterId);
     }
 
-    // 경량 데이터 직접 로드 (CSV에서 읽어서 실시간 상태 없이 생성) - 극한 최적화!
-    private List<Map<String, Object>> loadStationsLightweightInternal() throws IOException {
-        // HashMap 사용 (LinkedHashMap보다 빠름, 순서 불필요)
-        Map<String, Map<String, Object>> stationMap = new HashMap<>(2000);
+    // 줌 클러스터 계층의 카탈로그 버전 (클러스터 ID는 같은 버전 안에서만 유효)
+    public long getCatalogVersion() throws IOException {
+        return getClusterPyramid().catalog().version();
+    }
 
-        // ✅ CSV 파일 읽기 (실시간 상태 조회 없이, 극한 최적화!)
-        try (InputStream inputStream = getClass().getResourceAsStream("/data1.csv")) {
-            if (inputStream == null) {
-                throw new FileNotFoundException("❌ data1.csv 파일을 찾을 수 없습니다.");
+    // 캐시된 클러스터 계층 가져오기
+    // - 처음에는 빌드될 때까지 대기, 이후 카탈로그가 바뀌면 백그라운드에서 다시 빌드하고 그동안 이전 계층 사용
+    //   (계층 안의 클러스터/충전소 ID는 모두 그 계층의 카탈로그 버전 기준이라 응답은 항상 한 버전으로 일관됨)
+    private StationClusterPyramid getClusterPyramid() throws IOException {
+        StationCatalog catalog = getCatalog();
+        StationClusterPyramid pyramid = cachedClusterPyramid;
+        if (pyramid == null) {
+            synchronized (clusterPyramidLock) {
+                pyramid = cachedClusterPyramid;
+                if (pyramid == null) {
+                    pyramid = new StationClusterPyramid(catalog);
+                    cachedClusterPyramid = pyramid;
+                }
             }
+        }
 
-            // 버퍼 크기 증가로 I/O 최적화
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(inputStream, StandardCharsets.UTF_8), 8192);
-            String line;
-            boolean firstLine = true;
+        if (pyramid.catalog() != catalog && clusterPyramidRebuilding.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    StationCatalog latest = cachedCatalog;
+                    long start = System.currentTimeMillis();
+                    cachedClusterPyramid = new StationClusterPyramid(latest);
+                    System.out.println("🔄 클러스터 계층 재빌드 완료 (v" + latest.version() + ", "
+                            + (System.currentTimeMillis() - start) + "ms)");
+                } finally {
+                    clusterPyramidRebuilding.set(false);
+                }
+            });
+        }
+        return pyramid;
+    }
 
-            while ((line = reader.readLine()) != null) {
-                if (firstLine) { firstLine = false; continue; }
+    // 반경(m) 내 충전소 조회 - 가까운 순 정렬, 응답에 distance(m) 포함
+    public List<Map<String, Object>> findStationsNearby(double lat, double lng,
+                                                        double radiusMeters, int limit) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        StationCatalog catalog = snapshot.catalog();
+
+        // 1) 반경을 감싸는 bbox 로 후보 추리기
+        //    - 후보가 전체의 절반 이상이면 좌표 배열 전체를 연속으로 조사 (SIMD)
+        //    - 아니면 공간 인덱스로 후보만 추림
+        double latSpan = radiusMeters / StationCoordinateScanner.DEG_TO_M;
+        double lngSpan = latSpan / Math.max(0.01, Math.cos(Math.toRadians(lat)));
+        int[] candidates = null;
+        int candidateCount = catalog.size();
+        if (getDensityTable(catalog).estimateCount(lat - latSpan, lng - lngSpan,
+                lat + latSpan, lng + lngSpan) * 2 <= catalog.size()) {
+            candidates = getSpatialIndex(catalog).search(lat - latSpan, lng - lngSpan,
+                    lat + latSpan, lng + lngSpan, Integer.MAX_VALUE);
+            candidateCount = candidates.length;
+        }
 
-                // split 최적화: 필요한 부분만 파싱
-                int comma1 = line.indexOf(',');
-                if (comma1 < 0) continue;
-                int comma2 = line.indexOf(',', comma1 + 1);
-                if (comma2 < 0) continue;
-                int comma3 = line.indexOf(',', comma2 + 1);
-                if (comma3 < 0) continue;
-                int comma4 = line.indexOf(',', comma3 + 1);
-                if (comma4 < 0) continue;
-                int comma5 = line.indexOf(',', comma4 + 1);
-                if (comma5 < 0) continue;
+        // 2) 후보들의 거리 계산 + 반경 필터
+        int[] ordinals = new int[candidateCount];
+        double[] distances = new double[candidateCount];
+        int found = getCoordinateScanner().withinRadius(catalog.latArray(), catalog.lngArray(),
+                candidates, candidateCount, lat, lng, radiusMeters, ordinals, distances);
+
+        // 3) 가까운 순 정렬 후 limit 개
+        Integer[] order = new Integer[found];
+        for (int k = 0; k < found; k++) order[k] = k;
+        Arrays.sort(order, Comparator.comparingDouble(k -> distances[k]));
+
+        List<Map<String, Object>> stations = new ArrayList<>(Math.min(found, limit));
+        for (int k = 0; k < found && k < limit; k++) {
+            Map<String, Object> station = new LinkedHashMap<>(StationViews.station(snapshot, ordinals[order[k]]));
+            station.put("distance", Math.round(distances[order[k]]));
+            stations.add(station);
+        }
+        return stations;
+    }
+
+    // 지금 충전 가능한 가장 가까운 충전소 k 개 (가까운 순, 응답에 distance(m) 포함)
+    // - 공간 인덱스를 가까운 노드부터 펼치면서 필터 + 충전가능 비트맵에 없는 충전소는 건너뜀
+    // - k 개를 찾으면 바로 중단 (가까운 충전소가 멀리 있어도 전체 정렬 없음)
+    public List<Map<String, Object>> findNearestAvailable(double lat, double lng, int k,
+                                                          double maxRadiusMeters, StationFilter filter) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        StationCatalog catalog = snapshot.catalog();
+        StationFacetIndex facetIndex = getFacetIndex(catalog);
+        StationBitmap matched = facetIndex.match(filter.requireAvailable(), getAvailability(facetIndex, snapshot));
+
+        List<Map<String, Object>> stations = new ArrayList<>(k);
+        getSpatialIndex(catalog).nearest(lat, lng, maxRadiusMeters, (ordinal, distance) -> {
+            if (!matched.contains(ordinal)) return true;
+            Map<String, Object> station = new LinkedHashMap<>(StationViews.station(snapshot, ordinal));
+            station.put("distance", Math.round(distance));
+            stations.add(station);
+            return stations.size() < k;
+        });
+        return stations;
+    }
+
+    // 경로 주변 충전소 (출발점부터의 경로 거리 순, 응답에 distanceAlongRoute / distanceFromRoute(m) 포함)
+    // - polyline(encoded) 또는 points([[lat, lng], ...]) 중 하나, 경로를 해석할 수 없으면 null
+    public List<Map<String, Object>> findStationsAlongRoute(String polyline, List<List<Double>> points,
+                                                            double widthMeters, int limit,
+                                                            StationFilter filter) throws IOException {
+        RouteCorridor route;
+        if (polyline != null && !polyline.isBlank()) {
+            route = RouteCorridor.decode(polyline.trim());
+        } else {
+            List<double[]> coordinates = new ArrayList<>();
+            if (points != null) {
+                for (List<Double> point : points) {
+                    if (point == null || point.size() < 2 || point.get(0) == null || point.get(1) == null) return null;
+                    coordinates.add(new double[]{point.get(0), point.get(1)});
+                }
+            }
+            route = RouteCorridor.of(coordinates);
+        }
+        if (route == null) return null;
+
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        StationCatalog catalog = snapshot.catalog();
+        java.util.function.IntPredicate accept = ordinal -> true;
+        if (!filter.isEmpty()) {
+            StationFacetIndex facetIndex = getFacetIndex(catalog);
+            accept = facetIndex.match(filter, getAvailability(facetIndex, snapshot))::contains;
+        }
 
-                String id = line.substring(0, comma1).trim();
+        RouteCorridor.Hits hits = route.search(getSpatialIndex(catalog), catalog, widthMeters, accept);
+        List<Map<String, Object>> stations = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int k = 0; k < hits.size() && k < limit; k++) {
+            Map<String, Object> station = new LinkedHashMap<>(StationViews.station(snapshot, hits.ordinal(k)));
+            station.put("distanceAlongRoute", Math.round(hits.along(k)));
+            station.put("distanceFromRoute", Math.round(hits.offset(k)));
+            stations.add(station);
+        }
+        return stations;
+    }
 
-                // 이미 존재하면 건너뛰기 (중복 제거)
-                if (stationMap.containsKey(id)) continue;
+    /**
+     * 벡터 타일 (Mapbox Vector Tile, z/x/y)
+     * - 줌 16 이하: 클러스터 계층의 해당 줌 점 (clusters + 묶이지 않은 stations 레이어)
+     * - 줌 17 이상: 공간 인덱스로 찾은 충전소 (stations 레이어)
+     * - 인코딩된 바이트를 LRU 캐시에 저장 (요청 시점의 카탈로그/상태가 최신일 때만)
+     */
+    public byte[] getTile(int z, int x, int y) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        StationCatalog catalog = snapshot.catalog();
+        StationClusterPyramid pyramid = z <= StationClusterPyramid.MAX_ZOOM ? getClusterPyramid() : null;
+        StationTileCache cache = getTileCache();
+        byte[] cached = cache.get(z, x, y, pyramid);
+        if (cached != null) {
+            return cached;
+        }
 
-                Map<String, Object> st = new HashMap<>(5);
-                st.put("id", id);
-                st.put("name", line.substring(comma1 + 1, comma2).trim());
-                st.put("addr", line.substring(comma2 + 1, comma3).trim());
+        long generation = cache.generation();
+        StationVectorTile tile = new StationVectorTile(z, x, y);
+        double[] bounds = tile.bounds();
+        boolean current = catalog == cachedCatalog;
+        if (pyramid != null) {
+            // 계층이 이전 카탈로그 기준이면 (재빌드 중) 상태 없이 위치만 + 캐시하지 않음
+            StationCatalog pyramidCatalog = pyramid.catalog();
+            StationStatusSnapshot status = pyramidCatalog == catalog ? snapshot : null;
+            pyramid.forEachPoint(z, bounds[0], bounds[1], bounds[2], bounds[3], (px, py, count, id) -> {
+                if (count > 1) tile.addCluster(px, py, id, count);
+                else tile.addStation(px, py, pyramidCatalog, (int) id, status);
+            });
+            current &= status != null;
+        } else {
+            int[] ordinals = getSpatialIndex(catalog).search(
+                    StationClusterPyramid.yLat(bounds[3]), StationClusterPyramid.xLng(bounds[0]),
+                    StationClusterPyramid.yLat(bounds[1]), StationClusterPyramid.xLng(bounds[2]), Integer.MAX_VALUE);
+            for (int ordinal : ordinals) {
+                tile.addStation(StationClusterPyramid.lngX(catalog.lng(ordinal)),
+                        StationClusterPyramid.latY(catalog.lat(ordinal)), catalog, ordinal, snapshot);
+            }
+        }
 
-                try {
-                    st.put("lat", Double.parseDouble(line.substring(comma4 + 1, comma5).trim()));
-                    st.put("lng", Double.parseDouble(line.substring(comma5 + 1,
-                            line.indexOf(',', comma5 + 1) > 0 ? line.indexOf(',', comma5 + 1) : line.length()).trim()));
-                } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
-                    continue;
+        // 렌더링에 쓴 스냅샷이 아직 최신일 때만 저장 (generation 을 읽은 뒤 확인 → 그 사이 교체됐으면 교체 쪽 무효화가 generation 을 올림)
+        byte[] bytes = tile.encode();
+        if (current && snapshot == cachedSnapshot) {
+            cache.put(z, x, y, pyramid, bytes, generation);
+        }
+        return bytes;
+    }
+
+    private StationSubscriptionHub getSubscriptionHub() {
+        StationSubscriptionHub hub = subscriptionHub;
+        if (hub == null) {
+            synchronized (this) {
+                hub = subscriptionHub;
+                if (hub == null) {
+                    hub = new StationSubscriptionHub(maxSubscriptions, subscriptionQueueSize,
+                            TimeUnit.MINUTES.toMillis(subscriptionTimeoutMinutes),
+                            TimeUnit.SECONDS.toMillis(subscriptionPollIntervalSeconds),
+                            getChangeLog(), () -> {
+                                try {
+                                    getStatusSnapshot();
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            });
+                    subscriptionHub = hub;
                 }
+            }
+        }
+        return hub;
+    }
+
+    // 구독 전달용: 스냅샷의 카탈로그 기준 id → 번호, 필터 → 패싯 비트맵
+    private StationSubscriptionHub.Matcher filterMatcher(StationStatusSnapshot snapshot) {
+        StationCatalog catalog = snapshot.catalog();
+        return new StationSubscriptionHub.Matcher() {
+            @Override
+            public int ordinalOf(String id) {
+                return catalog.ordinalOf(id);
+            }
+
+            @Override
+            public IntPredicate filter(StationFilter filter) {
+                StationFacetIndex facetIndex = getFacetIndex(catalog);
+                return facetIndex.match(filter, getAvailability(facetIndex, snapshot))::contains;
+            }
+        };
+    }
+
+    private StationChangeLog getChangeLog() {
+        StationChangeLog log = changeLog;
+        if (log == null) {
+            synchronized (this) {
+                log = changeLog;
+                if (log == null) {
+                    log = new StationChangeLog(changeLogSize, changeLogMaxEntries);
+                    changeLog = log;
+                }
+            }
+        }
+        return log;
+    }
 
-                stationMap.put(id, st);
+    private StationTileCache getTileCache() {
+        StationTileCache cache = tileCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = tileCache;
+                if (cache == null) {
+                    cache = new StationTileCache(tileCacheSize);
+                    tileCache = cache;
+                }
             }
         }
+        return cache;
+    }
 
-        // 리스트로 변환 (초기 용량 지정)
-        return new ArrayList<>(stationMap.values());
+    // 좌표 스캐너 (처음 사용할 때 설정에 따라 선택)
+    private StationCoordinateScanner getCoordinateScanner() {
+        StationCoordinateScanner scanner = coordinateScanner;
+        if (scanner == null) {
+            scanner = StationCoordinateScanners.select(simdScan);
+            coordinateScanner = scanner;
+            System.out.println("✅ 좌표 스캔 방식: " + scanner.name());
+        }
+        return scanner;
     }
 
+    // 캐시된 격자 누적합 테이블 가져오기 (같은 카탈로그면 재사용)
+    private StationDensityTable getDensityTable(StationCatalog catalog) {
+        StationDensityTable table = cachedDensityTable;
+        if (table != null && table.catalog() == catalog) {
+            return table;
+        }
+        table = retiredDensityTable;
+        if (table != null && table.catalog() == catalog) {
+            return table;
+        }
 
-    // 캐시된 실시간 상태 가져오기 (캐시가 없거나 만료되면 새로 가져옴)
-    private Map<String, List<Map<String, String>>> getCachedRealtimeStatuses() {
+        table = new StationDensityTable(catalog);
+        if (catalog == cachedCatalog) {
+            cachedDensityTable = table;
+        }
+        return table;
+    }
+
+    // 실시간 API에서 받은 추가/수정/삭제를 카탈로그 새 버전으로 반영
+    // - 바뀐 세그먼트만 복사, 공간 인덱스/누적합 테이블은 바뀐 충전소만 고침
+    // - 요청은 getCatalog() 로 받은 버전을 끝까지 사용하므로 반영 도중에도 한 버전만 봄
+    private void applyCatalogBatch(StationCatalogBatch batch) {
+        if (batch.isEmpty()) return;
+
+        synchronized (catalogLoadLock) {
+            StationCatalog current = cachedCatalog;
+            if (current == null) return;
+
+            long start = System.currentTimeMillis();
+            StationCatalogDelta delta = current.apply(batch, nextCatalogVersion());
+            if (delta == null) return;
+
+            // 파생 구조 먼저 갱신 (이전 버전은 retired 로 남겨 진행 중인 요청이 계속 사용)
+            StationSpatialIndex index = cachedSpatialIndex;
+            if (index != null && index.catalog() == current) {
+                retiredSpatialIndex = index;
+                cachedSpatialIndex = index.update(delta);
+            }
+            StationDensityTable table = cachedDensityTable;
+            if (table != null && table.catalog() == current) {
+                retiredDensityTable = table;
+                cachedDensityTable = table.update(delta);
+            }
+            StationRegions regions = cachedRegions;
+            if (regions != null && regions.catalog() == current) {
+                cachedRegions = regions.update(delta, regionBoundaries);
+            }
+            StationSearchIndex searchIndex = cachedSearchIndex;
+            if (searchIndex != null && searchIndex.catalog() == current) {
+                cachedSearchIndex = searchIndex.update(delta);
+            }
+            getTileCache().invalidate(delta);
+
+            cachedCatalog = delta.current();
+            System.out.println("🧩 카탈로그 증분 반영 v" + delta.current().version() + ": 추가 " + delta.added()
+                    + ", 수정 " + delta.updated() + ", 삭제 " + delta.removed()
+                    + " (" + (System.currentTimeMillis() - start) + "ms)");
+        }
+    }
+
+    // 캐시된 실시간 상태 스냅샷 가져오기
+    private StationStatusSnapshot getStatusSnapshot() throws IOException {
         long currentTime = System.currentTimeMillis();
+        StationCatalog catalog = getCatalog();
+        StationStatusSnapshot snapshot = cachedSnapshot;
 
-        // 캐시가 유효하면 캐시된 데이터 반환
-        if (cachedRealtimeStatuses != null && (currentTime - cacheTimestamp) < CACHE_DURATION_MS) {
-            System.out.println("✅ 캐시된 실시간 상태 사용 (캐시 유효 시간: " + ((CACHE_DURATION_MS - (currentTime - cacheTimestamp)) / 1000) + "초 남음)");
-            return cachedRealtimeStatuses;
+        // 캐시가 유효하고 같은 카탈로그 기준이면 캐시된 스냅샷 반환
+        if (snapshot != null && snapshot.catalog() == catalog
+                && (currentTime - snapshotTimestamp) < STATIONS_CACHE_DURATION_MS) {
+            return snapshot;
+        }
+
+        // 새 스냅샷은 한 번에 하나만 만듦 (만들기 → 교체 → 타일 제거 → 변경 로그 기록 → 구독 전송이 스냅샷마다 한 번, 순서대로)
+        // 기다리는 동안 다른 요청이 이미 바꿨으면 그 스냅샷 사용
+        synchronized (snapshotLock) {
+            catalog = getCatalog();
+            snapshot = cachedSnapshot;
+            currentTime = System.currentTimeMillis();
+            if (snapshot != null && snapshot.catalog() == catalog
+                    && (currentTime - snapshotTimestamp) < STATIONS_CACHE_DURATION_MS) {
+                return snapshot;
+            }
+
+            // ✅ 실시간 정보 반영 + 주작 생성 (캐시 사용)
+            snapshot = StationStatusSnapshot.build(catalog, getCachedRealtimeStatuses(), FAKE_STATUS_SEED,
+                    ++snapshotVersion);
+
+            // 지역별 상태 합계: 같은 카탈로그면 개수가 바뀐 충전소만 반영, 카탈로그가 바뀌었으면 새로 합산
+            // (/regions 는 만들어진 합계만 읽음 - 스냅샷보다 먼저 바꿔 두어 새 스냅샷과 항상 짝이 맞음)
+            StationStatusSnapshot previous = cachedSnapshot;
+            int[] changed = previous != null ? StationStatusSnapshot.countChanges(previous, snapshot) : null;
+            StationRegions regions = getStationRegions(catalog);
+            StationRegions.Live live = cachedRegionLive;
+            cachedRegionLive = live != null && live.regions() == regions && live.snapshot() == previous
+                    ? live.next(snapshot, changed) : regions.liveTotals(snapshot);
+
+            // 캐시 업데이트 (상태가 바뀐 충전소의 벡터 타일 제거)
+            cachedSnapshot = snapshot;
+            snapshotTimestamp = currentTime;
+            if (previous != null) {
+                getTileCache().invalidate(snapshot, changed);
+            }
+            StationChangeLog.Changeset changes = getChangeLog().record(snapshot);
+            StationSubscriptionHub hub = subscriptionHub;
+            if (changes != null && hub != null) {
+                hub.publish(changes, filterMatcher(snapshot));
+            }
+
+            return snapshot;
         }
+    }
 
-        // 캐시가 없거나 만료되었으면 새로 가져오기
-        System.out.println("🔄 실시간 상태 새로 가져오는 중...");
-        Map<String, List<Map<String, String>>> result = fetchAllRealtimeStatuses();
+    // 캐시된 카탈로그 가져오기
+    private StationCatalog getCatalog() throws IOException {
+        StationCatalog catalog = cachedCatalog;
 
-        // 실시간 상태 조회가 성공했을 때만 캐시 업데이트
-        // 실패하면 기존 캐시를 계속 사용
-        if (result != null && !result.isEmpty()) {
-            cachedRealtimeStatuses = result;
-            cacheTimestamp = currentTime;
-        } else if (cachedRealtimeStatuses != null) {
-            // 실패했지만 기존 캐시가 있으면 기존 캐시 사용
-            System.out.println("⚠️ 실시간 상태 조회 실패, 기존 캐시 사용");
-            return cachedRealtimeStatuses;
+        // 이미 로드되었으면 그대로 반환 (교체는 reloadCatalog 에서만)
+        if (catalog != null) {
+            return catalog;
         }
 
-        return result;
+        // 처음이면 로드 (사전 로드 스레드와 먼저 들어온 요청이 동시에 파싱하지 않도록 한 번만)
+        synchronized (catalogLoadLock) {
+            catalog = cachedCatalog;
+            if (catalog == null) {
+                catalog = loadCatalogInternal(nextCatalogVersion());
+                cachedCatalog = catalog;
+            }
+            return catalog;
+        }
     }
 
-    // 백그라운드에서 주기적으로 실시간 상태 업데이트 (선택사항)
-    public void refreshRealtimeStatusesAsync() {
-        new Thread(() -> {
+    private synchronized long nextCatalogVersion() {
+        return ++catalogVersion;
+    }
+
+    // 내부 메서드: 카탈로그 생성 (스냅샷이 유효하면 스냅샷에서 복원, 아니면 CSV 파싱 후 스냅샷 저장)
+    private StationCatalog loadCatalogInternal(long version) throws IOException {
+        long start = System.currentTimeMillis();
+        ByteBuffer csv = readCatalogCsv();
+        if (catalogSnapshotPath.isBlank()) {
+            return StationCsvLoader.parse(csv, version);
+        }
+
+        Path snapshotPath = Path.of(catalogSnapshotPath);
+        long checksum = StationCatalogSnapshot.checksum(csv);
+        StationCatalogSnapshot snapshot = StationCatalogSnapshot.read(snapshotPath, checksum, version);
+        if (snapshot != null) {
+            cachedSpatialIndex = snapshot.spatialIndex();
+            System.out.println("⚡ 카탈로그 스냅샷 사용: " + snapshot.catalog().size() + "개 ("
+                    + (System.currentTimeMillis() - start) + "ms)");
+            return snapshot.catalog();
+        }
+
+        StationCatalog catalog = StationCsvLoader.parse(csv, version);
+        // 아직 cachedCatalog 가 아니라 getSpatialIndex 가 캐시하지 않으므로 직접 저장 (스냅샷 경로와 동일)
+        StationSpatialIndex index = getSpatialIndex(catalog);
+        cachedSpatialIndex = index;
+        System.out.println("📄 CSV 파싱: " + catalog.size() + "개 (" + (System.currentTimeMillis() - start) + "ms)");
+
+        // 스냅샷 저장은 응답을 늦추지 않도록 백그라운드에서
+        CompletableFuture.runAsync(() -> {
             try {
-                System.out.println("🔄 백그라운드에서 실시간 상태 업데이트 시작...");
-                Map<String, List<Map<String, String>>> result = fetchAllRealtimeStatuses();
-                cachedRealtimeStatuses = result;
-                cacheTimestamp = System.currentTimeMillis();
-                System.out.println("✅ 백그라운드 실시간 상태 업데이트 완료");
-            } catch (Exception e) {
-                System.out.println("⚠️ 백그라운드 실시간 상태 업데이트 실패: " + e.getMessage());
+                StationCatalogSnapshot.write(snapshotPath, checksum, catalog, index);
+                System.out.println("💾 카탈로그 스냅샷 저장: " + snapshotPath);
+            } catch (IOException e) {
+                System.out.println("⚠️ 카탈로그 스냅샷 저장 실패: " + e.getMessage());
             }
-        }).start();
+        });
+        return catalog;
     }
 
-    private Map<String, List<Map<String, String>>> fetchAllRealtimeStatuses() {
-        Map<String, List<Map<String, String>>> result = new HashMap<>();
+    // CSV 원본 (파일 경로가 설정되어 있으면 파일, 아니면 클래스패스)
+    private ByteBuffer readCatalogCsv() throws IOException {
+        if (!catalogPath.isBlank()) {
+            return StationCsvLoader.read(Path.of(catalogPath));
+        }
 
-        try {
-            String urlStr = "https://apis.data.go.kr/B552584/EvCharger/getChargerInfo"
-                    + "?serviceKey=" + SERVICE_KEY
-                    + "&pageNo=1"
-                    + "&numOfRows=2000"
-                    + "&dataType=XML"
-                    + "&zcode=11";
-
-            URL url = new URL(urlStr);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(3000); // 연결 타임아웃 단축 (3초)
-            conn.setReadTimeout(8000); // 읽기 타임아웃 (8초)
-            conn.setDoInput(true);
-
-            if (conn.getResponseCode() != 200) {
-                System.out.println("⚠️ API 응답 오류: " + conn.getResponseCode());
-                return result;
+        try (InputStream inputStream = getClass().getResourceAsStream("/data1.csv")) {
+            if (inputStream == null) {
+                throw new FileNotFoundException("❌ data1.csv 파일을 찾을 수 없습니다.");
             }
+            return StationCsvLoader.read(inputStream);
+        }
+    }
 
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(conn.getInputStream());
-            NodeList list = doc.getElementsByTagName("item");
-
-            // ⚙️ 개별 충전기 데이터 수집
-            for (int i = 0; i < list.getLength(); i++) {
-                Element el = (Element) list.item(i);
-                String statId = el.getElementsByTagName("statId").item(0).getTextContent();
-                String chgerId = el.getElementsByTagName("chgerId").item(0).getTextContent();
-                String chgerType = el.getElementsByTagName("chgerType").item(0).getTextContent();
-                String stat = el.getElementsByTagName("stat").item(0).getTextContent();
-
-                // ⚙️ 타입 코드 변환
-                String chargerType = switch (chgerType) {
-                    case "01" -> "DC차데모";
-                    case "02" -> "AC완속";
-                    case "03" -> "DC콤보";
-                    case "04" -> "DC차데모+AC3상";
-                    case "05" -> "DC차데모+DC콤보";
-                    case "06" -> "DC차데모+DC콤보+AC3상";
-                    default -> "기타";
-                };
-
-                // ⚙️ 상태 코드 변환
-                String status = switch (stat) {
-                    case "1" -> "충전가능";
-                    case "2" -> "충전중";
-                    case "3" -> "점검중";
-                    default -> "정보없음";
-                };
-
-                // ⚙️ 속도 분류
-                String speed = (chgerType.equals("02")) ? "완속" : "급속";
-
-                // ⚙️ 상세 객체
-                Map<String, String> detail = new LinkedHashMap<>();
-                detail.put("speed", speed);
-                detail.put("chargerType", chargerType);
-                detail.put("status", status);
-                detail.put("chgerId", statId + "-" + chgerId);
-
-                result.computeIfAbsent(statId, k -> new ArrayList<>()).add(detail);
-            }
-
-            // ⚙️ 충전소별 요약(summary)
-            for (Map.Entry<String, List<Map<String, String>>> entry : result.entrySet()) {
-                List<Map<String, String>> details = entry.getValue();
-                int total = details.size();
-                int available = 0, charging = 0, check = 0;
+    // 캐시된 실시간 상태 가져오기 (캐시가 없거나 만료되면 백그라운드 수집 시작)
+    // 요청은 수집을 기다리지 않음: 수집이 끝날 때까지 기존 캐시 사용 (처음이면 빈 맵 → 주작 상태)
+    private Map<String, List<Map<String, String>>> getCachedRealtimeStatuses() {
+        long currentTime = System.currentTimeMillis();
+        Map<String, List<Map<String, String>>> cached = cachedRealtimeStatuses;
 
-                for (Map<String, String> d : details) {
-                    String s = d.get("status");
-                    if (s.equals("충전가능")) available++;
-                    else if (s.equals("충전중")) charging++;
-                    else if (s.equals("점검중")) check++;
-                }
+        // 캐시가 유효하면 캐시된 데이터 반환
+        if (cached != null && (currentTime - cacheTimestamp) < CACHE_DURATION_MS) {
+            System.out.println("✅ 캐시된 실시간 상태 사용 (캐시 유효 시간: " + ((CACHE_DURATION_MS - (currentTime - cacheTimestamp)) / 1000) + "초 남음)");
+            return cached;
+        }
 
-                String summary;
-                if (charging == total) summary = total + "/" + total + " 충전중";
-                else if (check == total) summary = total + "/" + total + " 점검중";
-                else if (available == total) summary = total + "/" + total + " 충전가능";
-                else summary = available + "/" + total + " 충전가능";
+        // 캐시가 없거나 만료되었으면 새로 가져오기 (실패 후 재시도 대기 중이면 건너뜀)
+        if (currentTime >= realtimeRetryAt) {
+            refreshRealtimeStatusesAsync();
+        }
+        return cached != null ? cached : Map.of();
+    }
 
-                // ✅ 첫 번째 충전기에 요약 정보 추가 (JS에서 st.status로 사용)
-                if (!details.isEmpty()) {
-                    details.get(0).put("summary", summary);
+    // 백그라운드에서 실시간 상태 업데이트 (이미 수집 중이면 무시)
+    // 성공하면 캐시 교체 + 상태 스냅샷 만료 (다음 요청이 새 상태로 스냅샷을 다시 만듦)
+    public void refreshRealtimeStatusesAsync() {
+        if (!realtimeRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                System.out.println("🔄 백그라운드에서 실시간 상태 업데이트 시작...");
+                StationRealtimeFetcher.Result result = fetchAllRealtimeStatuses();
+
+                // 실시간 상태 조회가 성공했을 때만 캐시 업데이트, 실패하면 기존 캐시를 계속 사용
+                if (result != null && result.pages() > 0 && !result.statuses().isEmpty()) {
+                    cachedRealtimeStatuses = result.statuses();
+                    cacheTimestamp = System.currentTimeMillis();
+                    realtimeFailures = 0;
+                    realtimeRetryAt = 0;
+                    snapshotTimestamp = 0;
+                    System.out.println("✅ 백그라운드 실시간 상태 업데이트 완료");
+                } else {
+                    realtimeFailures++;
+                    long backoff = Math.min(REALTIME_RETRY_MAX_MS,
+                            REALTIME_RETRY_MIN_MS << Math.min(realtimeFailures - 1, 10));
+                    realtimeRetryAt = System.currentTimeMillis() + backoff;
+                    System.out.println("⚠️ 실시간 상태 조회 실패 (" + realtimeFailures + "회 연속), "
+                            + (backoff / 1000) + "초 후 다시 시도" + (cachedRealtimeStatuses != null ? ", 기존 캐시 사용" : ""));
                 }
+            } finally {
+                realtimeRefreshing.set(false);
             }
+        }, "ev-realtime-refresh");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-            System.out.println("✅ 실시간 상태 " + result.size() + "건 수집 완료");
-
+    // 전국 실시간 상태 수집 (모든 지역 코드 × 모든 페이지, 예산/제한 시간 안에서) + 카탈로그 반영, 실패하면 null
+    private StationRealtimeFetcher.Result fetchAllRealtimeStatuses() {
+        try {
+            StationRealtimeFetcher.Result result = getRealtimeFetcher().refresh();
+            applyCatalogBatch(result.batch());
+            return result;
         } catch (Exception e) {
-            // 실시간 상태 조회 실패 시 조용히 처리 (캐시된 데이터가 있으면 사용)
-            // System.out.println("⚠️ 실시간 상태 조회 실패: " + e.getMessage());
+            System.out.println("⚠️ 실시간 상태 조회 실패: " + e.getMessage());
+            return null;
         }
+    }
 
-        return result;
+    private StationRealtimeFetcher getRealtimeFetcher() {
+        StationRealtimeFetcher fetcher = realtimeFetcher;
+        if (fetcher != null) {
+            return fetcher;
+        }
+        synchronized (realtimeFetcherLock) {
+            if (realtimeFetcher == null) {
+                List<String> zcodes = new ArrayList<>();
+                for (String zcode : realtimeZcodes.split(",")) {
+                    if (!zcode.isBlank()) zcodes.add(zcode.trim());
+                }
+                realtimeFetcher = new StationRealtimeFetcher(this::openChargerInfoPage, zcodes,
+                        Math.max(1, realtimePageSize), Math.max(1, realtimeParallelism),
+                        TimeUnit.SECONDS.toMillis(realtimeTimeoutSeconds), realtimeDailyRequestBudget);
+            }
+            return realtimeFetcher;
+        }
+    }
+
+    // getChargerInfo 페이지 1개 요청 (200 이 아니면 IOException)
+    private InputStream openChargerInfoPage(String zcode, int pageNo, int numOfRows) throws IOException {
+        String urlStr = "https://apis.data.go.kr/B552584/EvCharger/getChargerInfo"
+                + "?serviceKey=" + SERVICE_KEY
+                + "&pageNo=" + pageNo
+                + "&numOfRows=" + numOfRows
+                + "&dataType=XML"
+                + "&zcode=" + URLEncoder.encode(zcode, "UTF-8");
+
+        URL url = new URL(urlStr);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("GET");
+        conn.setConnectTimeout(REALTIME_CONNECT_TIMEOUT_MS);
+        conn.setReadTimeout(REALTIME_READ_TIMEOUT_MS);
+        conn.setDoInput(true);
+
+        int code = conn.getResponseCode();
+        if (code != 200) {
+            conn.disconnect();
+            throw new IOException("API 응답 오류: " + code);
+        }
+        return new BufferedInputStream(conn.getInputStream(), 1 << 16);
     }
 
     // 시간별 사용량 데이터 조회 (날짜별)
@@ -503,9 +1181,15 @@ public class EvService {
     public List<Map<String, Object>> getClusters(java.math.BigDecimal latitude, java.math.BigDecimal longitude,
                                                  java.math.BigDecimal latitudeDelta, java.math.BigDecimal longitudeDelta,
                                                  int latitudeDivisionSize, int longitudeDivisionSize) throws IOException {
-        // 경량 버전 사용 (실시간 상태 불필요 - 훨씬 빠름)
-        List<Map<String, Object>> allStations = loadStationsLightweight();
+        return getClusters(latitude, longitude, latitudeDelta, longitudeDelta,
+                latitudeDivisionSize, longitudeDivisionSize, StationFilter.NONE);
+    }
 
+    // 클러스터 계산 + 필터 (필터가 있으면 항목별 비트맵 AND/OR 결과에 속한 충전소만 집계)
+    public List<Map<String, Object>> getClusters(java.math.BigDecimal latitude, java.math.BigDecimal longitude,
+                                                 java.math.BigDecimal latitudeDelta, java.math.BigDecimal longitudeDelta,
+                                                 int latitudeDivisionSize, int longitudeDivisionSize,
+                                                 StationFilter filter) throws IOException {
         // 중심점 기준으로 범위 계산 (2023-car-ffeine-develop 방식)
         double centerLat = latitude.doubleValue();
         double centerLng = longitude.doubleValue();
@@ -522,71 +1206,179 @@ public class EvService {
             return new ArrayList<>();
         }
 
-        double latInterval = (maxLat - minLat) / latitudeDivisionSize;
-        double lngInterval = (maxLng - minLng) / longitudeDivisionSize;
-
-        // 그리드맵: key = "latIndex_lngIndex", value = count와 실제 충전소들의 평균 위치
-        // ConcurrentHashMap 사용으로 동기화 오버헤드 제거 (무한히 빠르게!)
-        int estimatedSize = Math.min(allStations.size() / 10, 1000);
-        ConcurrentHashMap<String, Integer> gridCounts = new ConcurrentHashMap<>(estimatedSize);
-        ConcurrentHashMap<String, Double> gridSumLat = new ConcurrentHashMap<>(estimatedSize);
-        ConcurrentHashMap<String, Double> gridSumLng = new ConcurrentHashMap<>(estimatedSize);
-
-        // Stream API로 범위 필터링 및 그리드 할당
-        // 항상 병렬 처리 (ConcurrentHashMap으로 안전, 무한히 빠르게!)
-        // 범위 필터링을 먼저 수행하여 불필요한 계산 최소화
-        allStations.parallelStream()
-                .filter(station -> {
-                    // null 체크와 범위 필터링을 한 번에 수행 (최적화)
-                    Object latObj = station.get("lat");
-                    Object lngObj = station.get("lng");
-                    if (latObj == null || lngObj == null) return false;
-
-                    double lat = ((Double) latObj).doubleValue();
-                    double lng = ((Double) lngObj).doubleValue();
-
-                    // 범위 체크 (조기 종료로 성능 향상)
-                    return lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng;
-                })
-                .forEach(station -> {
-                    // 이미 필터링된 데이터이므로 안전하게 캐스팅
-                    double lat = ((Double) station.get("lat")).doubleValue();
-                    double lng = ((Double) station.get("lng")).doubleValue();
-
-                    // 그리드 인덱스 계산 (Math.floor 최적화)
-                    int latIndex = Math.max(0, Math.min(latitudeDivisionSize - 1,
-                            (int) ((lat - minLat) / latInterval)));
-                    int lngIndex = Math.max(0, Math.min(longitudeDivisionSize - 1,
-                            (int) ((lng - minLng) / lngInterval)));
-
-                    // String 연산 최적화 (간단한 연결이 가장 빠름)
-                    String gridKey = latIndex + "_" + lngIndex;
-
-                    // ConcurrentHashMap.merge로 원자적 연산 (동기화 오버헤드 제거, 무한히 빠르게!)
-                    gridCounts.merge(gridKey, 1, Integer::sum);
-                    gridSumLat.merge(gridKey, lat, Double::sum);
-                    gridSumLng.merge(gridKey, lng, Double::sum);
-                });
-
-        // 클러스터 리스트 생성 (실제 충전소들의 평균 위치 사용)
-        List<Map<String, Object>> clusters = new ArrayList<>(gridCounts.size());
-        for (Map.Entry<String, Integer> entry : gridCounts.entrySet()) {
-            String gridKey = entry.getKey();
-            int count = entry.getValue();
-
-            if (count > 0) {
-                // 실제 충전소들의 평균 위치 계산 (더 자연스러운 배치)
-                double avgLat = gridSumLat.get(gridKey) / count;
-                double avgLng = gridSumLng.get(gridKey) / count;
-
-                // HashMap 사용 (LinkedHashMap보다 빠름, 순서 불필요)
-                Map<String, Object> cluster = new HashMap<>(4);
-                cluster.put("id", gridKey);
-                cluster.put("latitude", avgLat);
-                cluster.put("longitude", avgLng);
-                cluster.put("count", count);
-                clusters.add(cluster);
+        // 실시간 상태가 필요 없는 요청은 양자화된 범위로 계산 + 캐시 (같은 키의 동시 요청은 계산 1번)
+        ClusterViewportCache cache = getClusterViewportCache();
+        if (cache.isEnabled() && !filter.needsAvailability()) {
+            StationCatalog catalog = getCatalog();
+            ClusterViewportCache.Viewport viewport = cache.quantize(centerLat, centerLng, latDelta, lngDelta);
+            return cache.get(viewport, latitudeDivisionSize, longitudeDivisionSize, filter, catalog.version(),
+                    () -> getClustersInBounds(catalog, null, viewport.minLat, viewport.minLng,
+                            viewport.maxLat, viewport.maxLng, latitudeDivisionSize, longitudeDivisionSize, filter));
+        }
+        return getClustersInBounds(minLat, minLng, maxLat, maxLng, latitudeDivisionSize, longitudeDivisionSize, filter);
+    }
+
+    // 클러스터 캐시 적중/실패/합쳐진 요청 수 (양자화 간격 조정용)
+    public Map<String, Object> getClusterCacheStats() {
+        return getClusterViewportCache().stats();
+    }
+
+    private ClusterViewportCache getClusterViewportCache() {
+        ClusterViewportCache cache = clusterViewportCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = clusterViewportCache;
+                if (cache == null) {
+                    cache = new ClusterViewportCache(clusterCacheSize, clusterQuantization);
+                    clusterViewportCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    // 범위(bbox)를 latitudeDivisionSize x longitudeDivisionSize 격자로 나눈 클러스터
+    private List<Map<String, Object>> getClustersInBounds(double minLat, double minLng, double maxLat, double maxLng,
+                                                          int latitudeDivisionSize, int longitudeDivisionSize,
+                                                          StationFilter filter) throws IOException {
+        // 카탈로그의 좌표 컬럼 + 공간 인덱스 사용 (충전가능 필터가 없으면 실시간 상태 불필요 - 훨씬 빠름)
+        StationStatusSnapshot snapshot = filter.needsAvailability() ? getStatusSnapshot() : null;
+        StationCatalog catalog = snapshot != null ? snapshot.catalog() : getCatalog();
+        return getClustersInBounds(catalog, snapshot, minLat, minLng, maxLat, maxLng,
+                latitudeDivisionSize, longitudeDivisionSize, filter);
+    }
+
+    // snapshot 은 충전가능 필터가 있을 때만 필요 (없으면 null)
+    private List<Map<String, Object>> getClustersInBounds(StationCatalog catalog, StationStatusSnapshot snapshot,
+                                                          double minLat, double minLng, double maxLat, double maxLng,
+                                                          int latitudeDivisionSize, int longitudeDivisionSize,
+                                                          StationFilter filter) {
+        double[] lats = catalog.latArray();
+        double[] lngs = catalog.lngArray();
+
+        GridClusterAggregator.Grid grid;
+        StationDensityTable densityTable = getDensityTable(catalog);
+        if (filter.isEmpty() && densityTable.supports((maxLat - minLat) / latitudeDivisionSize,
+                (maxLng - minLng) / longitudeDivisionSize)) {
+            // 넓은 화면: 전국 격자 누적합 테이블에서 셀마다 4칸 조회 (충전소 수와 무관)
+            grid = densityTable.aggregate(minLat, minLng, maxLat, maxLng, latitudeDivisionSize, longitudeDivisionSize);
+        } else {
+            // 좁은 화면 또는 필터: 범위 내 충전소만 추린 뒤 셀 인덱스(int) 기준 primitive 배열에 누적
+            // (많으면 fork-join 으로 나눠서 합산, 누적합 테이블은 필터 구분이 없어 필터가 있으면 사용 안 함)
+            int[] ordinals;
+            if (filter.isEmpty()) {
+                ordinals = searchViewport(catalog, minLat, minLng, maxLat, maxLng);
+            } else {
+                StationFacetIndex facetIndex = getFacetIndex(catalog);
+                StationBitmap matched = facetIndex.match(filter,
+                        snapshot != null ? getAvailability(facetIndex, snapshot) : null);
+                ordinals = searchFiltered(catalog, matched, minLat, minLng, maxLat, maxLng, Integer.MAX_VALUE);
             }
+            grid = GridClusterAggregator.aggregate(lats, lngs, ordinals, ordinals.length,
+                    minLat, minLng, maxLat, maxLng, latitudeDivisionSize, longitudeDivisionSize);
+        }
+        return toClusters(grid, longitudeDivisionSize);
+    }
+
+    /**
+     * 화면 범위(bbox)에 맞는 마커 한 종류 (충전소 수에 따라 서버가 선택)
+     * - regions: 화면 안 충전소가 전체의 viewportRegionRatio 이상 (전국/광역 화면)
+     * - stations: 화면 안 충전소가 마커 예산 이하 → 충전소 그대로
+     * - clusters: 그 사이 → 셀 수가 마커 예산 이하인 격자 클러스터
+     * - 응답: { mode, count, items }
+     */
+    public Map<String, Object> getViewport(double minLat, double minLng, double maxLat, double maxLng) throws IOException {
+        StationCatalog catalog = getCatalog();
+        int budget = Math.max(1, viewportMarkerBudget);
+        Map<String, Object> result = new LinkedHashMap<>();
+
+        // 격자 누적합으로 개수 추정 (상한값, 충전소 순회 없음) → 예산 근처일 때만 인덱스로 정확히 셈
+        int estimate = getDensityTable(catalog).estimateCount(minLat, minLng, maxLat, maxLng);
+        if (estimate >= catalog.size() * viewportRegionRatio && estimate > budget) {
+            List<Map<String, Object>> regions = getRegions();
+            result.put("mode", "regions");
+            result.put("count", regions.stream().mapToInt(region -> (int) region.get("count")).sum());
+            result.put("items", regions);
+            return result;
+        }
+
+        if (estimate <= budget
+                || getSpatialIndex(catalog).count(minLat, minLng, maxLat, maxLng, budget + 1) <= budget) {
+            List<Map<String, Object>> stations = loadStationsInBounds(minLat, minLng, maxLat, maxLng, budget + 1);
+            if (stations.size() <= budget) {
+                result.put("mode", "stations");
+                result.put("count", stations.size());
+                result.put("items", stations);
+                return result;
+            }
+        }
+
+        // 셀이 화면 비율에 맞게 정사각형에 가깝도록 행/열 수 결정 (행 x 열 <= 예산)
+        double heightM = (maxLat - minLat) * StationCoordinateScanner.DEG_TO_M;
+        double widthM = (maxLng - minLng) * StationCoordinateScanner.DEG_TO_M
+                * Math.cos(Math.toRadians((minLat + maxLat) / 2));
+        int rows = (int) Math.max(1, Math.min(100, Math.round(Math.sqrt(budget * heightM / Math.max(1, widthM)))));
+        int cols = Math.max(1, Math.min(100, budget / rows));
+        List<Map<String, Object>> clusters = getClustersInBounds(minLat, minLng, maxLat, maxLng,
+                rows, cols, StationFilter.NONE);
+        result.put("mode", "clusters");
+        result.put("count", clusters.stream().mapToInt(cluster -> (int) cluster.get("count")).sum());
+        result.put("items", clusters);
+        return result;
+    }
+
+    // 클러스터 + 필터 항목별 개수 (범위 비트맵 1개로 클러스터 집계 대상과 항목별 개수를 함께 계산)
+    public Map<String, Object> getClustersWithFacets(java.math.BigDecimal latitude, java.math.BigDecimal longitude,
+                                                     java.math.BigDecimal latitudeDelta, java.math.BigDecimal longitudeDelta,
+                                                     int latitudeDivisionSize, int longitudeDivisionSize,
+                                                     StationFilter filter) throws IOException {
+        StationStatusSnapshot snapshot = getStatusSnapshot();
+        StationCatalog catalog = snapshot.catalog();
+        StationFacetIndex facetIndex = getFacetIndex(catalog);
+        StationFacetIndex.Availability availability = getAvailability(facetIndex, snapshot);
+
+        double minLat = latitude.doubleValue() - latitudeDelta.doubleValue();
+        double maxLat = latitude.doubleValue() + latitudeDelta.doubleValue();
+        double minLng = longitude.doubleValue() - longitudeDelta.doubleValue();
+        double maxLng = longitude.doubleValue() + longitudeDelta.doubleValue();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (maxLat <= minLat || maxLng <= minLng) {
+            result.put("clusters", new ArrayList<>());
+            result.put("total", 0);
+            result.put("facets", new LinkedHashMap<>());
+            return result;
+        }
+
+        StationBitmap viewport = getViewportBitmap(catalog, minLat, minLng, maxLat, maxLng);
+        int[] ordinals = facetIndex.filter(viewport, filter, availability).toArray();
+        GridClusterAggregator.Grid grid = GridClusterAggregator.aggregate(catalog.latArray(), catalog.lngArray(),
+                ordinals, ordinals.length, minLat, minLng, maxLat, maxLng, latitudeDivisionSize, longitudeDivisionSize);
+
+        result.put("clusters", toClusters(grid, longitudeDivisionSize));
+        result.put("total", ordinals.length);
+        result.put("facets", facetIndex.facets(viewport, filter, availability));
+        return result;
+    }
+
+    // 클러스터 리스트 생성 (실제 충전소들의 평균 위치 사용)
+    private List<Map<String, Object>> toClusters(GridClusterAggregator.Grid grid, int longitudeDivisionSize) {
+        List<Map<String, Object>> clusters = new ArrayList<>();
+        for (int cell = 0; cell < grid.cells(); cell++) {
+            int count = grid.counts[cell];
+            if (count == 0) continue;
+
+            // 실제 충전소들의 평균 위치 계산 (더 자연스러운 배치)
+            double avgLat = grid.sumLat[cell] / count;
+            double avgLng = grid.sumLng[cell] / count;
+
+            // HashMap 사용 (LinkedHashMap보다 빠름, 순서 불필요)
+            Map<String, Object> cluster = new HashMap<>(4);
+            cluster.put("id", (cell / longitudeDivisionSize) + "_" + (cell % longitudeDivisionSize));
+            cluster.put("latitude", avgLat);
+            cluster.put("longitude", avgLng);
+            cluster.put("count", count);
+            clusters.add(cluster);
         }
 
         return clusters;
@@ -594,57 +1386,33 @@ public class EvService {
 
     // 지역 마커 조회 (2023-car-ffeine-develop 방식)
     public List<Map<String, Object>> getRegions() throws IOException {
-        // 경량 버전 사용 (실시간 상태 불필요 - 훨씬 빠름)
-        List<Map<String, Object>> allStations = loadStationsLightweight();
-
-        // 2023-car-ffeine-develop의 Region enum과 동일한 지역 목록
-        // 각 지역의 정확한 중심지 좌표 (지도에 표시된 지역명 텍스트 위치 기준)
-        Map<String, Map<String, Object>> regionMap = new LinkedHashMap<>();
-        regionMap.put("서울특별시", createRegion("서울특별시", 37.5665, 126.9780));
-        regionMap.put("인천광역시", createRegion("인천광역시", 37.4636, 126.6480));
-        regionMap.put("광주광역시", createRegion("광주광역시", 35.1595, 126.8526));
-        regionMap.put("대구광역시", createRegion("대구광역시", 35.8714, 128.6014));
-        regionMap.put("울산광역시", createRegion("울산광역시", 35.5384, 129.3114));
-        regionMap.put("대전광역시", createRegion("대전광역시", 36.3504, 127.3845));
-        regionMap.put("부산광역시", createRegion("부산광역시", 35.1796, 129.0756));
-
-        regionMap.put("경기도", createRegion("경기도", 37.3500, 127.1500));
-        regionMap.put("강원특별자치도", createRegion("강원특별자치도", 37.7000, 128.3000));
-        regionMap.put("충청남도", createRegion("충청남도", 36.6000, 126.8000));
-        regionMap.put("충청북도", createRegion("충청북도", 36.9900, 127.9000));
-        regionMap.put("경상북도", createRegion("경상북도", 36.2000, 128.8000));
-        regionMap.put("경상남도", createRegion("경상남도", 35.2000, 128.1000));
-        regionMap.put("전라북도", createRegion("전라북도", 35.7000, 127.1000));
-        regionMap.put("전라남도", createRegion("전라남도", 34.8000, 126.9000));
-        regionMap.put("제주특별자치도", createRegion("제주특별자치도", 33.3800, 126.5500));
-
-
-        // 각 지역별 충전소 개수 계산
-        for (Map<String, Object> station : allStations) {
-            String addr = (String) station.getOrDefault("addr", "");
-            if (addr == null || addr.isEmpty()) continue;
-
-            for (Map.Entry<String, Map<String, Object>> entry : regionMap.entrySet()) {
-                String regionName = entry.getKey();
-                if (addr.startsWith(regionName)) {
-                    Map<String, Object> region = entry.getValue();
-                    int count = (Integer) region.getOrDefault("count", 0);
-                    region.put("count", count + 1);
-                    break;
-                }
-            }
+        // 미리 계산된 지역별 개수만 읽음 (충전소 순회 없음)
+        StationCatalog catalog = getCatalog();
+        StationRegions regions = getStationRegions(catalog);
+
+        // 실시간 상태 합계는 스냅샷을 바꿀 때 갱신해 둔 값만 읽음 (같은 카탈로그 기준일 때만, 지역 조회 때문에 API 호출하지 않음)
+        StationRegions.Live live = cachedRegionLive;
+        if (live != null && live.regions() != regions) {
+            live = null;
         }
 
         // 지역 리스트 생성 (충전소가 있는 지역만)
-        List<Map<String, Object>> regions = new ArrayList<>();
-        for (Map<String, Object> region : regionMap.values()) {
-            int count = (Integer) region.getOrDefault("count", 0);
-            if (count > 0) {
-                regions.add(region);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int region = 0; region < StationRegions.regionCount(); region++) {
+            int count = regions.count(region);
+            if (count == 0) continue;
+
+            Map<String, Object> item = createRegion(StationRegions.name(region),
+                    StationRegions.centerLat(region), StationRegions.centerLng(region));
+            item.put("count", count);
+            if (live != null) {
+                item.put("available", live.available(region));
+                item.put("charging", live.charging(region));
+                item.put("maintenance", live.check(region));
             }
+            result.add(item);
         }
-
-        return regions;
+        return result;
     }
 
     private Map<String, Object> createRegion(String regionName, double latitude, double longitude) {
@@ -655,4 +1423,31 @@ public class EvService {
         region.put("count", 0);
         return region;
     }
+
+    // 캐시된 지역 배정 가져오기 (같은 카탈로그면 재사용)
+    private StationRegions getStationRegions(StationCatalog catalog) throws IOException {
+        StationRegions regions = cachedRegions;
+        if (regions != null && regions.catalog() == catalog) {
+            return regions;
+        }
+
+        regions = new StationRegions(catalog, getRegionBoundaries());
+        if (catalog == cachedCatalog) {
+            cachedRegions = regions;
+        }
+        return regions;
+    }
+
+    // 시/도 경계 데이터 (처음 한 번만 읽음, 없으면 주소 기준 배정만 사용)
+    private RegionBoundaries getRegionBoundaries() throws IOException {
+        RegionBoundaries boundaries = regionBoundaries;
+        if (boundaries == null) {
+            boundaries = RegionBoundaries.loadDefault();
+            System.out.println(boundaries.isEmpty()
+                    ? "⚠️ 지역 경계 데이터 없음 (" + RegionBoundaries.RESOURCE + ") → 주소 기준으로 지역 배정"
+                    : "🗺️ 지역 경계 폴리곤 " + boundaries.polygonCount() + "개 로드");
+            regionBoundaries = boundaries;
+        }
+        return boundaries;
+    }
 }
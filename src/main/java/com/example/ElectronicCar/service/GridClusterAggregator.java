@@ -0,0 +1,139 @@
+package com.example.ElectronicCar.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 그리드 클러스터 집계 (할당 없는 버전)
+ * - 셀 인덱스를 int 하나로 패킹 (latIndex * lngDivisions + lngIndex)
+ * - count / sumLat / sumLng 를 셀별 primitive 배열에 누적 (String 키, 박싱, CAS 없음)
+ * - 대상이 많으면 fork-join 으로 구간을 나눠 각자 배열에 누적한 뒤 마지막에 합산
+ */
+final class GridClusterAggregator {
+
+    // 이보다 적으면 단일 스레드로 처리 (작업 분할 비용이 더 큼)
+    static final int PARALLEL_THRESHOLD = 16_384;
+
+    private GridClusterAggregator() {
+    }
+
+    /** 셀별 집계 결과 */
+    static final class Grid {
+        final int latDivisions;
+        final int lngDivisions;
+        final int[] counts;
+        final double[] sumLat;
+        final double[] sumLng;
+
+        Grid(int latDivisions, int lngDivisions) {
+            int cells = latDivisions * lngDivisions;
+            this.latDivisions = latDivisions;
+            this.lngDivisions = lngDivisions;
+            this.counts = new int[cells];
+            this.sumLat = new double[cells];
+            this.sumLng = new double[cells];
+        }
+
+        int cells() {
+            return counts.length;
+        }
+
+        void merge(Grid other) {
+            for (int cell = 0; cell < counts.length; cell++) {
+                counts[cell] += other.counts[cell];
+                sumLat[cell] += other.sumLat[cell];
+                sumLng[cell] += other.sumLng[cell];
+            }
+        }
+    }
+
+    /**
+     * ordinals[0..size) 의 충전소를 셀에 누적 (ordinals 는 이미 범위 내로 걸러진 것)
+     */
+    static Grid aggregate(double[] lats, double[] lngs, int[] ordinals, int size,
+                          double minLat, double minLng, double maxLat, double maxLng,
+                          int latDivisions, int lngDivisions) {
+        Bounds bounds = new Bounds(minLat, minLng, maxLat, maxLng, latDivisions, lngDivisions);
+        if (size < PARALLEL_THRESHOLD) {
+            Grid grid = new Grid(latDivisions, lngDivisions);
+            accumulate(grid, bounds, lats, lngs, ordinals, 0, size);
+            return grid;
+        }
+        return ForkJoinPool.commonPool().invoke(new AggregateTask(bounds, lats, lngs, ordinals, 0, size));
+    }
+
+    /**
+     * 전체 충전소를 범위 체크하며 셀에 누적 (인덱스 없이 스캔하는 경우)
+     */
+    static Grid aggregateAll(double[] lats, double[] lngs, int size,
+                             double minLat, double minLng, double maxLat, double maxLng,
+                             int latDivisions, int lngDivisions) {
+        return aggregate(lats, lngs, null, size, minLat, minLng, maxLat, maxLng, latDivisions, lngDivisions);
+    }
+
+    private static void accumulate(Grid grid, Bounds b, double[] lats, double[] lngs,
+                                   int[] ordinals, int from, int to) {
+        int[] counts = grid.counts;
+        double[] sumLat = grid.sumLat;
+        double[] sumLng = grid.sumLng;
+
+        for (int k = from; k < to; k++) {
+            int i = ordinals == null ? k : ordinals[k];
+            double lat = lats[i];
+            double lng = lngs[i];
+            if (lat < b.minLat || lat > b.maxLat || lng < b.minLng || lng > b.maxLng) continue;
+
+            int latIndex = Math.max(0, Math.min(b.latDivisions - 1, (int) ((lat - b.minLat) / b.latInterval)));
+            int lngIndex = Math.max(0, Math.min(b.lngDivisions - 1, (int) ((lng - b.minLng) / b.lngInterval)));
+            int cell = latIndex * b.lngDivisions + lngIndex;
+
+            counts[cell]++;
+            sumLat[cell] += lat;
+            sumLng[cell] += lng;
+        }
+    }
+
+    private record Bounds(double minLat, double minLng, double maxLat, double maxLng,
+                          int latDivisions, int lngDivisions, double latInterval, double lngInterval) {
+        Bounds(double minLat, double minLng, double maxLat, double maxLng, int latDivisions, int lngDivisions) {
+            this(minLat, minLng, maxLat, maxLng, latDivisions, lngDivisions,
+                    (maxLat - minLat) / latDivisions, (maxLng - minLng) / lngDivisions);
+        }
+    }
+
+    // 구간을 반씩 나눠 각자 Grid 에 누적 후 합산
+    private static final class AggregateTask extends RecursiveTask<Grid> {
+        private final Bounds bounds;
+        private final double[] lats;
+        private final double[] lngs;
+        private final int[] ordinals;
+        private final int from;
+        private final int to;
+
+        AggregateTask(Bounds bounds, double[] lats, double[] lngs, int[] ordinals, int from, int to) {
+            this.bounds = bounds;
+            this.lats = lats;
+            this.lngs = lngs;
+            this.ordinals = ordinals;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Grid compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                Grid grid = new Grid(bounds.latDivisions(), bounds.lngDivisions());
+                accumulate(grid, bounds, lats, lngs, ordinals, from, to);
+                return grid;
+            }
+
+            int mid = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(bounds, lats, lngs, ordinals, from, mid);
+            AggregateTask right = new AggregateTask(bounds, lats, lngs, ordinals, mid, to);
+            left.fork();
+            Grid result = right.compute();
+            result.merge(left.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.ElectronicCar.service;
+
+import java.util.function.IntConsumer;
+
+/**
+ * 점(x, y) 전용 정적 KD-tree (kdbush 방식)
+ * - 빌드 시 좌표 배열을 복사하여 제자리 정렬, 이후 읽기 전용
+ * - range(사각형), within(반경) 조회 결과는 입력 배열의 인덱스로 전달
+ */
+final class PointKdTree {
+
+    private static final int NODE_SIZE = 64;
+
+    private final int[] ids;
+    private final double[] coords;
+
+    PointKdTree(double[] xs, double[] ys, int size) {
+        this.ids = new int[size];
+        this.coords = new double[size * 2];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+            coords[2 * i] = xs[i];
+            coords[2 * i + 1] = ys[i];
+        }
+        sort(0, size - 1, 0);
+    }
+
+    // 사각형 범위 내 점 조회
+    void range(double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+        int[] stack = new int[64 * 3];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = ids.length - 1;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int axis = stack[--top];
+            int right = stack[--top];
+            int left = stack[--top];
+            if (left > right) continue;
+
+            if (right - left <= NODE_SIZE) {
+                for (int i = left; i <= right; i++) {
+                    double x = coords[2 * i], y = coords[2 * i + 1];
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) visitor.accept(ids[i]);
+                }
+                continue;
+            }
+
+            int m = (left + right) >> 1;
+            double x = coords[2 * m], y = coords[2 * m + 1];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) visitor.accept(ids[m]);
+
+            if (axis == 0 ? minX <= x : minY <= y) {
+                stack = push(stack, top, left, m - 1, 1 - axis);
+                top += 3;
+            }
+            if (axis == 0 ? maxX >= x : maxY >= y) {
+                stack = push(stack, top, m + 1, right, 1 - axis);
+                top += 3;
+            }
+        }
+    }
+
+    // 반경 r 이내 점 조회
+    void within(double qx, double qy, double r, IntConsumer visitor) {
+        double r2 = r * r;
+        int[] stack = new int[64 * 3];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = ids.length - 1;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int axis = stack[--top];
+            int right = stack[--top];
+            int left = stack[--top];
+            if (left > right) continue;
+
+            if (right - left <= NODE_SIZE) {
+                for (int i = left; i <= right; i++) {
+                    if (sqDist(coords[2 * i], coords[2 * i + 1], qx, qy) <= r2) visitor.accept(ids[i]);
+                }
+                continue;
+            }
+
+            int m = (left + right) >> 1;
+            double x = coords[2 * m], y = coords[2 * m + 1];
+            if (sqDist(x, y, qx, qy) <= r2) visitor.accept(ids[m]);
+
+            if (axis == 0 ? qx - r <= x : qy - r <= y) {
+                stack = push(stack, top, left, m - 1, 1 - axis);
+                top += 3;
+            }
+            if (axis == 0 ? qx + r >= x : qy + r >= y) {
+                stack = push(stack, top, m + 1, right, 1 - axis);
+                top += 3;
+            }
+        }
+    }
+
+    private static int[] push(int[] stack, int top, int left, int right, int axis) {
+        if (top + 3 > stack.length) stack = java.util.Arrays.copyOf(stack, stack.length * 2);
+        stack[top] = left;
+        stack[top + 1] = right;
+        stack[top + 2] = axis;
+        return stack;
+    }
+
+    private void sort(int left, int right, int axis) {
+        if (right - left <= NODE_SIZE) return;
+        int m = (left + right) >> 1;
+        select(m, left, right, axis);
+        sort(left, m - 1, 1 - axis);
+        sort(m + 1, right, 1 - axis);
+    }
+
+    // Floyd-Rivest selection: k 번째 원소가 제자리에 오도록 부분 정렬
+    private void select(int k, int left, int right, int axis) {
+        while (right > left) {
+            if (right - left > 600) {
+                int n = right - left + 1;
+                int m = k - left + 1;
+                double z = Math.log(n);
+                double s = 0.5 * Math.exp(2 * z / 3);
+                double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * (m - n / 2.0 < 0 ? -1 : 1);
+                int newLeft = (int) Math.max(left, Math.floor(k - m * s / n + sd));
+                int newRight = (int) Math.min(right, Math.floor(k + (n - m) * s / n + sd));
+                select(k, newLeft, newRight, axis);
+            }
+
+            double t = coords[2 * k + axis];
+            int i = left;
+            int j = right;
+
+            swap(left, k);
+            if (coords[2 * right + axis] > t) swap(left, right);
+
+            while (i < j) {
+                swap(i, j);
+                i++;
+                j--;
+                while (coords[2 * i + axis] < t) i++;
+                while (coords[2 * j + axis] > t) j--;
+            }
+
+            if (coords[2 * left + axis] == t) swap(left, j);
+            else {
+                j++;
+                swap(j, right);
+            }
+
+            if (j <= k) left = j + 1;
+            if (k <= j) right = j - 1;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+
+        double x = coords[2 * i], y = coords[2 * i + 1];
+        coords[2 * i] = coords[2 * j];
+        coords[2 * i + 1] = coords[2 * j + 1];
+        coords[2 * j] = x;
+        coords[2 * j + 1] = y;
+    }
+
+    private static double sqDist(double ax, double ay, double bx, double by) {
+        double dx = ax - bx, dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ElectronicCar.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 한 번 직렬화해 둔 응답 본문 (불변 - JSON 또는 컬럼 형식)
+ * - 원본(identity)과 gzip 두 가지 바이트 배열을 버전마다 한 번만 만들고, 요청마다 그대로 씀
+ * - ETag 는 버전 문자열에서 만든 강한 ETag (인코딩마다 접미사가 달라 프록시가 구분 가능)
+ * - Brotli 는 JDK 에 인코더가 없어 만들지 않음 (br 만 받는 클라이언트는 원본을 받음)
+ */
+public final class PrecompressedBody {
+
+    public static final String GZIP = "gzip";
+
+    private static final Gson GSON = new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+
+    private final Object source;
+    private final String version;
+    private final String contentType;
+    private final byte[] identity;
+    private final byte[] gzip;
+
+    private PrecompressedBody(Object source, String version, String contentType, byte[] identity, byte[] gzip) {
+        this.source = source;
+        this.version = version;
+        this.contentType = contentType;
+        this.identity = identity;
+        this.gzip = gzip;
+    }
+
+    // value 를 JSON 으로 직렬화 + gzip (source: 캐시 일치 확인용 원본 객체, version: ETag 재료)
+    static PrecompressedBody json(Object source, String version, String contentType, Object value) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(1 << 16);
+        try (Writer writer = new OutputStreamWriter(json, StandardCharsets.UTF_8)) {
+            GSON.toJson(value, writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return of(source, version, contentType, json.toByteArray());
+    }
+
+    // 이미 인코딩된 본문 + gzip
+    static PrecompressedBody of(Object source, String version, String contentType, byte[] identity) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed, 1 << 16) {
+            { def.setLevel(Deflater.BEST_COMPRESSION); }
+        }) {
+            out.write(identity);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new PrecompressedBody(source, version, contentType, identity, compressed.toByteArray());
+    }
+
+    Object source() { return source; }
+
+    public String contentType() { return contentType; }
+
+    // Accept-Encoding 에서 gzip 을 받으면 gzip, 아니면 null (원본) - gzip 이 직접 적혀 있으면 * 보다 우선
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        double gzipQuality = -1, anyQuality = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim().toLowerCase();
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) gzipQuality = Math.max(gzipQuality, quality(params));
+            else if (coding.equals("*")) anyQuality = quality(params);
+        }
+        double quality = gzipQuality >= 0 ? gzipQuality : anyQuality;
+        return quality > 0 ? GZIP : null;
+    }
+
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    public String etag(String encoding) {
+        return etag(version, encoding);
+    }
+
+    // 버전 문자열 → ETag (본문을 만들기 전에 304 응답용으로도 사용)
+    public static String etag(String version, String encoding) {
+        return "\"" + version + (GZIP.equals(encoding) ? "-gz" : "") + "\"";
+    }
+
+    public byte[] body(String encoding) {
+        return GZIP.equals(encoding) ? gzip : identity;
+    }
+
+    // If-None-Match 가 이 버전의 ETag (어느 인코딩이든) 또는 * 이면 true (약한 비교 - W/ 접두사 무시)
+    public boolean matches(String ifNoneMatch) {
+        return matches(version, ifNoneMatch);
+    }
+
+    public static boolean matches(String version, String ifNoneMatch) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*")) return true;
+            if (trimmed.startsWith("W/")) trimmed = trimmed.substring(2);
+            if (trimmed.equals(etag(version, null)) || trimmed.equals(etag(version, GZIP))) return true;
+        }
+        return false;
+    }
+}
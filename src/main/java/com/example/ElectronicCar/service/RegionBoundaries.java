@@ -0,0 +1,161 @@
+package com.example.ElectronicCar.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 시/도 경계 point-in-polygon
+ * - GeoJSON FeatureCollection (Polygon / MultiPolygon) 을 읽어 폴리곤별 링 좌표 배열로 보관
+ * - 지역 이름은 properties 의 name 또는 CTP_KOR_NM (시도 경계 SHP 를 변환한 파일의 기본 컬럼)
+ * - 조회: 폴리곤 외곽 사각형으로 먼저 거르고, 짝홀(ray casting) 규칙으로 모든 링 검사 (구멍 포함)
+ * - 기본 경계(/regions/provinces.geojson)는 시/도 단순화 경계: 시/도 사이 육지 경계선은 양쪽이 같은 꼭짓점을 공유하고
+ *   광역시/세종시는 둘러싼 도 폴리곤의 구멍 → 겹치는 곳 없이 한 지역만 나옴 (해안은 바다 쪽으로 넉넉하게 그림)
+ * - 어느 경계에도 없는 좌표(먼 섬 등)나 경계 파일이 없으면 주소 기준으로 배정됨
+ */
+final class RegionBoundaries {
+
+    static final String RESOURCE = "/regions/provinces.geojson";
+
+    private static final RegionBoundaries EMPTY = new RegionBoundaries(new int[0], new double[0][][], new double[0]);
+
+    private final int[] regionIds;        // 폴리곤 → 지역 ID
+    private final double[][][] rings;     // 폴리곤 → 링 → (lng, lat) 반복
+    private final double[] bounds;        // 폴리곤마다 (minLng, minLat, maxLng, maxLat)
+
+    private RegionBoundaries(int[] regionIds, double[][][] rings, double[] bounds) {
+        this.regionIds = regionIds;
+        this.rings = rings;
+        this.bounds = bounds;
+    }
+
+    static RegionBoundaries empty() {
+        return EMPTY;
+    }
+
+    // 클래스패스의 기본 경계 파일 (없으면 빈 경계)
+    static RegionBoundaries loadDefault() throws IOException {
+        try (InputStream inputStream = RegionBoundaries.class.getResourceAsStream(RESOURCE)) {
+            return inputStream == null ? EMPTY : load(inputStream);
+        }
+    }
+
+    static RegionBoundaries load(InputStream inputStream) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        List<double[][]> polygons = new ArrayList<>();
+
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            JsonArray features = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonArray("features");
+            for (JsonElement element : features) {
+                JsonObject feature = element.getAsJsonObject();
+                int region = StationRegions.regionOfName(featureName(feature.getAsJsonObject("properties")));
+                JsonObject geometry = feature.getAsJsonObject("geometry");
+                if (region == StationRegions.UNKNOWN || geometry == null) continue;
+
+                String type = geometry.get("type").getAsString();
+                JsonArray coordinates = geometry.getAsJsonArray("coordinates");
+                if ("Polygon".equals(type)) {
+                    ids.add(region);
+                    polygons.add(polygon(coordinates));
+                } else if ("MultiPolygon".equals(type)) {
+                    for (JsonElement part : coordinates) {
+                        ids.add(region);
+                        polygons.add(polygon(part.getAsJsonArray()));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("❌ 지역 경계 파일 형식 오류: " + e.getMessage(), e);
+        }
+
+        int count = polygons.size();
+        int[] regionIds = new int[count];
+        double[] bounds = new double[count * 4];
+        for (int p = 0; p < count; p++) {
+            regionIds[p] = ids.get(p);
+            double minLng = Double.POSITIVE_INFINITY, minLat = Double.POSITIVE_INFINITY;
+            double maxLng = Double.NEGATIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+            for (double[] ring : polygons.get(p)) {
+                for (int k = 0; k < ring.length; k += 2) {
+                    minLng = Math.min(minLng, ring[k]);
+                    maxLng = Math.max(maxLng, ring[k]);
+                    minLat = Math.min(minLat, ring[k + 1]);
+                    maxLat = Math.max(maxLat, ring[k + 1]);
+                }
+            }
+            bounds[p * 4] = minLng;
+            bounds[p * 4 + 1] = minLat;
+            bounds[p * 4 + 2] = maxLng;
+            bounds[p * 4 + 3] = maxLat;
+        }
+        return new RegionBoundaries(regionIds, polygons.toArray(new double[0][][]), bounds);
+    }
+
+    boolean isEmpty() {
+        return regionIds.length == 0;
+    }
+
+    int polygonCount() {
+        return regionIds.length;
+    }
+
+    // 좌표가 속한 지역 ID (어느 경계에도 없으면 UNKNOWN)
+    int locate(double lat, double lng) {
+        for (int p = 0; p < regionIds.length; p++) {
+            int b = p * 4;
+            if (lng < bounds[b] || lat < bounds[b + 1] || lng > bounds[b + 2] || lat > bounds[b + 3]) continue;
+            if (contains(rings[p], lat, lng)) return regionIds[p];
+        }
+        return StationRegions.UNKNOWN;
+    }
+
+    // 짝홀 규칙: 점에서 오른쪽으로 그은 반직선이 링 변을 홀수 번 지나면 내부
+    private static boolean contains(double[][] polygon, double lat, double lng) {
+        boolean inside = false;
+        for (double[] ring : polygon) {
+            int n = ring.length / 2;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                double xi = ring[i * 2], yi = ring[i * 2 + 1];
+                double xj = ring[j * 2], yj = ring[j * 2 + 1];
+                if ((yi > lat) != (yj > lat) && lng < (xj - xi) * (lat - yi) / (yj - yi) + xi) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    private static String featureName(JsonObject properties) {
+        if (properties == null) return null;
+        for (String key : new String[]{"name", "CTP_KOR_NM", "SIDO_NM"}) {
+            JsonElement value = properties.get(key);
+            if (value != null && !value.isJsonNull()) return value.getAsString();
+        }
+        return null;
+    }
+
+    // [[[lng, lat], ...], ...] → 링별 (lng, lat) 평면 배열
+    private static double[][] polygon(JsonArray coordinates) {
+        double[][] polygon = new double[coordinates.size()][];
+        for (int r = 0; r < polygon.length; r++) {
+            JsonArray ring = coordinates.get(r).getAsJsonArray();
+            double[] points = new double[ring.size() * 2];
+            for (int k = 0; k < ring.size(); k++) {
+                JsonArray point = ring.get(k).getAsJsonArray();
+                points[k * 2] = point.get(0).getAsDouble();
+                points[k * 2 + 1] = point.get(1).getAsDouble();
+            }
+            polygon[r] = points;
+        }
+        return polygon;
+    }
+}
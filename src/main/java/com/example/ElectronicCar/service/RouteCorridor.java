@@ -0,0 +1,247 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * 경로(폴리라인) + 폭(m) 안의 충전소 조회
+ * - 경로 입력: Google encoded polyline (정밀도 1e-5) 또는 (lat, lng) 점 목록
+ * - 구간(묶음)마다 폭만큼 넓힌 사각형으로 공간 인덱스를 조회 → 사각형 밖 충전소는 거리 계산 없이 제외
+ * - 후보는 구간에 수선을 내려 경로까지의 거리와 출발점부터의 경로 거리 계산 → 여러 구간에 걸리면 가장 가까운 구간 기준
+ * - 거리(m)는 좌표 스캐너와 같은 근사 (구간 위도의 cos 로 경도를 보정한 평면 거리)
+ */
+final class RouteCorridor {
+
+    private static final double DEG_TO_M = StationCoordinateScanner.DEG_TO_M;
+
+    // 한 번에 조회하는 구간 조각의 최소 길이 (조각이 너무 잘면 인덱스 조회 횟수만 늘어남)
+    private static final double MIN_PIECE_M = 2_000;
+
+    private final double[] lats;
+    private final double[] lngs;
+    private final double[] cumulative;   // 출발점부터 각 점까지의 경로 거리(m)
+
+    // 구간별 평면 좌표계 (경도 보정 계수, 구간 벡터, 길이 제곱)
+    private final double[] kxs;
+    private final double[] vxs;
+    private final double[] vys;
+    private final double[] length2s;
+
+    private RouteCorridor(double[] lats, double[] lngs) {
+        this.lats = lats;
+        this.lngs = lngs;
+        int segments = lats.length - 1;
+        this.cumulative = new double[lats.length];
+        this.kxs = new double[segments];
+        this.vxs = new double[segments];
+        this.vys = new double[segments];
+        this.length2s = new double[segments];
+        for (int s = 0; s < segments; s++) {
+            kxs[s] = Math.cos(Math.toRadians((lats[s] + lats[s + 1]) / 2)) * DEG_TO_M;
+            vxs[s] = (lngs[s + 1] - lngs[s]) * kxs[s];
+            vys[s] = (lats[s + 1] - lats[s]) * DEG_TO_M;
+            length2s[s] = vxs[s] * vxs[s] + vys[s] * vys[s];
+            cumulative[s + 1] = cumulative[s] + Math.sqrt(length2s[s]);
+        }
+    }
+
+    // Google encoded polyline 해석 (잘못된 문자열이면 null)
+    static RouteCorridor decode(String encoded) {
+        List<double[]> points = new ArrayList<>();
+        int index = 0, lat = 0, lng = 0;
+        while (index < encoded.length()) {
+            int[] next = {index};
+            Integer dLat = decodeValue(encoded, next);
+            Integer dLng = dLat == null ? null : decodeValue(encoded, next);
+            if (dLng == null) return null;
+            index = next[0];
+            lat += dLat;
+            lng += dLng;
+            points.add(new double[]{lat / 1e5, lng / 1e5});
+        }
+        return of(points);
+    }
+
+    private static Integer decodeValue(String encoded, int[] index) {
+        int result = 0, shift = 0;
+        while (true) {
+            if (index[0] >= encoded.length() || shift > 30) return null;
+            int b = encoded.charAt(index[0]++) - 63;
+            if (b < 0 || b > 63) return null;
+            result |= (b & 0x1F) << shift;
+            shift += 5;
+            if (b < 0x20) break;
+        }
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+
+    // (lat, lng) 점 목록 → 경로 (점이 2개 미만이거나 좌표 범위를 벗어나면 null)
+    static RouteCorridor of(List<double[]> points) {
+        if (points == null || points.size() < 2) return null;
+        double[] lats = new double[points.size()];
+        double[] lngs = new double[points.size()];
+        for (int i = 0; i < lats.length; i++) {
+            double[] point = points.get(i);
+            if (point == null || point.length < 2
+                    || !(Math.abs(point[0]) <= 90) || !(Math.abs(point[1]) <= 180)) return null;
+            lats[i] = point[0];
+            lngs[i] = point[1];
+        }
+        return new RouteCorridor(lats, lngs);
+    }
+
+    int pointCount() { return lats.length; }
+    double lat(int i) { return lats[i]; }
+    double lng(int i) { return lngs[i]; }
+    double length() { return cumulative[cumulative.length - 1]; }
+
+    /**
+     * 경로에서 widthMeters 이내 + filter 를 통과한 충전소 (출발점부터의 경로 거리 순)
+     * - 짧은 구간은 이어 붙인 사각형이 조각 길이를 넘지 않을 때까지 묶어서 한 번에 조회 (촘촘한 폴리라인용)
+     * - 조각 길이보다 긴 구간은 여러 조각으로 나눠서 조회 (대각선 구간의 거대한 사각형 방지)
+     */
+    Hits search(StationSpatialIndex index, StationCatalog catalog, double widthMeters, IntPredicate filter) {
+        double pieceLength = Math.max(MIN_PIECE_M, widthMeters * 4);
+        double latPad = widthMeters / DEG_TO_M;
+        Collector collector = new Collector(catalog, widthMeters, filter);
+
+        int s = 0;
+        while (s + 1 < lats.length) {
+            if (Math.sqrt(length2s[s]) > pieceLength) {
+                int pieces = (int) Math.ceil(Math.sqrt(length2s[s]) / pieceLength);
+                for (int p = 0; p < pieces; p++) {
+                    double fromLat = lats[s] + (lats[s + 1] - lats[s]) * p / pieces;
+                    double fromLng = lngs[s] + (lngs[s + 1] - lngs[s]) * p / pieces;
+                    double toLat = lats[s] + (lats[s + 1] - lats[s]) * (p + 1) / pieces;
+                    double toLng = lngs[s] + (lngs[s + 1] - lngs[s]) * (p + 1) / pieces;
+                    double lngPad = widthMeters / Math.max(1e-6, kxs[s]);
+                    collector.range(s, s + 1);
+                    index.search(Math.min(fromLat, toLat) - latPad, Math.min(fromLng, toLng) - lngPad,
+                            Math.max(fromLat, toLat) + latPad, Math.max(fromLng, toLng) + lngPad, collector);
+                }
+                s++;
+                continue;
+            }
+
+            // 구간 [s, end) 를 사각형 변이 pieceLength 이하인 동안 묶음
+            double minLat = Math.min(lats[s], lats[s + 1]), maxLat = Math.max(lats[s], lats[s + 1]);
+            double minLng = Math.min(lngs[s], lngs[s + 1]), maxLng = Math.max(lngs[s], lngs[s + 1]);
+            double minKx = kxs[s];
+            int end = s + 1;
+            while (end + 1 < lats.length) {
+                double nextMinLat = Math.min(minLat, lats[end + 1]), nextMaxLat = Math.max(maxLat, lats[end + 1]);
+                double nextMinLng = Math.min(minLng, lngs[end + 1]), nextMaxLng = Math.max(maxLng, lngs[end + 1]);
+                if ((nextMaxLat - nextMinLat) * DEG_TO_M > pieceLength
+                        || (nextMaxLng - nextMinLng) * kxs[s] > pieceLength) break;
+                minLat = nextMinLat;
+                maxLat = nextMaxLat;
+                minLng = nextMinLng;
+                maxLng = nextMaxLng;
+                minKx = Math.min(minKx, kxs[end]);
+                end++;
+            }
+            double lngPad = widthMeters / Math.max(1e-6, minKx);
+            collector.range(s, end);
+            index.search(minLat - latPad, minLng - lngPad, maxLat + latPad, maxLng + lngPad, collector);
+            s = end;
+        }
+
+        collector.hits.sortByAlong();
+        return collector.hits;
+    }
+
+    // 조회된 충전소를 현재 구간 묶음에 수선을 내려 검사 (여러 번 조회된 충전소는 가장 가까운 구간 기준으로 갱신)
+    private final class Collector implements IntPredicate {
+        private final double[] stationLats;
+        private final double[] stationLngs;
+        private final double widthMeters;
+        private final IntPredicate filter;
+        private final Map<Integer, Integer> slots = new HashMap<>();   // ordinal → 결과 위치
+        private final Hits hits = new Hits();
+        private int from, to;
+
+        Collector(StationCatalog catalog, double widthMeters, IntPredicate filter) {
+            this.stationLats = catalog.latArray();
+            this.stationLngs = catalog.lngArray();
+            this.widthMeters = widthMeters;
+            this.filter = filter;
+        }
+
+        void range(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean test(int ordinal) {
+            double bestOffset = Double.POSITIVE_INFINITY, bestAlong = 0;
+            for (int s = from; s < to; s++) {
+                double px = (stationLngs[ordinal] - lngs[s]) * kxs[s];
+                double py = (stationLats[ordinal] - lats[s]) * DEG_TO_M;
+                double t = length2s[s] == 0 ? 0
+                        : Math.max(0, Math.min(1, (px * vxs[s] + py * vys[s]) / length2s[s]));
+                double dx = px - t * vxs[s], dy = py - t * vys[s];
+                double offset = Math.sqrt(dx * dx + dy * dy);
+                if (offset < bestOffset) {
+                    bestOffset = offset;
+                    bestAlong = cumulative[s] + t * (cumulative[s + 1] - cumulative[s]);
+                }
+            }
+            if (bestOffset > widthMeters) return true;
+
+            Integer slot = slots.get(ordinal);
+            if (slot == null) {
+                if (filter.test(ordinal)) slots.put(ordinal, hits.add(ordinal, bestAlong, bestOffset));
+            } else if (bestOffset < hits.offsets[slot]) {
+                hits.along[slot] = bestAlong;
+                hits.offsets[slot] = bestOffset;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 조회 결과 (ordinal + 출발점부터의 경로 거리 + 경로까지의 거리)
+     */
+    static final class Hits {
+        private int[] ordinals = new int[64];
+        private double[] along = new double[64];
+        private double[] offsets = new double[64];
+        private int size;
+
+        private int add(int ordinal, double alongMeters, double offsetMeters) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                along = Arrays.copyOf(along, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            ordinals[size] = ordinal;
+            along[size] = alongMeters;
+            offsets[size] = offsetMeters;
+            return size++;
+        }
+
+        private void sortByAlong() {
+            Integer[] order = new Integer[size];
+            for (int k = 0; k < size; k++) order[k] = k;
+            Arrays.sort(order, Comparator.comparingDouble((Integer k) -> along[k]).thenComparingDouble(k -> offsets[k]));
+
+            int[] sortedOrdinals = new int[size];
+            double[] sortedAlong = new double[size];
+            double[] sortedOffsets = new double[size];
+            for (int k = 0; k < size; k++) {
+                sortedOrdinals[k] = ordinals[order[k]];
+                sortedAlong[k] = along[order[k]];
+                sortedOffsets[k] = offsets[order[k]];
+            }
+            ordinals = sortedOrdinals;
+            along = sortedAlong;
+            offsets = sortedOffsets;
+        }
+
+        int size() { return size; }
+        int ordinal(int k) { return ordinals[k]; }
+        double along(int k) { return along[k]; }
+        double offset(int k) { return offsets[k]; }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ElectronicCar.service;
+
+/**
+ * 좌표 전수 조사 - 스칼라 구현 (기본값, Vector API 를 쓸 수 없을 때의 대체 경로)
+ */
+final class ScalarCoordinateScanner implements StationCoordinateScanner {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public int filterBox(double[] lats, double[] lngs, int[] ordinals, int size,
+                         double minLat, double minLng, double maxLat, double maxLng, int[] out) {
+        int count = 0;
+        for (int k = 0; k < size; k++) {
+            int i = ordinals == null ? k : ordinals[k];
+            double lat = lats[i], lng = lngs[i];
+            if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int withinRadius(double[] lats, double[] lngs, int[] ordinals, int size,
+                            double lat, double lng, double radiusMeters,
+                            int[] outOrdinals, double[] outDistances) {
+        double kx = Math.cos(Math.toRadians(lat)) * DEG_TO_M;
+        double r2 = radiusMeters * radiusMeters;
+        int count = 0;
+        for (int k = 0; k < size; k++) {
+            int i = ordinals == null ? k : ordinals[k];
+            double dx = (lngs[i] - lng) * kx;
+            double dy = (lats[i] - lat) * DEG_TO_M;
+            double d2 = dx * dx + dy * dy;
+            if (d2 <= r2) {
+                outOrdinals[count] = i;
+                outDistances[count++] = Math.sqrt(d2);
+            }
+        }
+        return count;
+    }
+}
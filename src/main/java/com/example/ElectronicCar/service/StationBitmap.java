@@ -0,0 +1,333 @@
+package com.example.ElectronicCar.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * 충전소 ordinal 집합용 압축 비트맵 (Roaring 방식, 불변)
+ * - ordinal 상위 16비트로 65536개 단위 묶음(container)을 나누고
+ *   묶음 안의 원소가 ARRAY_MAX 개 이하면 정렬된 char[], 넘으면 1024 x long 비트맵으로 저장
+ * - AND/OR/교집합 개수는 묶음끼리만 계산 (배열-배열은 병합, 비트맵-비트맵은 워드 단위 연산)
+ */
+final class StationBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    static final StationBitmap EMPTY = new StationBitmap(new char[0], new Object[0], new int[0], 0);
+
+    private final char[] keys;
+    private final Object[] containers;      // char[] (배열) 또는 long[] (비트맵)
+    private final int[] sizes;              // 묶음별 원소 수
+    private final int cardinality;
+
+    private StationBitmap(char[] keys, Object[] containers, int[] sizes, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.sizes = sizes;
+        this.cardinality = cardinality;
+    }
+
+    // 오름차순 ordinal 배열 → 비트맵
+    static StationBitmap of(int[] sortedOrdinals, int size) {
+        Builder builder = new Builder();
+        for (int i = 0; i < size; i++) builder.add(sortedOrdinals[i]);
+        return builder.build();
+    }
+
+    int cardinality() { return cardinality; }
+    boolean isEmpty() { return cardinality == 0; }
+
+    boolean contains(int ordinal) {
+        int k = Arrays.binarySearch(keys, (char) (ordinal >>> 16));
+        if (k < 0) return false;
+        char low = (char) ordinal;
+        Object container = containers[k];
+        if (container instanceof long[] words) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) container, 0, sizes[k], low) >= 0;
+    }
+
+    // 오름차순 순회
+    void forEach(IntConsumer visitor) {
+        for (int k = 0; k < keys.length; k++) {
+            int high = keys[k] << 16;
+            Object container = containers[k];
+            if (container instanceof long[] words) {
+                for (int w = 0; w < WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        visitor.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) container;
+                for (int i = 0; i < sizes[k]; i++) visitor.accept(high | values[i]);
+            }
+        }
+    }
+
+    int[] toArray() {
+        int[] result = new int[cardinality];
+        int[] size = {0};
+        forEach(ordinal -> result[size[0]++] = ordinal);
+        return result;
+    }
+
+    StationBitmap and(StationBitmap other) {
+        Builder builder = new Builder();
+        int i = 0, j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else {
+                builder.append(keys[i], andContainers(containers[i], sizes[i], other.containers[j], other.sizes[j]));
+                i++;
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    StationBitmap or(StationBitmap other) {
+        Builder builder = new Builder();
+        int i = 0, j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                builder.append(keys[i], copy(containers[i], sizes[i]));
+                i++;
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                builder.append(other.keys[j], copy(other.containers[j], other.sizes[j]));
+                j++;
+            } else {
+                builder.append(keys[i], orContainers(containers[i], sizes[i], other.containers[j], other.sizes[j]));
+                i++;
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    // 교집합 개수 (결과 비트맵을 만들지 않음 - 패싯 개수 계산용)
+    int andCardinality(StationBitmap other) {
+        int count = 0;
+        int i = 0, j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else {
+                count += andCount(containers[i], sizes[i], other.containers[j], other.sizes[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    static StationBitmap orAll(List<StationBitmap> bitmaps) {
+        StationBitmap result = EMPTY;
+        for (StationBitmap bitmap : bitmaps) {
+            result = result.isEmpty() ? bitmap : result.or(bitmap);
+        }
+        return result;
+    }
+
+    // ---- 묶음(container) 연산 ----
+
+    private static Object andContainers(Object a, int sizeA, Object b, int sizeB) {
+        if (a instanceof long[] wa && b instanceof long[] wb) {
+            long[] words = new long[WORDS];
+            for (int w = 0; w < WORDS; w++) words[w] = wa[w] & wb[w];
+            return words;
+        }
+        if (a instanceof long[] wa) return filter((char[]) b, sizeB, wa);
+        if (b instanceof long[] wb) return filter((char[]) a, sizeA, wb);
+
+        char[] va = (char[]) a, vb = (char[]) b;
+        char[] result = new char[Math.min(sizeA, sizeB)];
+        int n = 0, i = 0, j = 0;
+        while (i < sizeA && j < sizeB) {
+            if (va[i] < vb[j]) i++;
+            else if (va[i] > vb[j]) j++;
+            else {
+                result[n++] = va[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static char[] filter(char[] values, int size, long[] words) {
+        char[] result = new char[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            char v = values[i];
+            if ((words[v >>> 6] & (1L << v)) != 0) result[n++] = v;
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static Object orContainers(Object a, int sizeA, Object b, int sizeB) {
+        if (a instanceof long[] || b instanceof long[] || sizeA + sizeB > ARRAY_MAX) {
+            long[] words = toWords(a, sizeA);
+            if (b instanceof long[] wb) {
+                for (int w = 0; w < WORDS; w++) words[w] |= wb[w];
+            } else {
+                char[] vb = (char[]) b;
+                for (int j = 0; j < sizeB; j++) words[vb[j] >>> 6] |= 1L << vb[j];
+            }
+            return words;
+        }
+
+        char[] va = (char[]) a, vb = (char[]) b;
+        char[] result = new char[sizeA + sizeB];
+        int n = 0, i = 0, j = 0;
+        while (i < sizeA || j < sizeB) {
+            if (j == sizeB || (i < sizeA && va[i] < vb[j])) result[n++] = va[i++];
+            else if (i == sizeA || va[i] > vb[j]) result[n++] = vb[j++];
+            else {
+                result[n++] = va[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static int andCount(Object a, int sizeA, Object b, int sizeB) {
+        if (a instanceof long[] wa && b instanceof long[] wb) {
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) count += Long.bitCount(wa[w] & wb[w]);
+            return count;
+        }
+        if (a instanceof long[] || b instanceof long[]) {
+            long[] words = a instanceof long[] wa ? wa : (long[]) b;
+            char[] values = a instanceof long[] ? (char[]) b : (char[]) a;
+            int size = a instanceof long[] ? sizeB : sizeA;
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                char v = values[i];
+                if ((words[v >>> 6] & (1L << v)) != 0) count++;
+            }
+            return count;
+        }
+
+        char[] va = (char[]) a, vb = (char[]) b;
+        int count = 0, i = 0, j = 0;
+        while (i < sizeA && j < sizeB) {
+            if (va[i] < vb[j]) i++;
+            else if (va[i] > vb[j]) j++;
+            else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static long[] toWords(Object container, int size) {
+        if (container instanceof long[] words) return words.clone();
+        long[] words = new long[WORDS];
+        char[] values = (char[]) container;
+        for (int i = 0; i < size; i++) words[values[i] >>> 6] |= 1L << values[i];
+        return words;
+    }
+
+    private static Object copy(Object container, int size) {
+        return container instanceof long[] words ? words : Arrays.copyOf((char[]) container, size);
+    }
+
+    /**
+     * 비트맵 빌더 (ordinal 은 오름차순으로 추가)
+     */
+    static final class Builder {
+        private char[] keys = new char[4];
+        private Object[] containers = new Object[4];
+        private int[] sizes = new int[4];
+        private int count;
+        private int cardinality;
+
+        // 현재 채우는 묶음
+        private int currentKey = -1;
+        private char[] values;
+        private long[] words;
+        private int size;
+
+        void add(int ordinal) {
+            int key = ordinal >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+                values = new char[16];
+                words = null;
+                size = 0;
+            }
+            char low = (char) ordinal;
+            if (words != null) {
+                words[low >>> 6] |= 1L << low;
+                size++;
+                return;
+            }
+            if (size == ARRAY_MAX) {
+                words = toWords(values, size);
+                values = null;
+                words[low >>> 6] |= 1L << low;
+                size++;
+                return;
+            }
+            if (size == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size * 2));
+            values[size++] = low;
+        }
+
+        // 완성된 묶음 추가 (키 오름차순, 비어 있으면 무시)
+        private void append(char key, Object container) {
+            int containerSize;
+            if (container instanceof long[] w) {
+                containerSize = 0;
+                for (long word : w) containerSize += Long.bitCount(word);
+                if (containerSize <= ARRAY_MAX) {
+                    char[] compact = new char[containerSize];
+                    int n = 0;
+                    for (int i = 0; i < WORDS; i++) {
+                        long word = w[i];
+                        while (word != 0) {
+                            compact[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                            word &= word - 1;
+                        }
+                    }
+                    container = compact;
+                }
+            } else {
+                containerSize = ((char[]) container).length;
+            }
+            if (containerSize == 0) return;
+
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                containers = Arrays.copyOf(containers, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+            }
+            keys[count] = key;
+            containers[count] = container;
+            sizes[count] = containerSize;
+            count++;
+            cardinality += containerSize;
+        }
+
+        private void flush() {
+            if (currentKey < 0 || size == 0) return;
+            append((char) currentKey, words != null ? words : Arrays.copyOf(values, size));
+            currentKey = -1;
+        }
+
+        StationBitmap build() {
+            flush();
+            return new StationBitmap(Arrays.copyOf(keys, count), Arrays.copyOf(containers, count),
+                    Arrays.copyOf(sizes, count), cardinality);
+        }
+    }
+}
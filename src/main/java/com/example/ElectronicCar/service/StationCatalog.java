@@ -0,0 +1,490 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+
+/**
+ * 충전소 카탈로그 (불변, 컬럼 기반)
+ * - 충전소 1개 = 배열의 인덱스(ordinal) 1개
+ * - 좌표는 double[] 로, 운영기관/충전타입/상태는 int 코드 + 사전(dictionary)으로 저장
+ * - 이름/주소는 빌드 시 중복 제거(intern)하여 같은 문자열을 공유
+ * - 좌표 외 컬럼은 SEGMENT_SIZE 단위 세그먼트로 나눠 저장 → apply() 로 만든 다음 버전은
+ *   바뀐 세그먼트만 복사하고 나머지는 이전 버전과 공유 (좌표는 SIMD 전수 조사를 위해 연속 배열 유지)
+ */
+public final class StationCatalog {
+
+    private static final int SEGMENT_SHIFT = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    // ID 조회 덧씌우기가 이 크기를 넘으면 기본 맵으로 합침
+    private static final int MAX_OVERLAY = 4096;
+
+    private final long version;
+    private final int size;
+
+    private final Segment[] segments;
+    private final double[] lats;
+    private final double[] lngs;
+
+    private final String[] operatorDictionary;
+    private final String[] chargerTypeDictionary;
+    private final String[] statusDictionary;
+
+    // ID → ordinal: 전체 맵 + 이후 변경분 덧씌우기 (-1 = 삭제됨)
+    private final Map<String, Integer> ordinalById;
+    private final Map<String, Integer> ordinalOverlay;
+
+    // 세그먼트 1개 = 연속된 SEGMENT_SIZE 개 충전소의 문자열/코드 컬럼
+    private static final class Segment {
+        final String[] ids = new String[SEGMENT_SIZE];
+        final String[] names = new String[SEGMENT_SIZE];
+        final String[] addrs = new String[SEGMENT_SIZE];
+        final int[] operatorCodes = new int[SEGMENT_SIZE];
+        final int[] chargerTypeCodes = new int[SEGMENT_SIZE];
+        final int[] statusCodes = new int[SEGMENT_SIZE];
+
+        Segment copy() {
+            Segment copy = new Segment();
+            System.arraycopy(ids, 0, copy.ids, 0, SEGMENT_SIZE);
+            System.arraycopy(names, 0, copy.names, 0, SEGMENT_SIZE);
+            System.arraycopy(addrs, 0, copy.addrs, 0, SEGMENT_SIZE);
+            System.arraycopy(operatorCodes, 0, copy.operatorCodes, 0, SEGMENT_SIZE);
+            System.arraycopy(chargerTypeCodes, 0, copy.chargerTypeCodes, 0, SEGMENT_SIZE);
+            System.arraycopy(statusCodes, 0, copy.statusCodes, 0, SEGMENT_SIZE);
+            return copy;
+        }
+    }
+
+    private StationCatalog(long version, int size, Segment[] segments, double[] lats, double[] lngs,
+                           String[] operatorDictionary, String[] chargerTypeDictionary, String[] statusDictionary,
+                           Map<String, Integer> ordinalById, Map<String, Integer> ordinalOverlay) {
+        this.version = version;
+        this.size = size;
+        this.segments = segments;
+        this.lats = lats;
+        this.lngs = lngs;
+        this.operatorDictionary = operatorDictionary;
+        this.chargerTypeDictionary = chargerTypeDictionary;
+        this.statusDictionary = statusDictionary;
+        this.ordinalById = ordinalById;
+        this.ordinalOverlay = ordinalOverlay;
+    }
+
+    // 평면 컬럼 → 세그먼트 카탈로그
+    private static StationCatalog of(long version, String[] ids, String[] names, String[] addrs,
+                                     double[] lats, double[] lngs,
+                                     int[] operatorCodes, String[] operatorDictionary,
+                                     int[] chargerTypeCodes, String[] chargerTypeDictionary,
+                                     int[] statusCodes, String[] statusDictionary,
+                                     Map<String, Integer> ordinalById) {
+        int n = ids.length;
+        Segment[] segments = new Segment[segmentCount(n)];
+        for (int s = 0; s < segments.length; s++) {
+            Segment segment = new Segment();
+            int from = s << SEGMENT_SHIFT;
+            int length = Math.min(SEGMENT_SIZE, n - from);
+            System.arraycopy(ids, from, segment.ids, 0, length);
+            System.arraycopy(names, from, segment.names, 0, length);
+            System.arraycopy(addrs, from, segment.addrs, 0, length);
+            System.arraycopy(operatorCodes, from, segment.operatorCodes, 0, length);
+            System.arraycopy(chargerTypeCodes, from, segment.chargerTypeCodes, 0, length);
+            System.arraycopy(statusCodes, from, segment.statusCodes, 0, length);
+            segments[s] = segment;
+        }
+        return new StationCatalog(version, n, segments, lats, lngs,
+                operatorDictionary, chargerTypeDictionary, statusDictionary, ordinalById, Map.of());
+    }
+
+    private static int segmentCount(int n) {
+        return (n + SEGMENT_MASK) >>> SEGMENT_SHIFT;
+    }
+
+    private Segment segment(int i) { return segments[i >>> SEGMENT_SHIFT]; }
+
+    public long version() { return version; }
+    public int size() { return size; }
+
+    public String id(int i) { return segment(i).ids[i & SEGMENT_MASK]; }
+    public String name(int i) { return segment(i).names[i & SEGMENT_MASK]; }
+    public String addr(int i) { return segment(i).addrs[i & SEGMENT_MASK]; }
+    public double lat(int i) { return lats[i]; }
+    public double lng(int i) { return lngs[i]; }
+
+    public int operatorCode(int i) { return segment(i).operatorCodes[i & SEGMENT_MASK]; }
+    public String operator(int i) { return operatorDictionary[operatorCode(i)]; }
+    public int operatorCount() { return operatorDictionary.length; }
+    public String operatorName(int code) { return operatorDictionary[code]; }
+
+    public int chargerTypeCode(int i) { return segment(i).chargerTypeCodes[i & SEGMENT_MASK]; }
+    public String chargerType(int i) { return chargerTypeDictionary[chargerTypeCode(i)]; }
+    public int chargerTypeCount() { return chargerTypeDictionary.length; }
+    public String chargerTypeName(int code) { return chargerTypeDictionary[code]; }
+
+    // CSV에 기록된 상태 (실시간 정보가 없을 때의 기본값)
+    public String csvStatus(int i) { return statusDictionary[statusCode(i)]; }
+
+    // 충전소 ID → ordinal (없으면 -1)
+    public int ordinalOf(String id) {
+        Integer ordinal = ordinalOverlay.get(id);
+        if (ordinal == null) {
+            ordinal = ordinalById.get(id);
+        }
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    int statusCode(int i) { return segment(i).statusCodes[i & SEGMENT_MASK]; }
+    int statusCount() { return statusDictionary.length; }
+    String statusName(int code) { return statusDictionary[code]; }
+
+    // 좌표 배열 직접 접근 (클러스터/인덱스 계산용 - 복사 없이 읽기 전용으로만 사용할 것)
+    double[] latArray() { return lats; }
+    double[] lngArray() { return lngs; }
+
+    // 스냅샷 파일에서 읽은 컬럼으로 바로 복원 (파싱/병합 없이 그대로 사용)
+    static StationCatalog restore(long version, String[] ids, String[] names, String[] addrs,
+                                  double[] lats, double[] lngs,
+                                  int[] operatorCodes, String[] operatorDictionary,
+                                  int[] chargerTypeCodes, String[] chargerTypeDictionary,
+                                  int[] statusCodes, String[] statusDictionary) {
+        Map<String, Integer> ordinalById = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            ordinalById.put(ids[i], i);
+        }
+        return of(version, ids, names, addrs, lats, lngs,
+                operatorCodes, operatorDictionary, chargerTypeCodes, chargerTypeDictionary,
+                statusCodes, statusDictionary, Map.copyOf(ordinalById));
+    }
+
+    /**
+     * 변경 묶음을 반영한 새 버전 생성 (이 카탈로그는 그대로)
+     * - 기존 충전소는 ordinal 유지, 추가는 끝에 붙이고, 삭제는 마지막 충전소를 빈 자리로 옮김
+     * - 실제로 바뀐 것이 없으면 null
+     */
+    StationCatalogDelta apply(StationCatalogBatch batch, long newVersion) {
+        Editor editor = new Editor(this);
+        for (StationCatalogBatch.Upsert upsert : batch.upserts()) {
+            editor.upsert(upsert);
+        }
+        for (String id : batch.removals()) {
+            editor.remove(id);
+        }
+        return editor.finish(newVersion);
+    }
+
+    // 세그먼트 단위 copy-on-write 편집기
+    private static final class Editor {
+        private final StationCatalog base;
+        private Segment[] segments;
+        private boolean[] owned;
+        private double[] lats;
+        private double[] lngs;
+        private int size;
+        private final Map<String, Integer> overlay;
+        private final Dictionary operators;
+        private final Dictionary chargerTypes;
+        private final Dictionary statuses;
+        private final BitSet touched = new BitSet();
+        private int added, updated, removed;
+
+        Editor(StationCatalog base) {
+            this.base = base;
+            this.segments = base.segments.clone();
+            this.owned = new boolean[segments.length];
+            this.lats = base.lats;
+            this.lngs = base.lngs;
+            this.size = base.size;
+            this.overlay = new HashMap<>(base.ordinalOverlay);
+            this.operators = new Dictionary(base.operatorDictionary);
+            this.chargerTypes = new Dictionary(base.chargerTypeDictionary);
+            this.statuses = new Dictionary(base.statusDictionary);
+        }
+
+        private int ordinalOf(String id) {
+            Integer ordinal = overlay.get(id);
+            if (ordinal == null) {
+                ordinal = base.ordinalById.get(id);
+            }
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        void upsert(StationCatalogBatch.Upsert row) {
+            int ordinal = ordinalOf(row.id);
+            if (ordinal < 0) {
+                // 좌표 없는 신규 충전소는 지도에 표시할 수 없으므로 건너뜀
+                if (!row.hasCoordinates()) return;
+                ordinal = size++;
+                overlay.put(row.id, ordinal);
+                Segment segment = writable(ordinal);
+                int k = ordinal & SEGMENT_MASK;
+                segment.ids[k] = row.id;
+                segment.names[k] = orEmpty(row.name);
+                segment.addrs[k] = orEmpty(row.addr);
+                segment.operatorCodes[k] = operators.code(row.operator);
+                segment.chargerTypeCodes[k] = chargerTypes.code(row.chargerType == null ? "기타" : row.chargerType);
+                segment.statusCodes[k] = statuses.code(row.status == null ? "정보없음" : row.status);
+                setCoordinates(ordinal, row.lat, row.lng);
+                added++;
+                return;
+            }
+
+            Segment current = segments[ordinal >>> SEGMENT_SHIFT];
+            int k = ordinal & SEGMENT_MASK;
+            boolean nameChanged = row.name != null && !row.name.equals(current.names[k]);
+            boolean addrChanged = row.addr != null && !row.addr.equals(current.addrs[k]);
+            boolean operatorChanged = row.operator != null
+                    && !row.operator.equals(operators.name(current.operatorCodes[k]));
+            boolean moved = row.hasCoordinates() && (lats[ordinal] != row.lat || lngs[ordinal] != row.lng);
+            if (!nameChanged && !addrChanged && !operatorChanged && !moved) return;
+
+            Segment segment = writable(ordinal);
+            if (nameChanged) segment.names[k] = row.name;
+            if (addrChanged) segment.addrs[k] = row.addr;
+            if (operatorChanged) segment.operatorCodes[k] = operators.code(row.operator);
+            if (moved) setCoordinates(ordinal, row.lat, row.lng);
+            updated++;
+        }
+
+        void remove(String id) {
+            int ordinal = ordinalOf(id);
+            if (ordinal < 0) return;
+
+            int last = size - 1;
+            Segment target = writable(ordinal);
+            int k = ordinal & SEGMENT_MASK;
+            if (ordinal != last) {
+                // 마지막 충전소를 빈 자리로 이동
+                Segment source = segments[last >>> SEGMENT_SHIFT];
+                int j = last & SEGMENT_MASK;
+                target.ids[k] = source.ids[j];
+                target.names[k] = source.names[j];
+                target.addrs[k] = source.addrs[j];
+                target.operatorCodes[k] = source.operatorCodes[j];
+                target.chargerTypeCodes[k] = source.chargerTypeCodes[j];
+                target.statusCodes[k] = source.statusCodes[j];
+                setCoordinates(ordinal, lats[last], lngs[last]);
+                overlay.put(source.ids[j], ordinal);
+            }
+
+            // 끝자리 비우기 (문자열 참조 해제)
+            Segment tail = writable(last);
+            int t = last & SEGMENT_MASK;
+            tail.ids[t] = null;
+            tail.names[t] = null;
+            tail.addrs[t] = null;
+
+            overlay.put(id, -1);
+            touched.set(ordinal);
+            touched.set(last);
+            size--;
+            removed++;
+        }
+
+        StationCatalogDelta finish(long newVersion) {
+            if (touched.isEmpty()) return null;
+
+            int n = size;
+            int baseSize = base.size;
+            Segment[] finalSegments = Arrays.copyOf(segments, segmentCount(n));
+            double[] finalLats = lats.length == n ? lats : Arrays.copyOf(lats, n);
+            double[] finalLngs = lngs.length == n ? lngs : Arrays.copyOf(lngs, n);
+
+            // 덧씌우기가 커지면 전체 맵으로 합침
+            Map<String, Integer> ordinalById = base.ordinalById;
+            Map<String, Integer> ordinalOverlay = overlay;
+            if (overlay.size() > MAX_OVERLAY) {
+                Map<String, Integer> merged = new HashMap<>(n * 2);
+                for (int i = 0; i < n; i++) {
+                    merged.put(finalSegments[i >>> SEGMENT_SHIFT].ids[i & SEGMENT_MASK], i);
+                }
+                ordinalById = Map.copyOf(merged);
+                ordinalOverlay = Map.of();
+            }
+
+            StationCatalog current = new StationCatalog(newVersion, n, finalSegments, finalLats, finalLngs,
+                    operators.toArray(), chargerTypes.toArray(), statuses.toArray(), ordinalById, ordinalOverlay);
+
+            // 바뀐 ordinal 목록 (새 버전 기준 / 이전 버전 기준)
+            int[] changed = touched.stream().filter(i -> i < n).toArray();
+            BitSet staleSet = (BitSet) touched.clone();
+            if (n < baseSize) staleSet.set(n, baseSize);
+            int[] stale = staleSet.stream().filter(i -> i < baseSize).toArray();
+            return new StationCatalogDelta(base, current, changed, stale, added, updated, removed);
+        }
+
+        private void setCoordinates(int ordinal, double lat, double lng) {
+            // 처음 쓸 때 이전 버전과 분리 (추가가 이어질 수 있으므로 여유 있게)
+            if (lats == base.lats || ordinal >= lats.length) {
+                int capacity = Math.max(ordinal + 1, lats.length + (lats.length >> 4) + 16);
+                lats = Arrays.copyOf(lats, capacity);
+                lngs = Arrays.copyOf(lngs, capacity);
+            }
+            lats[ordinal] = lat;
+            lngs[ordinal] = lng;
+            touched.set(ordinal);
+        }
+
+        private Segment writable(int ordinal) {
+            int s = ordinal >>> SEGMENT_SHIFT;
+            if (s >= segments.length) {
+                segments = Arrays.copyOf(segments, s + 1);
+                owned = Arrays.copyOf(owned, s + 1);
+            }
+            if (!owned[s]) {
+                segments[s] = segments[s] == null ? new Segment() : segments[s].copy();
+                owned[s] = true;
+            }
+            touched.set(ordinal);
+            return segments[s];
+        }
+
+        private static String orEmpty(String value) {
+            return value == null ? "" : value;
+        }
+    }
+
+    // 편집 중인 사전 (새 값이 들어오면 끝에 추가, 기존 코드는 그대로)
+    private static final class Dictionary {
+        private final List<String> values;
+        private Map<String, Integer> index;
+
+        Dictionary(String[] values) {
+            this.values = new ArrayList<>(Arrays.asList(values));
+        }
+
+        String name(int code) {
+            return values.get(code);
+        }
+
+        int code(String value) {
+            String key = value == null ? "" : value;
+            if (index == null) {
+                index = new HashMap<>(values.size() * 2);
+                for (int c = 0; c < values.size(); c++) index.putIfAbsent(values.get(c), c);
+            }
+            Integer code = index.get(key);
+            if (code == null) {
+                code = values.size();
+                values.add(key);
+                index.put(key, code);
+            }
+            return code;
+        }
+
+        String[] toArray() {
+            return values.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * 카탈로그 빌더
+     * - 같은 ID가 여러 줄에 나오면 하나의 충전소로 합침 (충전 타입은 +로 누적, 상태는 처음 1개만)
+     */
+    public static final class Builder {
+
+        private final long version;
+        private final Map<String, Integer> ordinalById = new HashMap<>(4096);
+        private final Map<String, String> stringPool = new HashMap<>(8192);
+
+        private final List<String> ids = new ArrayList<>(4096);
+        private final List<String> names = new ArrayList<>(4096);
+        private final List<String> addrs = new ArrayList<>(4096);
+        private final List<String> operators = new ArrayList<>(4096);
+        private final List<String> chargerTypes = new ArrayList<>(4096);
+        private final List<String> statuses = new ArrayList<>(4096);
+        private double[] lats = new double[4096];
+        private double[] lngs = new double[4096];
+
+        public Builder(long version) {
+            this.version = version;
+        }
+
+        public Builder add(String id, String name, String addr, String operator,
+                           double lat, double lng, String chargerType, String status) {
+            Integer existing = ordinalById.get(id);
+            if (existing == null) {
+                int ordinal = ids.size();
+                if (ordinal == lats.length) {
+                    lats = Arrays.copyOf(lats, ordinal * 2);
+                    lngs = Arrays.copyOf(lngs, ordinal * 2);
+                }
+                ordinalById.put(id, ordinal);
+                ids.add(id);
+                names.add(intern(name));
+                addrs.add(intern(addr));
+                operators.add(intern(operator));
+                chargerTypes.add(chargerType);
+                statuses.add(intern(status));
+                lats[ordinal] = lat;
+                lngs[ordinal] = lng;
+                return this;
+            }
+
+            // 같은 충전소의 다음 줄: 기본 정보는 마지막 줄 기준, 충전 타입은 누적
+            int ordinal = existing;
+            names.set(ordinal, intern(name));
+            addrs.set(ordinal, intern(addr));
+            operators.set(ordinal, intern(operator));
+            lats[ordinal] = lat;
+            lngs[ordinal] = lng;
+
+            String existingType = chargerTypes.get(ordinal);
+            if (!existingType.contains(chargerType)) {
+                chargerTypes.set(ordinal, existingType.isEmpty() ? chargerType : existingType + "+" + chargerType);
+            }
+            return this;
+        }
+
+        public int size() {
+            return ids.size();
+        }
+
+        public StationCatalog build() {
+            int n = ids.size();
+            Map<String, Integer> operatorIndex = new LinkedHashMap<>();
+            Map<String, Integer> typeIndex = new LinkedHashMap<>();
+            Map<String, Integer> statusIndex = new LinkedHashMap<>();
+
+            int[] operatorCodes = new int[n];
+            int[] typeCodes = new int[n];
+            int[] statusCodes = new int[n];
+            for (int i = 0; i < n; i++) {
+                operatorCodes[i] = encode(operatorIndex, operators.get(i));
+                typeCodes[i] = encode(typeIndex, chargerTypes.get(i));
+                statusCodes[i] = encode(statusIndex, statuses.get(i));
+            }
+
+            return of(version,
+                    ids.toArray(new String[0]),
+                    names.toArray(new String[0]),
+                    addrs.toArray(new String[0]),
+                    Arrays.copyOf(lats, n),
+                    Arrays.copyOf(lngs, n),
+                    operatorCodes, operatorIndex.keySet().toArray(new String[0]),
+                    typeCodes, internAll(typeIndex.keySet()),
+                    statusCodes, statusIndex.keySet().toArray(new String[0]),
+                    Map.copyOf(ordinalById));
+        }
+
+        private String intern(String value) {
+            if (value == null) return "";
+            String pooled = stringPool.putIfAbsent(value, value);
+            return pooled == null ? value : pooled;
+        }
+
+        private String[] internAll(Collection<String> values) {
+            String[] result = new String[values.size()];
+            int i = 0;
+            for (String value : values) result[i++] = intern(value);
+            return result;
+        }
+
+        private static int encode(Map<String, Integer> dictionary, String value) {
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.put(value, code);
+            }
+            return code;
+        }
+    }
+}
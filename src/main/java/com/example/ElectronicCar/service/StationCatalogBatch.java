@@ -0,0 +1,70 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+
+/**
+ * 카탈로그 변경 묶음 (실시간 API 응답 1회분)
+ * - upsert: 카탈로그에 없으면 추가, 있으면 이름/주소/운영기관/좌표가 달라졌을 때만 수정
+ *   (충전 타입/상태는 CSV 표기와 API 표기가 달라 기존 충전소에서는 덮어쓰지 않음 - 실시간 상태는 스냅샷이 담당)
+ * - remove: 삭제된 충전소 (API 의 delYn=Y)
+ * - 같은 ID가 여러 번 들어오면 충전 타입은 +로 누적 (CSV 빌더와 같은 규칙)
+ */
+final class StationCatalogBatch {
+
+    // 충전소 1개분 정보 (API 에 없는 값은 null → 기존 값 유지)
+    static final class Upsert {
+        final String id;
+        final String name;
+        final String addr;
+        final String operator;
+        final double lat;
+        final double lng;
+        String chargerType;
+        final String status;
+
+        Upsert(String id, String name, String addr, String operator,
+               double lat, double lng, String chargerType, String status) {
+            this.id = id;
+            this.name = name;
+            this.addr = addr;
+            this.operator = operator;
+            this.lat = lat;
+            this.lng = lng;
+            this.chargerType = chargerType;
+            this.status = status;
+        }
+
+        boolean hasCoordinates() {
+            return !Double.isNaN(lat) && !Double.isNaN(lng);
+        }
+    }
+
+    private final Map<String, Upsert> upserts = new LinkedHashMap<>();
+    private final Set<String> removals = new LinkedHashSet<>();
+
+    void upsert(String id, String name, String addr, String operator,
+                double lat, double lng, String chargerType, String status) {
+        Upsert existing = upserts.get(id);
+        if (existing == null) {
+            upserts.put(id, new Upsert(id, name, addr, operator, lat, lng, chargerType, status));
+            removals.remove(id);
+        } else if (existing.chargerType == null) {
+            existing.chargerType = chargerType;
+        } else if (chargerType != null && !existing.chargerType.contains(chargerType)) {
+            existing.chargerType = existing.chargerType + "+" + chargerType;
+        }
+    }
+
+    void remove(String id) {
+        if (!upserts.containsKey(id)) {
+            removals.add(id);
+        }
+    }
+
+    Collection<Upsert> upserts() { return upserts.values(); }
+    Collection<String> removals() { return removals; }
+
+    boolean isEmpty() {
+        return upserts.isEmpty() && removals.isEmpty();
+    }
+}
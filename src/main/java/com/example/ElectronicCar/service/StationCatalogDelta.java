@@ -0,0 +1,38 @@
+package com.example.ElectronicCar.service;
+
+/**
+ * 변경 묶음 1개를 반영한 결과 (이전 버전 → 새 버전)
+ * - changed: 새 버전에서 내용이 바뀐 ordinal (추가/수정/삭제로 인해 자리를 옮겨온 충전소)
+ * - stale: 이전 버전에서 더 이상 같은 내용이 아닌 ordinal (changed 중 이전 범위 + 줄어든 끝부분)
+ * - 두 목록에 없는 ordinal 은 두 버전에서 완전히 같은 충전소 → 파생 구조는 이 목록만 고치면 됨
+ */
+final class StationCatalogDelta {
+
+    private final StationCatalog previous;
+    private final StationCatalog current;
+    private final int[] changed;
+    private final int[] stale;
+    private final int added;
+    private final int updated;
+    private final int removed;
+
+    StationCatalogDelta(StationCatalog previous, StationCatalog current, int[] changed, int[] stale,
+                        int added, int updated, int removed) {
+        this.previous = previous;
+        this.current = current;
+        this.changed = changed;
+        this.stale = stale;
+        this.added = added;
+        this.updated = updated;
+        this.removed = removed;
+    }
+
+    StationCatalog previous() { return previous; }
+    StationCatalog current() { return current; }
+    int[] changed() { return changed; }
+    int[] stale() { return stale; }
+
+    int added() { return added; }
+    int updated() { return updated; }
+    int removed() { return removed; }
+}
@@ -0,0 +1,266 @@
+package com.example.ElectronicCar.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * 파싱된 카탈로그 + 공간 인덱스의 바이너리 스냅샷 파일
+ * - 다음 기동 때 CSV를 다시 파싱하지 않고 mmap 한 스냅샷에서 배열을 그대로 복원
+ * - 헤더: MAGIC, FORMAT_VERSION, 원본 CSV 체크섬, 본문 길이, 본문 체크섬 (CRC32C)
+ * - 본문: 문자열 테이블(중복 제거) → 컬럼 배열(문자열은 테이블 번호) → R-tree 배열
+ * - 파일이 없거나, 포맷 버전/CSV 체크섬/본문 체크섬 중 하나라도 다르면 null → CSV 파싱으로 대체
+ */
+final class StationCatalogSnapshot {
+
+    private static final int MAGIC = 0x45564353; // "EVCS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 8;
+
+    private final StationCatalog catalog;
+    private final StationSpatialIndex spatialIndex;
+
+    private StationCatalogSnapshot(StationCatalog catalog, StationSpatialIndex spatialIndex) {
+        this.catalog = catalog;
+        this.spatialIndex = spatialIndex;
+    }
+
+    StationCatalog catalog() { return catalog; }
+    StationSpatialIndex spatialIndex() { return spatialIndex; }
+
+    // 원본 CSV 내용 체크섬 (스냅샷이 어떤 CSV에서 만들어졌는지 확인용)
+    static long checksum(ByteBuffer csv) {
+        CRC32C crc = new CRC32C();
+        crc.update(csv.duplicate());
+        return crc.getValue();
+    }
+
+    // 스냅샷 읽기 (사용할 수 없으면 null)
+    static StationCatalogSnapshot read(Path path, long sourceChecksum, long version) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                System.out.println("⚠️ 카탈로그 스냅샷 크기 이상, CSV에서 다시 생성: " + path);
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                System.out.println("⚠️ 카탈로그 스냅샷 버전 불일치, CSV에서 다시 생성");
+                return null;
+            }
+            if (buffer.getLong() != sourceChecksum) {
+                System.out.println("🔄 CSV가 변경되어 카탈로그 스냅샷을 다시 생성합니다.");
+                return null;
+            }
+            int payloadLength = buffer.getInt();
+            long payloadChecksum = buffer.getLong();
+            if (payloadLength != fileSize - HEADER_BYTES) {
+                System.out.println("⚠️ 카탈로그 스냅샷 길이 불일치, CSV에서 다시 생성");
+                return null;
+            }
+
+            ByteBuffer payload = buffer.slice();
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != payloadChecksum) {
+                System.out.println("⚠️ 카탈로그 스냅샷 체크섬 불일치, CSV에서 다시 생성");
+                return null;
+            }
+
+            return decode(payload, version);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("⚠️ 카탈로그 스냅샷 읽기 실패: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // 스냅샷 쓰기 (임시 파일에 쓴 뒤 교체하므로 읽는 쪽이 반쯤 쓰인 파일을 보지 않음)
+    static void write(Path path, long sourceChecksum, StationCatalog catalog, StationSpatialIndex spatialIndex)
+            throws IOException {
+        byte[] payload = encode(catalog, spatialIndex);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(sourceChecksum);
+                out.writeInt(payload.length);
+                out.writeLong(crc.getValue());
+                out.write(payload);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static byte[] encode(StationCatalog catalog, StationSpatialIndex spatialIndex) throws IOException {
+        int n = catalog.size();
+
+        // 문자열 테이블 (같은 이름/주소/사전 값은 한 번만 저장)
+        Map<String, Integer> table = new HashMap<>(n * 4);
+        int[] idRefs = new int[n];
+        int[] nameRefs = new int[n];
+        int[] addrRefs = new int[n];
+        for (int i = 0; i < n; i++) {
+            idRefs[i] = ref(table, catalog.id(i));
+            nameRefs[i] = ref(table, catalog.name(i));
+            addrRefs[i] = ref(table, catalog.addr(i));
+        }
+        int[] operatorRefs = new int[catalog.operatorCount()];
+        for (int c = 0; c < operatorRefs.length; c++) operatorRefs[c] = ref(table, catalog.operatorName(c));
+        int[] typeRefs = new int[catalog.chargerTypeCount()];
+        for (int c = 0; c < typeRefs.length; c++) typeRefs[c] = ref(table, catalog.chargerTypeName(c));
+        int[] statusRefs = new int[catalog.statusCount()];
+        for (int c = 0; c < statusRefs.length; c++) statusRefs[c] = ref(table, catalog.statusName(c));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(n * 96);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        String[] strings = new String[table.size()];
+        table.forEach((value, index) -> strings[index] = value);
+        out.writeInt(strings.length);
+        for (String value : strings) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+
+        out.writeInt(n);
+        writeInts(out, idRefs);
+        writeInts(out, nameRefs);
+        writeInts(out, addrRefs);
+        writeDoubles(out, catalog.latArray());
+        writeDoubles(out, catalog.lngArray());
+
+        writeInts(out, operatorRefs);
+        int[] codes = new int[n];
+        for (int i = 0; i < n; i++) codes[i] = catalog.operatorCode(i);
+        writeInts(out, codes);
+        writeInts(out, typeRefs);
+        for (int i = 0; i < n; i++) codes[i] = catalog.chargerTypeCode(i);
+        writeInts(out, codes);
+        writeInts(out, statusRefs);
+        for (int i = 0; i < n; i++) codes[i] = catalog.statusCode(i);
+        writeInts(out, codes);
+
+        writeInts(out, spatialIndex.levelBounds());
+        writeDoubles(out, spatialIndex.boxes());
+        writeInts(out, spatialIndex.indices());
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static StationCatalogSnapshot decode(ByteBuffer in, long version) {
+        String[] strings = new String[in.getInt()];
+        byte[] scratch = new byte[256];
+        for (int s = 0; s < strings.length; s++) {
+            int length = in.getInt();
+            if (scratch.length < length) scratch = new byte[length * 2];
+            in.get(scratch, 0, length);
+            strings[s] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int n = in.getInt();
+        String[] ids = lookup(strings, readInts(in, n));
+        String[] names = lookup(strings, readInts(in, n));
+        String[] addrs = lookup(strings, readInts(in, n));
+        double[] lats = readDoubles(in, n);
+        double[] lngs = readDoubles(in, n);
+
+        String[] operatorDictionary = lookup(strings, readInts(in));
+        int[] operatorCodes = readInts(in, n);
+        String[] chargerTypeDictionary = lookup(strings, readInts(in));
+        int[] chargerTypeCodes = readInts(in, n);
+        String[] statusDictionary = lookup(strings, readInts(in));
+        int[] statusCodes = readInts(in, n);
+
+        StationCatalog catalog = StationCatalog.restore(version, ids, names, addrs, lats, lngs,
+                operatorCodes, operatorDictionary, chargerTypeCodes, chargerTypeDictionary,
+                statusCodes, statusDictionary);
+        StationSpatialIndex spatialIndex = new StationSpatialIndex(catalog,
+                readInts(in), readDoubles(in), readInts(in));
+        return new StationCatalogSnapshot(catalog, spatialIndex);
+    }
+
+    private static int ref(Map<String, Integer> table, String value) {
+        Integer index = table.get(value);
+        if (index == null) {
+            index = table.size();
+            table.put(value, index);
+        }
+        return index;
+    }
+
+    private static String[] lookup(String[] strings, int[] refs) {
+        String[] values = new String[refs.length];
+        for (int i = 0; i < refs.length; i++) values[i] = strings[refs[i]];
+        return values;
+    }
+
+    // 배열 = 길이 + 값들
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) out.writeInt(value);
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        out.writeInt(values.length);
+        for (double value : values) out.writeDouble(value);
+    }
+
+    private static int[] readInts(ByteBuffer in) {
+        return readInts(in, -1);
+    }
+
+    // expected >= 0 이면 길이 확인 (손상된 파일 방어)
+    private static int[] readInts(ByteBuffer in, int expected) {
+        int length = in.getInt();
+        if (expected >= 0 && length != expected) {
+            throw new IllegalStateException("배열 길이 불일치: " + length + " != " + expected);
+        }
+        int[] values = new int[length];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + length * 4);
+        return values;
+    }
+
+    private static double[] readDoubles(ByteBuffer in) {
+        return readDoubles(in, -1);
+    }
+
+    private static double[] readDoubles(ByteBuffer in, int expected) {
+        int length = in.getInt();
+        if (expected >= 0 && length != expected) {
+            throw new IllegalStateException("배열 길이 불일치: " + length + " != " + expected);
+        }
+        double[] values = new double[length];
+        in.asDoubleBuffer().get(values);
+        in.position(in.position() + length * 8);
+        return values;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ElectronicCar.service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 카탈로그 CSV 파일 감시
+ * - 파일이 있는 디렉터리를 WatchService 로 감시하다가 대상 파일이 생성/수정/이동되면 onChange 실행
+ * - 파일 복사 중간에 여러 이벤트가 오므로 마지막 이벤트 후 DEBOUNCE_MS 동안 조용할 때 한 번만 실행
+ * - 데몬 스레드에서 동작, close() 로 종료
+ */
+final class StationCatalogWatcher implements AutoCloseable {
+
+    private static final long DEBOUNCE_MS = 2000;
+
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    StationCatalogWatcher(Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "station-catalog-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+        System.out.println("👀 카탈로그 파일 감시 시작: " + file);
+    }
+
+    private void run() {
+        boolean pending = false;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = pending
+                        ? watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)
+                        : watchService.take();
+
+                // 디바운스 시간 동안 추가 이벤트 없음 → 다시 로드
+                if (key == null) {
+                    pending = false;
+                    onChange.run();
+                    continue;
+                }
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        pending = true;
+                    } else if (file.getFileName().equals(event.context())) {
+                        pending = true;
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 종료
+        } catch (Exception e) {
+            System.out.println("⚠️ 카탈로그 파일 감시 중단: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watchService.close();
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+
+/**
+ * 실시간 상태 스냅샷이 바뀔 때마다 이전 스냅샷과의 차이(변경분)를 버전과 함께 쌓아 두는 로그
+ * - 버전: 스냅샷마다 단조 증가 (밀리초 시각 기반 → 서버를 재시작해도 이전 버전보다 작아지지 않음)
+ * - 변경분: 추가/삭제된 충전소, 정보가 바뀐 충전소(전체), 충전기 상태 전이 (충전소 요약 + 바뀐 충전기만)
+ * - 크기 제한: 변경분 개수(logSize) + 항목 수 합계(maxEntries), 넘치면 오래된 것부터 버림
+ * - since 가 남아 있는 가장 오래된 버전보다 이전이면 전체 다시 받기(resync) 응답
+ */
+final class StationChangeLog {
+
+    private final int logSize;
+    private final int maxEntries;
+
+    private final ArrayDeque<Changeset> changesets = new ArrayDeque<>();
+    private int entries = 0;
+    private StationStatusSnapshot latest = null;
+    private long version = 0;
+    private long baseVersion = 0;   // 이 버전 이후의 변경분은 전부 남아 있음
+
+    // 충전소 1곳의 충전기 상태 전이 (상태가 바뀐 충전기만, 좌표는 구독 범위 판정용)
+    record StatusChange(String id, double lat, double lng, String status,
+                        String[] chargerIds, String[] chargerStatuses) {
+
+        Map<String, Object> toMap() {
+            List<Map<String, String>> chargers = new ArrayList<>(chargerIds.length);
+            for (int k = 0; k < chargerIds.length; k++) {
+                Map<String, String> charger = new LinkedHashMap<>();
+                charger.put("chgerId", chargerIds[k]);
+                charger.put("status", chargerStatuses[k]);
+                chargers.add(charger);
+            }
+            Map<String, Object> station = new LinkedHashMap<>();
+            station.put("id", id);
+            station.put("status", status);
+            station.put("chargers", chargers);
+            return station;
+        }
+    }
+
+    // removedPoints: 삭제된 충전소의 (이전) 좌표 lat, lng 순서로 2개씩
+    record Changeset(long version, List<Map<String, Object>> added, List<Map<String, Object>> updated,
+                     List<String> removed, double[] removedPoints, List<StatusChange> statuses) {
+        int size() {
+            int size = added.size() + updated.size() + removed.size();
+            for (StatusChange change : statuses) size += 1 + change.chargerIds().length;
+            return size;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("version", version);
+            map.put("added", added);
+            map.put("updated", updated);
+            map.put("removed", removed);
+            List<Map<String, Object>> statusMaps = new ArrayList<>(statuses.size());
+            for (StatusChange change : statuses) statusMaps.add(change.toMap());
+            map.put("statuses", statusMaps);
+            return map;
+        }
+    }
+
+    StationChangeLog(int logSize, int maxEntries) {
+        this.logSize = logSize;
+        this.maxEntries = maxEntries;
+    }
+
+    synchronized long version() {
+        return version;
+    }
+
+    // 새 스냅샷 기록 (처음 기록하는 스냅샷은 기준점만, 이후에는 직전 기록과 비교한 변경분 추가)
+    // 추가된 변경분 반환 (기준점이거나 이미 기록한 스냅샷이면 null)
+    synchronized Changeset record(StationStatusSnapshot snapshot) {
+        if (snapshot == latest) return null;
+        StationStatusSnapshot previous = latest;
+        latest = snapshot;
+        version = Math.max(version + 1, System.currentTimeMillis());
+        if (previous == null) {
+            baseVersion = version;
+            return null;
+        }
+
+        long start = System.currentTimeMillis();
+        Changeset changeset = diff(version, previous, snapshot);
+        int size = changeset.size();
+        changesets.addLast(changeset);
+        entries += size;
+        while (!changesets.isEmpty() && (changesets.size() > logSize || entries > maxEntries)) {
+            Changeset dropped = changesets.removeFirst();
+            entries -= dropped.size();
+            baseVersion = dropped.version();
+        }
+        System.out.println("📝 변경 로그 v" + version + ": 추가 " + changeset.added().size()
+                + ", 수정 " + changeset.updated().size() + ", 삭제 " + changeset.removed().size()
+                + ", 상태 변경 " + changeset.statuses().size() + " (" + (System.currentTimeMillis() - start) + "ms)");
+        return changeset;
+    }
+
+    // since 이후의 변경분 (since 가 없거나 너무 오래됐거나 모르는 버전이면 resync)
+    synchronized Map<String, Object> since(Long since) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", version);
+        List<Changeset> changesets = since == null ? null : changesetsSince(since);
+        if (changesets == null) {
+            result.put("resync", true);
+            result.put("changes", List.of());
+            return result;
+        }
+
+        List<Map<String, Object>> changes = new ArrayList<>(changesets.size());
+        for (Changeset changeset : changesets) changes.add(changeset.toMap());
+        result.put("resync", false);
+        result.put("changes", changes);
+        return result;
+    }
+
+    // since 이후의 변경분 목록 (로그에 없는 버전이면 null)
+    synchronized List<Changeset> changesetsSince(long since) {
+        if (since < baseVersion || since > version) return null;
+        List<Changeset> result = new ArrayList<>();
+        for (Changeset changeset : changesets) {
+            if (changeset.version() > since) result.add(changeset);
+        }
+        return result;
+    }
+
+    // 두 스냅샷 비교 (카탈로그가 같으면 번호끼리, 다르면 id 로 맞춰서)
+    private static Changeset diff(long version, StationStatusSnapshot previous, StationStatusSnapshot current) {
+        StationCatalog before = previous.catalog();
+        StationCatalog after = current.catalog();
+        boolean sameCatalog = before == after;
+
+        List<Map<String, Object>> added = new ArrayList<>();
+        List<Map<String, Object>> updated = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        List<Double> removedPoints = new ArrayList<>();
+        List<StatusChange> statuses = new ArrayList<>();
+
+        for (int i = 0; i < after.size(); i++) {
+            int p = sameCatalog ? i : before.ordinalOf(after.id(i));
+            if (p < 0) {
+                added.add(new LinkedHashMap<>(StationViews.station(current, i)));
+                continue;
+            }
+            if (!sameCatalog && !sameStation(before, p, after, i)) {
+                updated.add(new LinkedHashMap<>(StationViews.station(current, i)));
+                continue;
+            }
+
+            // 둘 다 주작 상태이고 seed 가 같으면 충전소 id 기준으로 같은 상태 → 비교하지 않음
+            if (!previous.isLive(p) && !current.isLive(i) && previous.seed() == current.seed()) continue;
+
+            List<Map<String, String>> from = previous.details(p);
+            List<Map<String, String>> to = current.details(i);
+            if (from == to) continue;   // 같은 실시간 응답을 그대로 참조
+
+            // 충전기 구성이 바뀌었으면 충전소 전체를 다시 보냄
+            boolean sameChargers = from.size() == to.size();
+            for (int k = 0; sameChargers && k < to.size(); k++) {
+                sameChargers = Objects.equals(from.get(k).get("chgerId"), to.get(k).get("chgerId"))
+                        && Objects.equals(from.get(k).get("speed"), to.get(k).get("speed"))
+                        && Objects.equals(from.get(k).get("chargerType"), to.get(k).get("chargerType"));
+            }
+            if (!sameChargers) {
+                updated.add(new LinkedHashMap<>(StationViews.station(current, i)));
+                continue;
+            }
+
+            int changed = 0;
+            for (int k = 0; k < to.size(); k++) {
+                if (!Objects.equals(from.get(k).get("status"), to.get(k).get("status"))) changed++;
+            }
+            if (changed == 0 && Objects.equals(previous.status(p), current.status(i))) continue;
+
+            String[] chargerIds = new String[changed];
+            String[] chargerStatuses = new String[changed];
+            for (int k = 0, n = 0; k < to.size(); k++) {
+                if (Objects.equals(from.get(k).get("status"), to.get(k).get("status"))) continue;
+                chargerIds[n] = to.get(k).get("chgerId");
+                chargerStatuses[n] = to.get(k).get("status");
+                n++;
+            }
+            statuses.add(new StatusChange(after.id(i), after.lat(i), after.lng(i), current.status(i),
+                    chargerIds, chargerStatuses));
+        }
+
+        if (!sameCatalog) {
+            for (int p = 0; p < before.size(); p++) {
+                if (after.ordinalOf(before.id(p)) >= 0) continue;
+                removed.add(before.id(p));
+                removedPoints.add(before.lat(p));
+                removedPoints.add(before.lng(p));
+            }
+        }
+        return new Changeset(version, added, updated, removed,
+                removedPoints.stream().mapToDouble(Double::doubleValue).toArray(), statuses);
+    }
+
+    private static boolean sameStation(StationCatalog before, int p, StationCatalog after, int i) {
+        return Objects.equals(before.name(p), after.name(i))
+                && Objects.equals(before.addr(p), after.addr(i))
+                && Objects.equals(before.operator(p), after.operator(i))
+                && Objects.equals(before.chargerType(p), after.chargerType(i))
+                && Double.compare(before.lat(p), after.lat(i)) == 0
+                && Double.compare(before.lng(p), after.lng(i)) == 0;
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+
+/**
+ * 줌 레벨별 계층 클러스터 (supercluster 방식)
+ * - 카탈로그 버전마다 한 번만 빌드: 가장 깊은 줌(충전소 단위)부터 위로 올라가며
+ *   화면 반경(RADIUS px) 안의 점들을 묶어 상위 레벨 클러스터를 생성
+ * - 클러스터 ID는 (생성 위치, 줌)을 인코딩하므로 같은 카탈로그 버전 안에서는 화면을 이동해도 변하지 않음
+ * - 조회는 요청 줌의 KD-tree 범위 조회, 펼치기(children)는 한 단계 아래 레벨의 반경 조회
+ * - 줌은 웹 메르카토르 기준 (카카오맵 레벨 L ≈ 줌 20 - L)
+ */
+public final class StationClusterPyramid {
+
+    public static final int MIN_ZOOM = 0;
+    public static final int MAX_ZOOM = 16;
+
+    private static final double RADIUS = 60;
+    private static final double EXTENT = 512;
+    private static final int MIN_POINTS = 2;
+
+    private final StationCatalog catalog;
+    private final Level[] levels = new Level[MAX_ZOOM + 2];
+
+    // 레벨 하나 = 해당 줌에서 보이는 점(클러스터 또는 충전소)들의 컬럼 + KD-tree
+    private static final class Level {
+        final int size;
+        final double[] xs;
+        final double[] ys;
+        final int[] counts;
+        final long[] ids;       // 충전소면 ordinal, 클러스터면 인코딩된 클러스터 ID
+        final long[] parents;   // 한 단계 위 줌에서 속한 클러스터 ID (없으면 -1)
+        final int[] zooms;      // 빌드 중에만 사용 (이 점이 처리된 줌)
+        PointKdTree tree;
+
+        Level(int size) {
+            this.size = size;
+            this.xs = new double[size];
+            this.ys = new double[size];
+            this.counts = new int[size];
+            this.ids = new long[size];
+            this.parents = new long[size];
+            this.zooms = new int[size];
+        }
+
+        boolean isCluster(int i) {
+            return counts[i] > 1;
+        }
+    }
+
+    public StationClusterPyramid(StationCatalog catalog) {
+        this.catalog = catalog;
+        int n = catalog.size();
+
+        // 가장 깊은 레벨: 충전소 하나 = 점 하나
+        Level points = new Level(n);
+        for (int i = 0; i < n; i++) {
+            points.xs[i] = lngX(catalog.lng(i));
+            points.ys[i] = latY(catalog.lat(i));
+            points.counts[i] = 1;
+            points.ids[i] = i;
+            points.parents[i] = -1;
+            points.zooms[i] = Integer.MAX_VALUE;
+        }
+        points.tree = new PointKdTree(points.xs, points.ys, n);
+        levels[MAX_ZOOM + 1] = points;
+
+        // 위로 올라가며 클러스터링
+        for (int z = MAX_ZOOM; z >= MIN_ZOOM; z--) {
+            Level level = cluster(levels[z + 1], z);
+            level.tree = new PointKdTree(level.xs, level.ys, level.size);
+            levels[z] = level;
+        }
+    }
+
+    public StationCatalog catalog() { return catalog; }
+
+    // 요청 줌 + 범위의 클러스터/충전소 목록
+    public List<Map<String, Object>> getClusters(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        Level level = levels[limitZoom(zoom)];
+        List<Map<String, Object>> result = new ArrayList<>();
+        level.tree.range(lngX(minLng), latY(maxLat), lngX(maxLng), latY(minLat),
+                i -> result.add(toMap(level, i)));
+        return result;
+    }
+
+    // 클러스터를 한 단계 펼친 자식 목록 (없는 ID면 null)
+    public List<Map<String, Object>> getChildren(long clusterId) {
+        int originZoom = originZoom(clusterId);
+        int originIndex = originIndex(clusterId);
+        if (originZoom < MIN_ZOOM + 1 || originZoom > MAX_ZOOM + 1) return null;
+
+        Level level = levels[originZoom];
+        if (originIndex < 0 || originIndex >= level.size) return null;
+
+        double r = RADIUS / (EXTENT * Math.pow(2, originZoom - 1));
+        List<Map<String, Object>> children = new ArrayList<>();
+        level.tree.within(level.xs[originIndex], level.ys[originIndex], r, i -> {
+            if (level.parents[i] == clusterId) children.add(toMap(level, i));
+        });
+        return children.isEmpty() ? null : children;
+    }
+
+    // 클러스터가 둘 이상으로 갈라지는 줌 (클릭 시 이 줌으로 확대, 없는 ID면 -1)
+    public int getExpansionZoom(long clusterId) {
+        if (getChildren(clusterId) == null) return -1;
+
+        int expansionZoom = originZoom(clusterId) - 1;
+        while (expansionZoom <= MAX_ZOOM) {
+            List<Map<String, Object>> children = getChildren(clusterId);
+            expansionZoom++;
+            if (children == null || children.size() != 1) break;
+            Map<String, Object> only = children.get(0);
+            if (!Boolean.TRUE.equals(only.get("cluster"))) break;
+            clusterId = (Long) only.get("id");
+        }
+        return expansionZoom;
+    }
+
+    private Level cluster(Level previous, int zoom) {
+        double r = RADIUS / (EXTENT * Math.pow(2, zoom));
+        int catalogSize = catalog.size();
+
+        // 다음 레벨 점들 (최대 previous.size 개)
+        double[] xs = new double[previous.size];
+        double[] ys = new double[previous.size];
+        int[] counts = new int[previous.size];
+        long[] ids = new long[previous.size];
+        int next = 0;
+
+        IntList neighbors = new IntList();
+        for (int i = 0; i < previous.size; i++) {
+            if (previous.zooms[i] <= zoom) continue;
+            previous.zooms[i] = zoom;
+
+            double x = previous.xs[i], y = previous.ys[i];
+            neighbors.clear();
+            previous.tree.within(x, y, r, neighbors);
+
+            int originCount = previous.counts[i];
+            int count = originCount;
+            for (int k = 0; k < neighbors.size; k++) {
+                int j = neighbors.values[k];
+                if (previous.zooms[j] > zoom) count += previous.counts[j];
+            }
+
+            if (count > originCount && count >= MIN_POINTS) {
+                // 주변 점들을 묶어 새 클러스터 생성 (가중 평균 위치)
+                double wx = x * originCount, wy = y * originCount;
+                long id = ((long) i << 5) + (zoom + 1) + catalogSize;
+                for (int k = 0; k < neighbors.size; k++) {
+                    int j = neighbors.values[k];
+                    if (previous.zooms[j] <= zoom) continue;
+                    previous.zooms[j] = zoom;
+                    wx += previous.xs[j] * previous.counts[j];
+                    wy += previous.ys[j] * previous.counts[j];
+                    previous.parents[j] = id;
+                }
+                previous.parents[i] = id;
+                xs[next] = wx / count;
+                ys[next] = wy / count;
+                counts[next] = count;
+                ids[next] = id;
+                next++;
+            } else {
+                // 묶이지 않은 점은 그대로 다음 레벨로
+                xs[next] = x;
+                ys[next] = y;
+                counts[next] = originCount;
+                ids[next] = previous.ids[i];
+                next++;
+            }
+        }
+
+        Level level = new Level(next);
+        System.arraycopy(xs, 0, level.xs, 0, next);
+        System.arraycopy(ys, 0, level.ys, 0, next);
+        System.arraycopy(counts, 0, level.counts, 0, next);
+        System.arraycopy(ids, 0, level.ids, 0, next);
+        Arrays.fill(level.parents, -1);
+        Arrays.fill(level.zooms, Integer.MAX_VALUE);
+        return level;
+    }
+
+    // 메르카토르 [0, 1] 범위 안의 점 순회 (벡터 타일용 - 지도 객체를 만들지 않음)
+    void forEachPoint(int zoom, double minX, double minY, double maxX, double maxY, PointVisitor visitor) {
+        Level level = levels[limitZoom(zoom)];
+        level.tree.range(minX, minY, maxX, maxY,
+                i -> visitor.visit(level.xs[i], level.ys[i], level.counts[i], level.ids[i]));
+    }
+
+    interface PointVisitor {
+        // count 가 1 이면 id 는 충전소 ordinal, 아니면 클러스터 ID
+        void visit(double x, double y, int count, long id);
+    }
+
+    private Map<String, Object> toMap(Level level, int i) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        boolean isCluster = level.isCluster(i);
+        item.put("id", level.ids[i]);
+        item.put("latitude", yLat(level.ys[i]));
+        item.put("longitude", xLng(level.xs[i]));
+        item.put("count", level.counts[i]);
+        item.put("cluster", isCluster);
+        if (!isCluster) {
+            item.put("stationId", catalog.id((int) level.ids[i]));
+        }
+        return item;
+    }
+
+    private int originIndex(long clusterId) {
+        return (int) ((clusterId - catalog.size()) >> 5);
+    }
+
+    private int originZoom(long clusterId) {
+        return (int) ((clusterId - catalog.size()) % 32);
+    }
+
+    private static int limitZoom(int zoom) {
+        return Math.max(MIN_ZOOM, Math.min(zoom, MAX_ZOOM + 1));
+    }
+
+    // 경도/위도 → 메르카토르 [0, 1] 좌표
+    static double lngX(double lng) {
+        return lng / 360 + 0.5;
+    }
+
+    static double latY(double lat) {
+        double sin = Math.sin(lat * Math.PI / 180);
+        double y = 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+        return y < 0 ? 0 : y > 1 ? 1 : y;
+    }
+
+    static double xLng(double x) {
+        return (x - 0.5) * 360;
+    }
+
+    static double yLat(double y) {
+        double y2 = (180 - y * 360) * Math.PI / 180;
+        return 360 * Math.atan(Math.exp(y2)) / Math.PI - 90;
+    }
+
+    // within 결과 수집용 재사용 버퍼
+    private static final class IntList implements java.util.function.IntConsumer {
+        int[] values = new int[64];
+        int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        @Override
+        public void accept(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+}
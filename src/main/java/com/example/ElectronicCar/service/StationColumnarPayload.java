@@ -0,0 +1,336 @@
+package com.example.ElectronicCar.service;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * /api/ev/all 과 같은 내용을 컬럼 형식으로 (충전소 객체 배열 대신 평행 배열 + 사전)
+ * - 운영기관/충전기 타입/상태 요약/속도/충전기 상태 문자열은 사전에 한 번만 쓰고 컬럼에는 사전 번호만
+ * - 충전기(realtime) 목록은 충전소별 시작 위치(offset, n + 1 개) + 충전기 컬럼으로 평탄화
+ *   chgerId 는 "충전소 id + '-' + chargerId" 이므로 chargerId 만 저장
+ * - live 가 1 인 충전소는 첫 충전기에 summary(= 충전소 status)가 붙어 있던 실시간 데이터
+ * - 필드 선택(projection) 시 선택된 컬럼만 씀 (realtime 을 고르지 않으면 충전기 목록은 만들지도 않음)
+ *
+ * JSON: { format, count, fields, dictionaries: { operator, chargerType, status, speed, chargerStatus },
+ *         stations: { id, name, addr, operator, lat, lng, chargerType, status, live, available, charging, check, total },
+ *         realtime: { offset, speed, chargerType, status, chargerId } }
+ *
+ * 바이너리 (little-endian, 정렬 없음, 선택된 필드의 컬럼만 아래 순서로):
+ *   "EVC1" | int32 count | int32 chargerCount | int32 fields (StationViews.FIELDS 순서의 비트)
+ *   사전 5개 (위 순서): int32 개수 + 문자열들
+ *   id, name, addr: 문자열 n 개 | operator: uint16[n] | lat, lng: float64[n]
+ *   chargerType: uint16[n] | status: uint16[n] + live: uint8[n]
+ *   realtime: offset int32[n + 1] + speed uint8[m] + chargerType uint16[m] + status uint8[m] + chargerId 문자열 m 개
+ *   available, charging, check, total: uint16[n]
+ *   문자열 = 바이트 길이(varint, 7비트씩 하위부터) + UTF-8
+ */
+final class StationColumnarPayload {
+
+    private static final byte[] MAGIC = {'E', 'V', 'C', '1'};
+
+    private final int count;
+    private final int fields;       // 선택된 필드 비트 (StationViews.FIELDS 순서)
+    private String[] ids, names, addrs;
+    private double[] lats, lngs;
+    private int[] operators, chargerTypes, statuses;
+    private boolean[] live;
+    private int[][] counts;         // available, charging, check, total (선택된 것만)
+
+    private int[] offsets;
+    private int[] chargerSpeeds, chargerTypeCodes, chargerStatuses;
+    private String[] chargerIds;
+
+    private final Dictionary operatorDictionary = new Dictionary();
+    private final Dictionary chargerTypeDictionary = new Dictionary();
+    private final Dictionary statusDictionary = new Dictionary();
+    private final Dictionary speedDictionary = new Dictionary();
+    private final Dictionary chargerStatusDictionary = new Dictionary();
+
+    private static final String[] COUNT_FIELDS = {"available", "charging", "check", "total"};
+
+    // 문자열 → 사전 번호 (처음 나온 순서)
+    private static final class Dictionary {
+        final Map<String, Integer> codes = new LinkedHashMap<>();
+
+        int code(String value) {
+            return codes.computeIfAbsent(value == null ? "" : value, k -> codes.size());
+        }
+    }
+
+    // keys: StationViews.projection 결과
+    StationColumnarPayload(StationStatusSnapshot snapshot, String[] keys) {
+        StationCatalog catalog = snapshot.catalog();
+        int n = catalog.size();
+        this.count = n;
+        this.fields = StationViews.fieldMask(keys);
+
+        if (has("id")) {
+            ids = new String[n];
+            for (int i = 0; i < n; i++) ids[i] = catalog.id(i);
+        }
+        if (has("name")) {
+            names = new String[n];
+            for (int i = 0; i < n; i++) names[i] = catalog.name(i);
+        }
+        if (has("addr")) {
+            addrs = new String[n];
+            for (int i = 0; i < n; i++) addrs[i] = catalog.addr(i);
+        }
+        if (has("operator")) {
+            operators = new int[n];
+            for (int i = 0; i < n; i++) operators[i] = operatorDictionary.code(catalog.operator(i));
+        }
+        if (has("lat")) lats = Arrays.copyOf(catalog.latArray(), n);
+        if (has("lng")) lngs = Arrays.copyOf(catalog.lngArray(), n);
+        if (has("chargerType")) {
+            chargerTypes = new int[n];
+            for (int i = 0; i < n; i++) chargerTypes[i] = chargerTypeDictionary.code(catalog.chargerType(i));
+        }
+        if (has("status")) {
+            statuses = new int[n];
+            live = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                statuses[i] = statusDictionary.code(snapshot.status(i));
+                live[i] = snapshot.isLive(i);
+            }
+        }
+        counts = new int[COUNT_FIELDS.length][];
+        for (int c = 0; c < COUNT_FIELDS.length; c++) {
+            if (!has(COUNT_FIELDS[c])) continue;
+            counts[c] = new int[n];
+            for (int i = 0; i < n; i++) {
+                counts[c][i] = switch (c) {
+                    case 0 -> snapshot.available(i);
+                    case 1 -> snapshot.charging(i);
+                    case 2 -> snapshot.check(i);
+                    default -> snapshot.total(i);
+                };
+            }
+        }
+        if (has("realtime")) {
+            flattenChargers(snapshot);
+        }
+    }
+
+    private boolean has(String field) {
+        return (fields & (1 << StationViews.FIELDS.indexOf(field))) != 0;
+    }
+
+    // 충전기 목록 평탄화 (주작 목록은 이때 한 번만 재생성)
+    private void flattenChargers(StationStatusSnapshot snapshot) {
+        int n = count;
+        offsets = new int[n + 1];
+        List<List<Map<String, String>>> details = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            List<Map<String, String>> chargers = snapshot.details(i);
+            details.add(chargers);
+            offsets[i + 1] = offsets[i] + chargers.size();
+        }
+
+        int m = offsets[n];
+        chargerSpeeds = new int[m];
+        chargerTypeCodes = new int[m];
+        chargerStatuses = new int[m];
+        chargerIds = new String[m];
+        for (int i = 0; i < n; i++) {
+            String prefix = ids[i] + "-";
+            int k = offsets[i];
+            for (Map<String, String> charger : details.get(i)) {
+                chargerSpeeds[k] = speedDictionary.code(charger.get("speed"));
+                chargerTypeCodes[k] = chargerTypeDictionary.code(charger.get("chargerType"));
+                chargerStatuses[k] = chargerStatusDictionary.code(charger.get("status"));
+                String chgerId = charger.getOrDefault("chgerId", "");
+                chargerIds[k] = chgerId.startsWith(prefix) ? chgerId.substring(prefix.length()) : chgerId;
+                k++;
+            }
+        }
+    }
+
+    byte[] json() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.setHtmlSafe(false);
+            writer.beginObject();
+            writer.name("format").value("columnar");
+            writer.name("count").value(count);
+            writer.name("fields").beginArray();
+            for (String field : StationViews.FIELDS) {
+                if (has(field)) writer.value(field);
+            }
+            writer.endArray();
+
+            writer.name("dictionaries").beginObject();
+            writeDictionary(writer, "operator", operatorDictionary);
+            writeDictionary(writer, "chargerType", chargerTypeDictionary);
+            writeDictionary(writer, "status", statusDictionary);
+            writeDictionary(writer, "speed", speedDictionary);
+            writeDictionary(writer, "chargerStatus", chargerStatusDictionary);
+            writer.endObject();
+
+            writer.name("stations").beginObject();
+            if (has("id")) writeStrings(writer, "id", ids);
+            if (has("name")) writeStrings(writer, "name", names);
+            if (has("addr")) writeStrings(writer, "addr", addrs);
+            if (has("operator")) writeInts(writer, "operator", operators);
+            if (has("lat")) writeDoubles(writer, "lat", lats);
+            if (has("lng")) writeDoubles(writer, "lng", lngs);
+            if (has("chargerType")) writeInts(writer, "chargerType", chargerTypes);
+            if (has("status")) {
+                writeInts(writer, "status", statuses);
+                writer.name("live").beginArray();
+                for (boolean value : live) writer.value(value ? 1 : 0);
+                writer.endArray();
+            }
+            for (int c = 0; c < COUNT_FIELDS.length; c++) {
+                if (counts[c] != null) writeInts(writer, COUNT_FIELDS[c], counts[c]);
+            }
+            writer.endObject();
+
+            if (has("realtime")) {
+                writer.name("realtime").beginObject();
+                writeInts(writer, "offset", offsets);
+                writeInts(writer, "speed", chargerSpeeds);
+                writeInts(writer, "chargerType", chargerTypeCodes);
+                writeInts(writer, "status", chargerStatuses);
+                writeStrings(writer, "chargerId", chargerIds);
+                writer.endObject();
+            }
+
+            writer.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeDictionary(JsonWriter writer, String name, Dictionary dictionary) throws IOException {
+        writeStrings(writer, name, dictionary.codes.keySet().toArray(new String[0]));
+    }
+
+    private static void writeStrings(JsonWriter writer, String name, String[] values) throws IOException {
+        writer.name(name).beginArray();
+        for (String value : values) writer.value(value);
+        writer.endArray();
+    }
+
+    private static void writeInts(JsonWriter writer, String name, int[] values) throws IOException {
+        writer.name(name).beginArray();
+        for (int value : values) writer.value(value);
+        writer.endArray();
+    }
+
+    private static void writeDoubles(JsonWriter writer, String name, double[] values) throws IOException {
+        writer.name(name).beginArray();
+        for (double value : values) {
+            if (Double.isNaN(value)) writer.nullValue();
+            else writer.value(value);
+        }
+        writer.endArray();
+    }
+
+    byte[] binary() {
+        Dictionary[] dictionaries = {operatorDictionary, chargerTypeDictionary, statusDictionary,
+                speedDictionary, chargerStatusDictionary};
+        int m = chargerIds == null ? 0 : chargerIds.length;
+        BinaryWriter out = new BinaryWriter(count * 64 + m * 8 + 1024);
+        out.bytes(MAGIC);
+        out.int32(count);
+        out.int32(m);
+        out.int32(fields);
+        for (Dictionary dictionary : dictionaries) {
+            out.int32(dictionary.codes.size());
+            for (String value : dictionary.codes.keySet()) out.string(value);
+        }
+
+        if (has("id")) for (String value : ids) out.string(value);
+        if (has("name")) for (String value : names) out.string(value);
+        if (has("addr")) for (String value : addrs) out.string(value);
+        if (has("operator")) for (int value : operators) out.uint16(value);
+        if (has("lat")) for (double value : lats) out.float64(value);
+        if (has("lng")) for (double value : lngs) out.float64(value);
+        if (has("chargerType")) for (int value : chargerTypes) out.uint16(value);
+        if (has("status")) {
+            for (int value : statuses) out.uint16(value);
+            for (boolean value : live) out.uint8(value ? 1 : 0);
+        }
+        if (has("realtime")) {
+            for (int value : offsets) out.int32(value);
+            for (int value : chargerSpeeds) out.uint8(value);
+            for (int value : chargerTypeCodes) out.uint16(value);
+            for (int value : chargerStatuses) out.uint8(value);
+            for (String value : chargerIds) out.string(value);
+        }
+        for (int[] column : counts) {
+            if (column != null) for (int value : column) out.uint16(value);
+        }
+        return out.toByteArray();
+    }
+
+    // 크기가 자동으로 늘어나는 little-endian 버퍼
+    private static final class BinaryWriter {
+        private ByteBuffer buffer;
+
+        BinaryWriter(int capacity) {
+            buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() >= bytes) return;
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+
+        void bytes(byte[] values) {
+            ensure(values.length);
+            buffer.put(values);
+        }
+
+        void uint8(int value) {
+            if (value > 0xFF) throw new IllegalStateException("uint8 범위 초과: " + value);
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void uint16(int value) {
+            if (value > 0xFFFF) throw new IllegalStateException("uint16 범위 초과: " + value);
+            ensure(2);
+            buffer.putShort((short) value);
+        }
+
+        void int32(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void float64(double value) {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        void string(String value) {
+            byte[] utf8 = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            ensure(5 + utf8.length);
+            int length = utf8.length;
+            while ((length & ~0x7F) != 0) {
+                buffer.put((byte) ((length & 0x7F) | 0x80));
+                length >>>= 7;
+            }
+            buffer.put((byte) length);
+            buffer.put(utf8);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+}
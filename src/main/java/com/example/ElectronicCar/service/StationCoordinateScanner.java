@@ -0,0 +1,30 @@
+package com.example.ElectronicCar.service;
+
+/**
+ * 좌표 배열 전수 조사(brute-force) 연산
+ * - 범위(bbox) 필터, 반경 필터 (equirectangular 근사 거리)
+ * - 구현: ScalarCoordinateScanner (기본), VectorCoordinateScanner (jdk.incubator.vector SIMD)
+ * - ordinals 가 null 이면 0..size-1 전체, 아니면 ordinals[0..size) 만 조사
+ */
+interface StationCoordinateScanner {
+
+    double EARTH_RADIUS_M = 6_371_000d;
+    double DEG_TO_M = EARTH_RADIUS_M * Math.PI / 180;
+
+    String name();
+
+    /**
+     * 범위 내 ordinal 을 out 에 기록
+     * @return 기록한 개수
+     */
+    int filterBox(double[] lats, double[] lngs, int[] ordinals, int size,
+                  double minLat, double minLng, double maxLat, double maxLng, int[] out);
+
+    /**
+     * 반경(m) 이내 ordinal 과 거리(m)를 outOrdinals / outDistances 에 기록
+     * @return 기록한 개수
+     */
+    int withinRadius(double[] lats, double[] lngs, int[] ordinals, int size,
+                     double lat, double lng, double radiusMeters,
+                     int[] outOrdinals, double[] outDistances);
+}
@@ -0,0 +1,27 @@
+package com.example.ElectronicCar.service;
+
+/**
+ * 좌표 스캐너 선택
+ * - simd=true 이고 jdk.incubator.vector 모듈이 로드되어 있으면 Vector 구현, 아니면 스칼라 구현
+ * - Vector 구현 클래스는 모듈이 있을 때만 참조되므로 모듈 없이 실행해도 안전
+ */
+final class StationCoordinateScanners {
+
+    private StationCoordinateScanners() {
+    }
+
+    static StationCoordinateScanner select(boolean simd) {
+        if (simd && vectorModuleAvailable()) {
+            try {
+                return new VectorCoordinateScanner();
+            } catch (LinkageError e) {
+                System.out.println("⚠️ Vector API 초기화 실패, 스칼라 스캔 사용: " + e.getMessage());
+            }
+        }
+        return new ScalarCoordinateScanner();
+    }
+
+    private static boolean vectorModuleAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+}
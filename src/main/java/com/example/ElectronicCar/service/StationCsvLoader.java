@@ -0,0 +1,299 @@
+package com.example.ElectronicCar.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 충전소 CSV → StationCatalog 파서
+ * - 파일은 힙 버퍼로 한 번에 읽고, 줄 경계에서 자른 청크들을 병렬로 파싱
+ *   (mmap 은 핫 리로드 중 파일이 잘리거나 덮어써지면 SIGBUS 로 JVM 이 죽을 수 있어 쓰지 않음)
+ * - 바이트 단위로 필드 경계를 찾고 위도/경도/타입 코드는 String 없이 바로 변환
+ *   (String 은 카탈로그에 남는 id/이름/주소/운영기관/상태 필드에만 생성, 8번째 이후 컬럼은 건너뜀)
+ * - 청크 결과는 파일 순서대로 빌더에 넣으므로 같은 ID 병합 규칙은 순차 파싱과 동일
+ */
+final class StationCsvLoader {
+
+    // 이보다 작은 파일은 나누지 않음
+    private static final int MIN_CHUNK_BYTES = 256 * 1024;
+    private static final int FIELD_COUNT = 8;
+
+    private StationCsvLoader() {
+    }
+
+    // 파일 시스템 경로에서 로드
+    static StationCatalog load(Path path, long version) throws IOException {
+        return parse(read(path), version);
+    }
+
+    // 클래스패스 리소스 등 스트림에서 로드 (힙 버퍼)
+    static StationCatalog load(InputStream inputStream, long version) throws IOException {
+        return parse(read(inputStream), version);
+    }
+
+    // CSV 원본 바이트 (힙 버퍼에 복사하므로 읽은 뒤 파일이 바뀌어도 안전)
+    // 읽는 도중 파일이 줄어들면 EOF 까지만 사용 (쓰기가 끝나면 감시자가 다시 리로드함)
+    static ByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("❌ CSV 파일이 너무 큽니다: " + size + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 가득 차거나 EOF 까지 반복
+            }
+            return buffer.flip();
+        }
+    }
+
+    static ByteBuffer read(InputStream inputStream) throws IOException {
+        return ByteBuffer.wrap(inputStream.readAllBytes());
+    }
+
+    static StationCatalog parse(ByteBuffer buffer, long version) {
+        int limit = buffer.limit();
+
+        // 헤더 줄 건너뛰기 (UTF-8 BOM 포함)
+        int start = skipLine(buffer, 0, limit);
+
+        // 줄 경계 기준으로 청크 나누기
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+        int chunks = Math.max(1, Math.min(parallelism, (limit - start) / MIN_CHUNK_BYTES));
+        int[] bounds = new int[chunks + 1];
+        bounds[0] = start;
+        for (int c = 1; c < chunks; c++) {
+            int target = start + (int) ((long) (limit - start) * c / chunks);
+            bounds[c] = Math.max(bounds[c - 1], skipLine(buffer, target, limit));
+        }
+        bounds[chunks] = limit;
+
+        List<CompletableFuture<Rows>> futures = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int from = bounds[c], to = bounds[c + 1];
+            futures.add(chunks == 1
+                    ? CompletableFuture.completedFuture(parseChunk(buffer, from, to))
+                    : CompletableFuture.supplyAsync(() -> parseChunk(buffer, from, to)));
+        }
+
+        // 파일 순서대로 병합
+        StationCatalog.Builder builder = new StationCatalog.Builder(version);
+        for (CompletableFuture<Rows> future : futures) {
+            future.join().addTo(builder);
+        }
+        return builder.build();
+    }
+
+    // ⚙️ 타입 코드 변환
+    static String chargerTypeName(String typeCode) {
+        return switch (typeCode) {
+            case "01" -> "DC차데모";
+            case "02" -> "AC완속";
+            case "03" -> "DC콤보";
+            case "04" -> "DC차데모+AC3상";
+            case "05" -> "DC차데모+DC콤보";
+            case "06" -> "DC차데모+DC콤보+AC3상";
+            default -> "기타";
+        };
+    }
+
+    // ✅ CSV 상태 표기 정규화 ("2(3)" → "2/3 충전가능", "1/2" → "1/2 충전가능", "3" → "3/3 충전가능")
+    static String normalizeStatus(String raw) {
+        int paren = raw.indexOf('(');
+        if (paren > 0 && raw.endsWith(")") && isDigits(raw, 0, paren) && isDigits(raw, paren + 1, raw.length() - 1)) {
+            return raw.substring(0, paren) + "/" + raw.substring(paren + 1, raw.length() - 1) + " 충전가능";
+        }
+        int slash = raw.indexOf('/');
+        if (slash > 0 && isDigits(raw, 0, slash) && isDigits(raw, slash + 1, raw.length())) {
+            return raw + " 충전가능";
+        }
+        if (isDigits(raw, 0, raw.length())) {
+            return raw + "/" + raw + " 충전가능";
+        }
+        return raw;
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        if (from >= to) return false;
+        for (int i = from; i < to; i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') return false;
+        }
+        return true;
+    }
+
+    private static Rows parseChunk(ByteBuffer buffer, int from, int to) {
+        Rows rows = new Rows();
+        int[] fieldStart = new int[FIELD_COUNT];
+        int[] fieldEnd = new int[FIELD_COUNT];
+        byte[] scratch = new byte[256];
+
+        int pos = from;
+        while (pos < to) {
+            int lineEnd = pos;
+            while (lineEnd < to && buffer.get(lineEnd) != '\n') lineEnd++;
+            int next = lineEnd + 1;
+
+            // 필드 경계 찾기 (앞 8개만)
+            int fields = 0;
+            int fieldFrom = pos;
+            for (int i = pos; i <= lineEnd && fields < FIELD_COUNT; i++) {
+                if (i == lineEnd || buffer.get(i) == ',') {
+                    fieldStart[fields] = fieldFrom;
+                    fieldEnd[fields] = i;
+                    fields++;
+                    fieldFrom = i + 1;
+                }
+            }
+
+            pos = next;
+            if (fields < FIELD_COUNT) continue;
+
+            double lat = parseDouble(buffer, fieldStart[4], fieldEnd[4]);
+            double lng = parseDouble(buffer, fieldStart[5], fieldEnd[5]);
+            if (Double.isNaN(lat) || Double.isNaN(lng)) continue;
+
+            if (scratch.length < lineEnd - fieldStart[0]) scratch = new byte[(lineEnd - fieldStart[0]) * 2];
+            rows.add(
+                    text(buffer, fieldStart[0], fieldEnd[0], scratch),
+                    text(buffer, fieldStart[1], fieldEnd[1], scratch),
+                    text(buffer, fieldStart[2], fieldEnd[2], scratch),
+                    text(buffer, fieldStart[3], fieldEnd[3], scratch),
+                    lat, lng,
+                    chargerTypeName(buffer, fieldStart[6], fieldEnd[6]),
+                    normalizeStatus(text(buffer, fieldStart[7], fieldEnd[7], scratch)));
+        }
+        return rows;
+    }
+
+    // 앞뒤 공백 제거 후 UTF-8 디코딩
+    private static String text(ByteBuffer buffer, int from, int to, byte[] scratch) {
+        while (from < to && isSpace(buffer.get(from))) from++;
+        while (to > from && isSpace(buffer.get(to - 1))) to--;
+        int length = to - from;
+        if (length == 0) return "";
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // 타입 코드 (두 자리 숫자) → 이름, String 생성 없음
+    private static String chargerTypeName(ByteBuffer buffer, int from, int to) {
+        while (from < to && isSpace(buffer.get(from))) from++;
+        while (to > from && isSpace(buffer.get(to - 1))) to--;
+        if (to - from != 2 || buffer.get(from) != '0') return "기타";
+        return switch (buffer.get(from + 1)) {
+            case '1' -> "DC차데모";
+            case '2' -> "AC완속";
+            case '3' -> "DC콤보";
+            case '4' -> "DC차데모+AC3상";
+            case '5' -> "DC차데모+DC콤보";
+            case '6' -> "DC차데모+DC콤보+AC3상";
+            default -> "기타";
+        };
+    }
+
+    // 십진수 파싱 (지수 표기, 16자리 이상 등은 Double.parseDouble 로 위임), 실패 시 NaN
+    private static double parseDouble(ByteBuffer buffer, int from, int to) {
+        while (from < to && isSpace(buffer.get(from))) from++;
+        while (to > from && isSpace(buffer.get(to - 1))) to--;
+        if (from == to) return Double.NaN;
+
+        int i = from;
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                // 15자리까지는 mantissa / 10^scale 이 정확히 반올림됨
+                if (digits == 15) return slowParse(buffer, from, to);
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (dot) scale++;
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                return slowParse(buffer, from, to);
+            }
+        }
+        if (digits == 0) return Double.NaN;
+
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private static double slowParse(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes, 0, bytes.length);
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // String.trim() 과 같은 기준 (UTF-8 멀티바이트는 음수이므로 제외됨)
+    private static boolean isSpace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    // pos 가 속한 줄의 다음 줄 시작 위치
+    private static int skipLine(ByteBuffer buffer, int pos, int limit) {
+        if (pos > 0 && buffer.get(pos - 1) == '\n') return pos;
+        while (pos < limit && buffer.get(pos) != '\n') pos++;
+        return Math.min(limit, pos + 1);
+    }
+
+    // 청크 파싱 결과 (행 단위)
+    private static final class Rows {
+        private String[] strings = new String[6 * 1024];
+        private double[] coords = new double[2 * 1024];
+        private int size;
+
+        void add(String id, String name, String addr, String operator,
+                 double lat, double lng, String chargerType, String status) {
+            if (size * 6 == strings.length) {
+                strings = Arrays.copyOf(strings, strings.length * 2);
+                coords = Arrays.copyOf(coords, coords.length * 2);
+            }
+            int s = size * 6;
+            strings[s] = id;
+            strings[s + 1] = name;
+            strings[s + 2] = addr;
+            strings[s + 3] = operator;
+            strings[s + 4] = chargerType;
+            strings[s + 5] = status;
+            coords[size * 2] = lat;
+            coords[size * 2 + 1] = lng;
+            size++;
+        }
+
+        void addTo(StationCatalog.Builder builder) {
+            for (int r = 0; r < size; r++) {
+                int s = r * 6;
+                builder.add(strings[s], strings[s + 1], strings[s + 2], strings[s + 3],
+                        coords[r * 2], coords[r * 2 + 1], strings[s + 4], strings[s + 5]);
+            }
+        }
+    }
+}
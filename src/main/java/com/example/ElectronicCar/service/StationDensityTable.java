@@ -0,0 +1,240 @@
+package com.example.ElectronicCar.service;
+
+import java.util.Arrays;
+
+/**
+ * 전국 고정 해상도 격자의 누적합 테이블 (summed-area table)
+ * - 카탈로그 범위를 RESOLUTION(도) 간격 격자로 나누고 count / sumLat / sumLng 의 2차원 누적합을 저장
+ * - 임의의 사각형 합계 = 누적합 배열 4칸 조회 → 클러스터 셀 하나당 O(1), 충전소 수와 무관
+ * - 셀 경계는 격자선에 맞춰 반올림되므로, 요청 셀이 격자 몇 칸 이상 넓을 때(넓은 화면)만 사용
+ * - 카탈로그 증분 변경(update)은 누적합을 다시 계산하지 않고 (좌표, ±1) 보정 목록으로 더함
+ *   → 보정이 MAX_ADJUSTMENTS 개를 넘으면 전체 재빌드
+ */
+final class StationDensityTable {
+
+    // 격자 해상도 (약 1km)
+    private static final double RESOLUTION = 0.01;
+    private static final int MAX_AXIS_CELLS = 1024;
+
+    // 요청 셀 한 변이 격자 몇 칸 이상일 때 사용할지 (경계 반올림 오차 ≤ 1/MIN_SPAN)
+    private static final int MIN_SPAN = 8;
+
+    private static final int MAX_ADJUSTMENTS = 4096;
+
+    private final StationCatalog catalog;
+    private final double originLat;
+    private final double originLng;
+    private final double latStep;
+    private final double lngStep;
+    private final int rows;
+    private final int cols;
+    private final int stride;
+
+    // (rows + 1) x (cols + 1), [r][c] = r행 미만 & c열 미만 격자의 합
+    private final int[] counts;
+    private final double[] sumLat;
+    private final double[] sumLng;
+
+    // 누적합 빌드 이후 변경분 (삭제/이전 위치 = -1, 추가/새 위치 = +1)
+    private final int adjustmentCount;
+    private final double[] adjustmentLats;
+    private final double[] adjustmentLngs;
+    private final int[] adjustmentWeights;
+
+    StationDensityTable(StationCatalog catalog) {
+        this.catalog = catalog;
+        int n = catalog.size();
+
+        double minLat = Double.POSITIVE_INFINITY, minLng = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minLat = Math.min(minLat, catalog.lat(i));
+            minLng = Math.min(minLng, catalog.lng(i));
+            maxLat = Math.max(maxLat, catalog.lat(i));
+            maxLng = Math.max(maxLng, catalog.lng(i));
+        }
+        if (n == 0) {
+            minLat = maxLat = minLng = maxLng = 0;
+        }
+
+        this.originLat = Math.floor(minLat / RESOLUTION) * RESOLUTION;
+        this.originLng = Math.floor(minLng / RESOLUTION) * RESOLUTION;
+        this.rows = Math.max(1, Math.min(MAX_AXIS_CELLS, (int) Math.ceil((maxLat - originLat) / RESOLUTION) + 1));
+        this.cols = Math.max(1, Math.min(MAX_AXIS_CELLS, (int) Math.ceil((maxLng - originLng) / RESOLUTION) + 1));
+        // 범위가 너무 넓으면 칸 크기를 늘려 MAX_AXIS_CELLS 안에 맞춤
+        this.latStep = Math.max(RESOLUTION, (maxLat - originLat) / (rows - 0.5));
+        this.lngStep = Math.max(RESOLUTION, (maxLng - originLng) / (cols - 0.5));
+        this.stride = cols + 1;
+
+        int cells = (rows + 1) * stride;
+        this.counts = new int[cells];
+        this.sumLat = new double[cells];
+        this.sumLng = new double[cells];
+        this.adjustmentCount = 0;
+        this.adjustmentLats = new double[0];
+        this.adjustmentLngs = new double[0];
+        this.adjustmentWeights = new int[0];
+
+        // 1) 격자별 합계 ([r + 1][c + 1] 위치에 기록)
+        for (int i = 0; i < n; i++) {
+            double lat = catalog.lat(i), lng = catalog.lng(i);
+            int pos = (row(lat) + 1) * stride + (col(lng) + 1);
+            counts[pos]++;
+            sumLat[pos] += lat;
+            sumLng[pos] += lng;
+        }
+
+        // 2) 2차원 누적합
+        for (int r = 1; r <= rows; r++) {
+            int rowCount = 0;
+            double rowLat = 0, rowLng = 0;
+            for (int c = 1; c <= cols; c++) {
+                int pos = r * stride + c;
+                rowCount += counts[pos];
+                rowLat += sumLat[pos];
+                rowLng += sumLng[pos];
+                counts[pos] = counts[pos - stride] + rowCount;
+                sumLat[pos] = sumLat[pos - stride] + rowLat;
+                sumLng[pos] = sumLng[pos - stride] + rowLng;
+            }
+        }
+    }
+
+    private StationDensityTable(StationDensityTable table, StationCatalog catalog, int adjustmentCount,
+                                double[] adjustmentLats, double[] adjustmentLngs, int[] adjustmentWeights) {
+        this.catalog = catalog;
+        this.originLat = table.originLat;
+        this.originLng = table.originLng;
+        this.latStep = table.latStep;
+        this.lngStep = table.lngStep;
+        this.rows = table.rows;
+        this.cols = table.cols;
+        this.stride = table.stride;
+        this.counts = table.counts;
+        this.sumLat = table.sumLat;
+        this.sumLng = table.sumLng;
+        this.adjustmentCount = adjustmentCount;
+        this.adjustmentLats = adjustmentLats;
+        this.adjustmentLngs = adjustmentLngs;
+        this.adjustmentWeights = adjustmentWeights;
+    }
+
+    StationCatalog catalog() { return catalog; }
+
+    // 다음 카탈로그 버전용 테이블 (누적합은 공유, 바뀐 충전소만 보정 목록에 추가)
+    StationDensityTable update(StationCatalogDelta delta) {
+        StationCatalog previous = delta.previous();
+        StationCatalog next = delta.current();
+        int added = delta.stale().length + delta.changed().length;
+        if (previous != catalog || adjustmentCount + added > MAX_ADJUSTMENTS) {
+            return new StationDensityTable(next);
+        }
+
+        int count = adjustmentCount;
+        double[] lats = Arrays.copyOf(adjustmentLats, count + added);
+        double[] lngs = Arrays.copyOf(adjustmentLngs, count + added);
+        int[] weights = Arrays.copyOf(adjustmentWeights, count + added);
+        for (int ordinal : delta.stale()) {
+            lats[count] = previous.lat(ordinal);
+            lngs[count] = previous.lng(ordinal);
+            weights[count++] = -1;
+        }
+        for (int ordinal : delta.changed()) {
+            lats[count] = next.lat(ordinal);
+            lngs[count] = next.lng(ordinal);
+            weights[count++] = 1;
+        }
+        return new StationDensityTable(this, next, count, lats, lngs, weights);
+    }
+
+    // 요청 셀 크기가 격자보다 충분히 큰지 (작으면 경계 오차가 커지므로 정확한 경로 사용)
+    boolean supports(double latInterval, double lngInterval) {
+        return latInterval >= MIN_SPAN * latStep && lngInterval >= MIN_SPAN * lngStep;
+    }
+
+    // 범위 내 충전소 수 추정 (격자선 바깥쪽으로 넓혀서 계산하므로 실제보다 작지 않음)
+    int estimateCount(double minLat, double minLng, double maxLat, double maxLng) {
+        int r0 = clamp((int) Math.floor((minLat - originLat) / latStep), rows) * stride;
+        int r1 = clamp((int) Math.ceil((maxLat - originLat) / latStep), rows) * stride;
+        int c0 = clamp((int) Math.floor((minLng - originLng) / lngStep), cols);
+        int c1 = clamp((int) Math.ceil((maxLng - originLng) / lngStep), cols);
+        int count = counts[r1 + c1] - counts[r0 + c1] - counts[r1 + c0] + counts[r0 + c0];
+
+        // 보정: 누적합과 같은 격자 칸 기준으로 포함 여부 판단
+        for (int k = 0; k < adjustmentCount; k++) {
+            int r = row(adjustmentLats[k]) * stride, c = col(adjustmentLngs[k]);
+            if (r >= r0 && r < r1 && c >= c0 && c < c1) count += adjustmentWeights[k];
+        }
+        return count;
+    }
+
+    // 범위를 latDivisions x lngDivisions 셀로 나눠 셀마다 4칸 조회로 합계 계산
+    GridClusterAggregator.Grid aggregate(double minLat, double minLng, double maxLat, double maxLng,
+                                         int latDivisions, int lngDivisions) {
+        GridClusterAggregator.Grid grid = new GridClusterAggregator.Grid(latDivisions, lngDivisions);
+        double latInterval = (maxLat - minLat) / latDivisions;
+        double lngInterval = (maxLng - minLng) / lngDivisions;
+
+        // 셀 경계 → 격자선 인덱스 (반올림)
+        int[] rowLines = new int[latDivisions + 1];
+        for (int k = 0; k <= latDivisions; k++) {
+            rowLines[k] = clamp((int) Math.round((minLat + k * latInterval - originLat) / latStep), rows);
+        }
+        int[] colLines = new int[lngDivisions + 1];
+        for (int k = 0; k <= lngDivisions; k++) {
+            colLines[k] = clamp((int) Math.round((minLng + k * lngInterval - originLng) / lngStep), cols);
+        }
+
+        for (int li = 0; li < latDivisions; li++) {
+            int r0 = rowLines[li] * stride, r1 = rowLines[li + 1] * stride;
+            if (r0 == r1) continue;
+            for (int gi = 0; gi < lngDivisions; gi++) {
+                int c0 = colLines[gi], c1 = colLines[gi + 1];
+                if (c0 == c1) continue;
+
+                int cell = li * lngDivisions + gi;
+                grid.counts[cell] = counts[r1 + c1] - counts[r0 + c1] - counts[r1 + c0] + counts[r0 + c0];
+                grid.sumLat[cell] = sumLat[r1 + c1] - sumLat[r0 + c1] - sumLat[r1 + c0] + sumLat[r0 + c0];
+                grid.sumLng[cell] = sumLng[r1 + c1] - sumLng[r0 + c1] - sumLng[r1 + c0] + sumLng[r0 + c0];
+            }
+        }
+
+        // 보정: 격자 칸이 속한 요청 셀에 더하기
+        for (int k = 0; k < adjustmentCount; k++) {
+            int li = cellOf(rowLines, row(adjustmentLats[k]));
+            int gi = cellOf(colLines, col(adjustmentLngs[k]));
+            if (li < 0 || gi < 0) continue;
+            int cell = li * lngDivisions + gi;
+            int weight = adjustmentWeights[k];
+            grid.counts[cell] += weight;
+            grid.sumLat[cell] += weight * adjustmentLats[k];
+            grid.sumLng[cell] += weight * adjustmentLngs[k];
+        }
+        return grid;
+    }
+
+    // 좌표가 속한 격자 행/열
+    private int row(double lat) {
+        return clamp((int) ((lat - originLat) / latStep), rows - 1);
+    }
+
+    private int col(double lng) {
+        return clamp((int) ((lng - originLng) / lngStep), cols - 1);
+    }
+
+    // 격자 행/열 index 가 lines[k] <= index < lines[k + 1] 인 k (범위 밖이면 -1)
+    private static int cellOf(int[] lines, int index) {
+        if (index < lines[0] || index >= lines[lines.length - 1]) return -1;
+        int lo = 0, hi = lines.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (lines[mid] <= index) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+}
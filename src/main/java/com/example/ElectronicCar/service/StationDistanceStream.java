@@ -0,0 +1,51 @@
+package com.example.ElectronicCar.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 기준 좌표에서 가까운 순으로 충전소를 NDJSON (한 줄에 충전소 1개, /api/ev/all 과 같은 객체)으로 바로 씀
+ * - 공간 인덱스를 가까운 노드부터 펼치면서(best-first) 나오는 순서대로 씀 → 전체 정렬도, 전체 목록도 만들지 않음
+ * - 처음 FIRST_FLUSH 개를 쓰면 바로 flush (첫 화면 마커가 전체 직렬화를 기다리지 않도록), 이후 FLUSH_INTERVAL 개마다
+ * - 클라이언트가 연결을 끊으면 쓰기 예외로 탐색도 바로 중단
+ */
+final class StationDistanceStream {
+
+    static final int FIRST_FLUSH = 200;
+    static final int FLUSH_INTERVAL = 1000;
+
+    private static final Gson GSON = new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+
+    private StationDistanceStream() {
+    }
+
+    // 쓴 충전소 수 반환 (limit 개까지)
+    static int write(StationSpatialIndex index, StationStatusSnapshot snapshot, double lat, double lng,
+                     String[] keys, int limit, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        int[] written = {0};
+        IOException[] failure = {null};
+
+        index.nearest(lat, lng, Double.POSITIVE_INFINITY, (ordinal, distance) -> {
+            try {
+                GSON.toJson(StationViews.station(snapshot, ordinal, keys), writer);
+                writer.write('\n');
+                int count = ++written[0];
+                if (count == FIRST_FLUSH || count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+                return count < limit;
+            } catch (IOException e) {
+                failure[0] = e;
+                return false;
+            }
+        });
+
+        if (failure[0] != null) throw failure[0];
+        writer.flush();
+        return written[0];
+    }
+}
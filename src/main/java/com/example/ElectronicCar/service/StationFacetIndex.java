@@ -0,0 +1,171 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+
+/**
+ * 필터 항목별 충전소 비트맵 (카탈로그 버전마다 한 번 빌드)
+ * - chargerType: "DC차데모+DC콤보" 같은 합쳐진 타입을 나눠 타입마다 비트맵 1개
+ * - operator: 운영기관 사전 코드마다 비트맵 1개
+ * - speed: 급속 / 완속 (타입 기준, 둘 다 있는 충전소는 양쪽에 포함)
+ * - available: 실시간 상태에 따라 바뀌므로 상태 스냅샷마다 따로 빌드 (availability)
+ * - 필터 = 항목 안 OR, 항목끼리 AND / 패싯 개수 = 다른 항목 필터만 적용한 범위와 값 비트맵의 교집합 개수
+ */
+final class StationFacetIndex {
+
+    // 화면 필터 값 → 실제 타입 (static/js/utils.js 의 CHARGER_TYPE_ALIAS 와 같은 규칙)
+    private static final Map<String, List<String>> CHARGER_TYPE_ALIASES = Map.of(
+            "AC완속", List.of("AC완속", "AC3상"),
+            "AC3상", List.of("AC3상", "AC완속"),
+            "DC콤보", List.of("DC콤보", "DC콤보(완속)"),
+            "DC콤보(완속)", List.of("DC콤보(완속)", "DC콤보")
+    );
+
+    private static final Set<String> SLOW_TYPES = Set.of("AC완속", "AC3상");
+    private static final Set<String> FAST_TYPES = Set.of("DC콤보", "DC차데모", "DC콤보(완속)");
+
+    private final StationCatalog catalog;
+    private final Map<String, Map<String, StationBitmap>> dimensions = new LinkedHashMap<>();
+
+    StationFacetIndex(StationCatalog catalog) {
+        this.catalog = catalog;
+        int n = catalog.size();
+
+        // 타입 사전 코드 → 나눈 타입 목록 (중복 제거, 사전은 수십 개라 미리 계산)
+        String[][] typeParts = new String[catalog.chargerTypeCount()][];
+        for (int code = 0; code < typeParts.length; code++) {
+            typeParts[code] = Arrays.stream(catalog.chargerTypeName(code).split("\\+"))
+                    .map(String::trim).filter(type -> !type.isEmpty()).distinct().toArray(String[]::new);
+        }
+
+        Map<String, StationBitmap.Builder> types = new TreeMap<>();
+        StationBitmap.Builder[] operators = new StationBitmap.Builder[catalog.operatorCount()];
+        StationBitmap.Builder fast = new StationBitmap.Builder();
+        StationBitmap.Builder slow = new StationBitmap.Builder();
+
+        for (int i = 0; i < n; i++) {
+            boolean isFast = false, isSlow = false;
+            for (String type : typeParts[catalog.chargerTypeCode(i)]) {
+                types.computeIfAbsent(type, k -> new StationBitmap.Builder()).add(i);
+                isFast |= FAST_TYPES.contains(type);
+                isSlow |= SLOW_TYPES.contains(type);
+            }
+            if (isFast) fast.add(i);
+            if (isSlow) slow.add(i);
+
+            int operator = catalog.operatorCode(i);
+            if (operators[operator] == null) operators[operator] = new StationBitmap.Builder();
+            operators[operator].add(i);
+        }
+
+        Map<String, StationBitmap> typeBitmaps = new LinkedHashMap<>();
+        types.forEach((type, builder) -> typeBitmaps.put(type, builder.build()));
+        dimensions.put(StationFilter.CHARGER_TYPE, typeBitmaps);
+
+        Map<String, StationBitmap> operatorBitmaps = new TreeMap<>();
+        for (int code = 0; code < operators.length; code++) {
+            if (operators[code] == null) continue;
+            String name = catalog.operatorName(code);
+            StationBitmap bitmap = operators[code].build();
+            operatorBitmaps.merge(name.isEmpty() ? "정보없음" : name, bitmap, StationBitmap::or);
+        }
+        dimensions.put(StationFilter.OPERATOR, new LinkedHashMap<>(operatorBitmaps));
+
+        Map<String, StationBitmap> speedBitmaps = new LinkedHashMap<>();
+        speedBitmaps.put("급속", fast.build());
+        speedBitmaps.put("완속", slow.build());
+        dimensions.put(StationFilter.SPEED, speedBitmaps);
+    }
+
+    StationCatalog catalog() { return catalog; }
+
+    // 상태 스냅샷 기준 충전가능 여부 비트맵 (충전가능 또는 정보없음 충전기가 1대 이상이면 true - 화면 필터와 같은 기준)
+    Availability availability(StationStatusSnapshot snapshot) {
+        StationBitmap.Builder available = new StationBitmap.Builder();
+        StationBitmap.Builder unavailable = new StationBitmap.Builder();
+        for (int i = 0; i < snapshot.catalog().size(); i++) {
+            if (snapshot.total(i) - snapshot.charging(i) - snapshot.check(i) > 0) available.add(i);
+            else unavailable.add(i);
+        }
+        Map<String, StationBitmap> bitmaps = new LinkedHashMap<>();
+        bitmaps.put("true", available.build());
+        bitmaps.put("false", unavailable.build());
+        return new Availability(snapshot, bitmaps);
+    }
+
+    static final class Availability {
+        private final StationStatusSnapshot snapshot;
+        private final Map<String, StationBitmap> bitmaps;
+
+        private Availability(StationStatusSnapshot snapshot, Map<String, StationBitmap> bitmaps) {
+            this.snapshot = snapshot;
+            this.bitmaps = bitmaps;
+        }
+
+        StationStatusSnapshot snapshot() { return snapshot; }
+    }
+
+    // 필터에 맞는 충전소 전체 (필터가 없으면 null = 전체)
+    StationBitmap match(StationFilter filter, Availability availability) {
+        return match(filter, availability, null);
+    }
+
+    // excluded 항목을 뺀 나머지 필터 결과 (패싯 계산용)
+    private StationBitmap match(StationFilter filter, Availability availability, String excluded) {
+        StationBitmap result = null;
+        for (Map.Entry<String, Set<String>> selection : filter.selections().entrySet()) {
+            if (selection.getKey().equals(excluded)) continue;
+            Map<String, StationBitmap> bitmaps = bitmaps(selection.getKey(), availability);
+
+            List<StationBitmap> selected = new ArrayList<>();
+            for (String value : selection.getValue()) {
+                for (String resolved : resolve(selection.getKey(), value)) {
+                    StationBitmap bitmap = bitmaps.get(resolved);
+                    if (bitmap != null) selected.add(bitmap);
+                }
+            }
+            StationBitmap union = StationBitmap.orAll(selected);
+            result = result == null ? union : result.and(union);
+        }
+        return result;
+    }
+
+    // scope 안에서 필터에 맞는 충전소
+    StationBitmap filter(StationBitmap scope, StationFilter filter, Availability availability) {
+        StationBitmap matched = match(filter, availability);
+        return matched == null ? scope : scope.and(matched);
+    }
+
+    // 항목별 값마다 개수 (다른 항목의 필터만 적용 - 같은 항목의 다른 값을 골랐을 때 몇 개가 될지 보여줌)
+    Map<String, Map<String, Integer>> facets(StationBitmap scope, StationFilter filter, Availability availability) {
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(dimensions.keySet());
+        if (availability != null) names.add(StationFilter.AVAILABLE);
+
+        for (String dimension : names) {
+            StationBitmap others = match(filter, availability, dimension);
+            StationBitmap base = others == null ? scope : scope.and(others);
+
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (Map.Entry<String, StationBitmap> value : bitmaps(dimension, availability).entrySet()) {
+                int count = base.andCardinality(value.getValue());
+                if (count > 0) counts.put(value.getKey(), count);
+            }
+            facets.put(dimension, counts);
+        }
+        return facets;
+    }
+
+    private Map<String, StationBitmap> bitmaps(String dimension, Availability availability) {
+        if (dimension.equals(StationFilter.AVAILABLE)) {
+            return availability == null ? Map.of() : availability.bitmaps;
+        }
+        return dimensions.getOrDefault(dimension, Map.of());
+    }
+
+    private static List<String> resolve(String dimension, String value) {
+        if (dimension.equals(StationFilter.CHARGER_TYPE)) {
+            return CHARGER_TYPE_ALIASES.getOrDefault(value, List.of(value));
+        }
+        return List.of(value);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+
+/**
+ * 충전소 목록/클러스터 조회 필터 (불변)
+ * - 같은 항목 안의 값들은 OR, 항목끼리는 AND (예: 타입 DC콤보 또는 DC차데모 이면서 충전가능)
+ * - 값이 비어 있거나 "전체"만 있는 항목은 필터하지 않음
+ */
+public final class StationFilter {
+
+    public static final StationFilter NONE = new StationFilter(Map.of());
+
+    // 패싯 항목 이름 (응답의 facets 키와 같음)
+    static final String CHARGER_TYPE = "chargerType";
+    static final String OPERATOR = "operator";
+    static final String SPEED = "speed";
+    static final String AVAILABLE = "available";
+
+    private final Map<String, Set<String>> selections;
+
+    private StationFilter(Map<String, Set<String>> selections) {
+        this.selections = selections;
+    }
+
+    public static StationFilter of(List<String> chargerTypes, List<String> operators,
+                                   List<String> speeds, Boolean available) {
+        Map<String, Set<String>> selections = new LinkedHashMap<>();
+        put(selections, CHARGER_TYPE, chargerTypes);
+        put(selections, OPERATOR, operators);
+        put(selections, SPEED, speeds);
+        if (available != null) {
+            selections.put(AVAILABLE, Set.of(String.valueOf(available)));
+        }
+        return selections.isEmpty() ? NONE : new StationFilter(Collections.unmodifiableMap(selections));
+    }
+
+    private static void put(Map<String, Set<String>> selections, String dimension, List<String> values) {
+        if (values == null) return;
+        Set<String> set = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value == null || value.isBlank()) continue;
+            if (value.trim().equals("전체")) return;
+            set.add(value.trim());
+        }
+        if (!set.isEmpty()) selections.put(dimension, Collections.unmodifiableSet(set));
+    }
+
+    public boolean isEmpty() {
+        return selections.isEmpty();
+    }
+
+    Map<String, Set<String>> selections() {
+        return selections;
+    }
+
+    // 충전가능(available=true) 조건을 더한 필터
+    StationFilter requireAvailable() {
+        Map<String, Set<String>> next = new LinkedHashMap<>(selections);
+        next.put(AVAILABLE, Set.of("true"));
+        return new StationFilter(Collections.unmodifiableMap(next));
+    }
+
+    boolean needsAvailability() {
+        return selections.containsKey(AVAILABLE);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ElectronicCar.service;
+
+/**
+ * /api/ev/all 응답 형식 (Accept 헤더로 선택, 기본은 기존 JSON 배열)
+ * - JSON: 충전소 객체 배열 (기존 형식)
+ * - COLUMNAR_JSON: 컬럼 배열 + 사전 (StationColumnarPayload 참고)
+ * - COLUMNAR_BINARY: 같은 컬럼 구조의 little-endian 바이너리
+ */
+public enum StationPayloadFormat {
+
+    JSON("application/json", ""),
+    COLUMNAR_JSON("application/vnd.evhub.columnar+json", "-col"),
+    COLUMNAR_BINARY("application/vnd.evhub.columnar", "-bin");
+
+    private final String mediaType;
+    private final String etagSuffix;
+
+    StationPayloadFormat(String mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+
+    public String mediaType() { return mediaType; }
+
+    String etagSuffix() { return etagSuffix; }
+
+    // Accept 헤더에서 q 값이 가장 큰 형식 (같으면 먼저 적힌 것, 아는 형식이 없으면 JSON)
+    public static StationPayloadFormat negotiate(String accept) {
+        if (accept == null) return JSON;
+        StationPayloadFormat best = JSON;
+        double bestQuality = 0;
+        for (String part : accept.split(",")) {
+            String[] params = part.trim().split(";");
+            String type = params[0].trim().toLowerCase();
+            StationPayloadFormat format = null;
+            for (StationPayloadFormat candidate : values()) {
+                if (candidate.mediaType.equals(type)) format = candidate;
+            }
+            if (format == null) continue;
+
+            double quality = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (quality > bestQuality) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,491 @@
+package com.example.ElectronicCar.service;
+
+import javax.xml.stream.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 전국 실시간 충전기 상태 수집 (getChargerInfo, 시도 코드(zcode)별 전체 페이지)
+ * - 페이지를 가상 스레드에서 동시에 요청 (동시 요청 수는 parallelism 개로 제한), 응답은 StAX 로 바로 읽음 (DOM 없음)
+ * - 지역별 페이지 수는 직전 수집 결과로 알고 있으므로 처음부터 한꺼번에 요청, 처음이거나 늘었으면 totalCount 를 보고 추가 요청
+ * - 요청 예산: 하루 요청 수를 토큰 버킷으로 나눠 씀, 모자라면 지역 단위로 돌아가며 일부 지역만 새로 받음
+ * - 제한 시간 안에 끝까지 못 받은 지역(예산/시간 초과/오류)은 이전 결과 위에 이번에 받은 충전기만 덮어씀
+ * - 결과는 지역별 결과를 합친 하나의 맵 (새로 받지 않은 지역은 같은 목록 객체 그대로 → 스냅샷 비교가 바로 건너뜀)
+ */
+final class StationRealtimeFetcher {
+
+    // 페이지 1개 요청 (XML 응답 본문)
+    interface PageSource {
+        InputStream open(String zcode, int pageNo, int numOfRows) throws IOException;
+    }
+
+    // 응답 item 1개 (충전기 1대)
+    record Item(String statId, String chgerId, String chgerType, String stat, boolean deleted,
+                String name, String addr, String operator, double lat, double lng) {
+    }
+
+    record Page(int totalCount, List<Item> items) {
+    }
+
+    // 수집 1회 결과 (statuses: 전국 충전소 id → 충전기 상세, batch: 이번에 받은 충전기로 만든 카탈로그 변경분,
+    // pages: 이번에 받은 페이지 수 - 0 이면 이번 수집은 실패, statuses 는 이전 결과 그대로)
+    record Result(Map<String, List<Map<String, String>>> statuses, StationCatalogBatch batch, int pages) {
+    }
+
+    private final PageSource source;
+    private final List<String> zcodes;
+    private final int pageSize;
+    private final int parallelism;
+    private final long timeoutMillis;
+    private final RequestBudget budget;
+
+    // 지역별 마지막 결과 + 페이지 수 (refresh 안에서만 접근)
+    private final Map<String, Map<String, List<Map<String, String>>>> zones = new HashMap<>();
+    private final Map<String, Integer> zonePages = new HashMap<>();
+    private int nextZone = 0;   // 예산이 모자랄 때 다음 수집을 시작할 지역 (앞쪽 지역만 계속 받는 것 방지)
+
+    StationRealtimeFetcher(PageSource source, List<String> zcodes, int pageSize, int parallelism,
+                           long timeoutMillis, int dailyRequestBudget) {
+        this.source = source;
+        this.zcodes = List.copyOf(zcodes);
+        this.pageSize = pageSize;
+        this.parallelism = parallelism;
+        this.timeoutMillis = timeoutMillis;
+        this.budget = new RequestBudget(dailyRequestBudget);
+    }
+
+    // 전국 수집 1회 (동시에 한 번만 실행)
+    synchronized Result refresh() {
+        long start = System.currentTimeMillis();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        // 예산 안에서 지역 단위로 요청 계획 (직전 페이지 수만큼, 처음이면 1페이지)
+        List<ZoneFetch> planned = new ArrayList<>();
+        for (int n = 0; n < zcodes.size(); n++) {
+            String zcode = zcodes.get((nextZone + n) % zcodes.size());
+            int pages = zonePages.getOrDefault(zcode, 1);
+            if (!budget.tryAcquire(pages)) break;
+            planned.add(new ZoneFetch(zcode, pageSize, pages));
+        }
+        int skipped = zcodes.size() - planned.size();
+        nextZone = (nextZone + planned.size()) % Math.max(1, zcodes.size());
+
+        Fetch fetch = new Fetch(deadline);
+        try {
+            for (ZoneFetch zone : planned) {
+                for (int pageNo = 1; pageNo <= zone.scheduled; pageNo++) {
+                    fetch.submit(zone, pageNo);
+                }
+            }
+            fetch.await();
+        } finally {
+            fetch.close();
+        }
+
+        // 지역별 결과 반영
+        StationCatalogBatch batch = new StationCatalogBatch();
+        int complete = 0, partial = 0, received = 0;
+        for (ZoneFetch zone : planned) {
+            List<Page> pages = zone.pages();
+            received += pages.size();
+            if (zone.isComplete()) {
+                zones.put(zone.zcode, collect(pages, batch, true).statuses());
+                zonePages.put(zone.zcode, zone.neededPages());
+                complete++;
+                continue;
+            }
+            partial++;
+            if (zone.neededPages() > 0) {
+                zonePages.put(zone.zcode, zone.neededPages());
+            }
+            if (!pages.isEmpty()) {
+                zones.put(zone.zcode, overlay(zones.get(zone.zcode), collect(pages, batch, false)));
+            }
+        }
+
+        int size = 0;
+        for (Map<String, List<Map<String, String>>> zone : zones.values()) size += zone.size();
+        Map<String, List<Map<String, String>>> statuses = new HashMap<>(Math.max(16, size * 4 / 3 + 1));
+        for (Map<String, List<Map<String, String>>> zone : zones.values()) statuses.putAll(zone);
+
+        System.out.println("✅ 실시간 상태 " + statuses.size() + "건 수집 완료 (요청 " + fetch.requests.get()
+                + "건, 지역 완료 " + complete + " / 일부 " + partial + " / 예산 부족 " + skipped
+                + ", 예산 잔여 " + budget.available() + ", " + (System.currentTimeMillis() - start) + "ms)");
+        return new Result(statuses, batch, received);
+    }
+
+    // 수집 1회분 동시 요청 (가상 스레드 + 동시 요청 수 제한 + 제한 시간)
+    private final class Fetch {
+
+        private final long deadline;
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private final Semaphore permits = new Semaphore(parallelism);
+        private final Phaser pending = new Phaser(1);
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        Fetch(long deadline) {
+            this.deadline = deadline;
+        }
+
+        void submit(ZoneFetch zone, int pageNo) {
+            pending.register();
+            try {
+                executor.execute(() -> {
+                    try {
+                        fetchPage(zone, pageNo);
+                    } finally {
+                        pending.arriveAndDeregister();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                zone.failed = true;
+                pending.arriveAndDeregister();
+            }
+        }
+
+        private void fetchPage(ZoneFetch zone, int pageNo) {
+            try {
+                permits.acquire();
+                try {
+                    if (System.nanoTime() > deadline) {
+                        zone.failed = true;
+                        return;
+                    }
+                    requests.incrementAndGet();
+                    Page page;
+                    try (InputStream in = source.open(zone.zcode, pageNo, pageSize)) {
+                        page = parse(in);
+                    }
+                    zone.put(pageNo, page);
+                } finally {
+                    permits.release();
+                }
+
+                // 직전보다 페이지가 늘었으면 나머지 페이지 추가 요청 (예산이 없으면 이 지역은 일부만)
+                int extra;
+                while ((extra = zone.nextUnscheduled()) > 0) {
+                    if (!budget.tryAcquire(1)) {
+                        zone.failed = true;
+                        break;
+                    }
+                    submit(zone, extra);
+                }
+            } catch (InterruptedException e) {
+                zone.failed = true;
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                zone.failed = true;
+                if (failures.getAndIncrement() == 0) {
+                    System.out.println("⚠️ 실시간 상태 조회 실패 (zcode " + zone.zcode + ", " + pageNo + "페이지): " + e.getMessage());
+                }
+            }
+        }
+
+        void await() {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                pending.awaitAdvanceInterruptibly(pending.arrive(), remaining, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                System.out.println("⚠️ 실시간 상태 수집 제한 시간 초과 (" + timeoutMillis + "ms), 받은 페이지까지만 반영");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void close() {
+            executor.shutdownNow();
+        }
+    }
+
+    // 지역 1곳의 이번 수집 상태
+    private static final class ZoneFetch {
+
+        final String zcode;
+        final int pageSize;
+        int scheduled;                 // 요청한 페이지 수 (1..scheduled)
+        int totalCount = -1;           // 응답의 totalCount (아직 모르면 -1)
+        volatile boolean failed = false;
+        private final Map<Integer, Page> pages = new TreeMap<>();
+
+        ZoneFetch(String zcode, int pageSize, int scheduled) {
+            this.zcode = zcode;
+            this.pageSize = pageSize;
+            this.scheduled = scheduled;
+        }
+
+        synchronized void put(int pageNo, Page page) {
+            pages.put(pageNo, page);
+            totalCount = Math.max(totalCount, page.totalCount());
+        }
+
+        // totalCount 기준 필요한 페이지 수 (아직 모르면 0)
+        synchronized int neededPages() {
+            if (totalCount < 0) return 0;
+            return Math.max(1, (int) ((totalCount + (long) pageSize - 1) / pageSize));
+        }
+
+        // 아직 요청하지 않은 필요한 페이지 번호 (없으면 0)
+        synchronized int nextUnscheduled() {
+            if (scheduled >= neededPages()) return 0;
+            return ++scheduled;
+        }
+
+        // 1..필요한 페이지를 모두 받았는지
+        synchronized boolean isComplete() {
+            if (failed || totalCount < 0) return false;
+            int needed = neededPages();
+            for (int pageNo = 1; pageNo <= needed; pageNo++) {
+                if (!pages.containsKey(pageNo)) return false;
+            }
+            return true;
+        }
+
+        synchronized List<Page> pages() {
+            return new ArrayList<>(pages.values());
+        }
+    }
+
+    // 페이지들을 모은 결과 (statuses: 충전소 id → 삭제되지 않은 충전기 상세, deletedChargers: 삭제된 충전기 chgerId)
+    private record Collected(Map<String, List<Map<String, String>>> statuses, Set<String> deletedChargers) {
+    }
+
+    // 페이지들 → 충전소 id → 충전기 상세 목록 (+ 카탈로그 변경분)
+    // - 수집 도중 목록이 밀려 같은 충전기가 두 페이지에 나오면 먼저 나온 것만 사용
+    // - 삭제된 충전기(delYn=Y)는 상세/개수에서 빠짐
+    // - 충전소 삭제는 지역의 모든 페이지를 받았을 때만 (complete): 일부만 받았으면 살아 있는 충전기가 못 받은 페이지에 있을 수 있음
+    private static Collected collect(List<Page> pages, StationCatalogBatch batch, boolean complete) {
+        Map<String, List<Map<String, String>>> statuses = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        Set<String> deletedChargers = new HashSet<>();
+        Set<String> deletedStations = new HashSet<>();
+
+        for (Page page : pages) {
+            for (Item item : page.items()) {
+                String chgerId = item.statId() + "-" + item.chgerId();
+                if (!seen.add(chgerId)) continue;
+
+                if (item.deleted()) {
+                    deletedChargers.add(chgerId);
+                    deletedStations.add(item.statId());
+                    continue;
+                }
+
+                // ⚙️ 타입 코드 변환
+                String chargerType = StationCsvLoader.chargerTypeName(item.chgerType());
+
+                // ⚙️ 충전소 기본 정보
+                batch.upsert(item.statId(), item.name(), item.addr(), item.operator(),
+                        item.lat(), item.lng(), chargerType, null);
+
+                // ⚙️ 상세 객체
+                Map<String, String> detail = new LinkedHashMap<>();
+                detail.put("speed", item.chgerType().equals("02") ? "완속" : "급속");
+                detail.put("chargerType", chargerType);
+                detail.put("status", statusName(item.stat()));
+                detail.put("chgerId", chgerId);
+                statuses.computeIfAbsent(item.statId(), k -> new ArrayList<>()).add(detail);
+            }
+        }
+
+        // 충전기가 모두 삭제된 충전소만 카탈로그에서 제거 (살아 있는 충전기가 있으면 batch 가 무시, 응답에 없는 충전소는 그대로 둠)
+        if (complete) {
+            for (String statId : deletedStations) {
+                batch.remove(statId);
+            }
+        }
+        for (List<Map<String, String>> details : statuses.values()) {
+            summarize(details);
+        }
+        return new Collected(statuses, deletedChargers);
+    }
+
+    // 일부만 받은 지역: 이전 결과 위에 이번에 받은 충전기만 덮어쓰고, 이번에 삭제로 온 충전기는 뺌
+    // (이전 목록/상세는 고치지 않고 복사)
+    private static Map<String, List<Map<String, String>>> overlay(Map<String, List<Map<String, String>>> previous,
+                                                                  Collected fresh) {
+        if (previous == null) return fresh.statuses();
+        Map<String, List<Map<String, String>>> merged = new HashMap<>(previous);
+
+        Set<String> touched = new HashSet<>(fresh.statuses().keySet());
+        for (String chgerId : fresh.deletedChargers()) {
+            int dash = chgerId.lastIndexOf('-');
+            touched.add(chgerId.substring(0, dash));
+        }
+        for (String statId : touched) {
+            Map<String, Map<String, String>> chargers = new LinkedHashMap<>();
+            for (Map<String, String> detail : previous.getOrDefault(statId, List.of())) {
+                if (fresh.deletedChargers().contains(detail.get("chgerId"))) continue;
+                Map<String, String> copy = new LinkedHashMap<>(detail);
+                copy.remove("summary");
+                chargers.put(copy.get("chgerId"), copy);
+            }
+            for (Map<String, String> detail : fresh.statuses().getOrDefault(statId, List.of())) {
+                Map<String, String> copy = new LinkedHashMap<>(detail);
+                copy.remove("summary");
+                chargers.put(copy.get("chgerId"), copy);
+            }
+            if (chargers.isEmpty()) {
+                merged.remove(statId);
+                continue;
+            }
+            List<Map<String, String>> details = new ArrayList<>(chargers.values());
+            summarize(details);
+            merged.put(statId, details);
+        }
+        return merged;
+    }
+
+    // ⚙️ 상태 코드 변환
+    private static String statusName(String stat) {
+        if (stat == null) return "정보없음";
+        return switch (stat) {
+            case "1" -> "충전가능";
+            case "2" -> "충전중";
+            case "3" -> "점검중";
+            default -> "정보없음";
+        };
+    }
+
+    // ⚙️ 충전소별 요약(summary) - 첫 번째 충전기에 추가 (JS에서 st.status로 사용)
+    private static void summarize(List<Map<String, String>> details) {
+        int total = details.size();
+        int available = 0, charging = 0, check = 0;
+        for (Map<String, String> d : details) {
+            String s = d.get("status");
+            if (s.equals("충전가능")) available++;
+            else if (s.equals("충전중")) charging++;
+            else if (s.equals("점검중")) check++;
+        }
+
+        String summary;
+        if (charging == total) summary = total + "/" + total + " 충전중";
+        else if (check == total) summary = total + "/" + total + " 점검중";
+        else if (available == total) summary = total + "/" + total + " 충전가능";
+        else summary = available + "/" + total + " 충전가능";
+
+        if (!details.isEmpty()) {
+            details.get(0).put("summary", summary);
+        }
+    }
+
+    // getChargerInfo XML → 페이지 (오류 응답이면 IOException)
+    static Page parse(InputStream in) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        int totalCount = -1;
+        String resultCode = null, resultMsg = null;
+        List<Item> items = new ArrayList<>();
+        Map<String, String> fields = null;
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if (name.equals("item")) {
+                            fields = new HashMap<>();
+                        } else if (fields != null) {
+                            fields.put(name, reader.getElementText().trim());
+                        } else if (name.equals("totalCount")) {
+                            totalCount = parseCount(reader.getElementText());
+                        } else if (name.equals("resultCode") || name.equals("returnReasonCode")) {
+                            resultCode = reader.getElementText().trim();
+                        } else if (name.equals("resultMsg") || name.equals("returnAuthMsg")) {
+                            resultMsg = reader.getElementText().trim();
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && fields != null
+                            && reader.getLocalName().equals("item")) {
+                        Item item = toItem(fields);
+                        if (item != null) items.add(item);
+                        fields = null;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("XML 파싱 실패: " + e.getMessage(), e);
+        }
+
+        if (resultCode != null && !resultCode.equals("00")) {
+            throw new IOException("API 오류 " + resultCode + (resultMsg == null ? "" : " " + resultMsg));
+        }
+        if (totalCount < 0) totalCount = items.size();
+        return new Page(totalCount, items);
+    }
+
+    // 필수 값(statId, chgerId, chgerType)이 없는 item 은 건너뜀
+    private static Item toItem(Map<String, String> fields) {
+        String statId = emptyToNull(fields.get("statId"));
+        String chgerId = emptyToNull(fields.get("chgerId"));
+        String chgerType = emptyToNull(fields.get("chgerType"));
+        if (statId == null || chgerId == null || chgerType == null) return null;
+        return new Item(statId, chgerId, chgerType, emptyToNull(fields.get("stat")),
+                "Y".equals(fields.get("delYn")),
+                emptyToNull(fields.get("statNm")), emptyToNull(fields.get("addr")), emptyToNull(fields.get("busiNm")),
+                parseCoordinate(fields.get("lat")), parseCoordinate(fields.get("lng")));
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static int parseCount(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static double parseCoordinate(String value) {
+        if (value == null || value.isEmpty()) return Double.NaN;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // 하루 요청 예산 토큰 버킷 (하루 예산을 밀리초 단위로 채움, 최대 1시간분까지 모아 둠 - 서버 시작 시에는 가득 참)
+    static final class RequestBudget {
+
+        private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+        private final double capacity;
+        private final double perMillis;
+        private double tokens;
+        private long lastRefill;
+
+        RequestBudget(int dailyBudget) {
+            this.capacity = Math.max(1, dailyBudget / 24.0);
+            this.perMillis = dailyBudget / (double) DAY_MS;
+            this.tokens = capacity;
+            this.lastRefill = System.currentTimeMillis();
+        }
+
+        synchronized boolean tryAcquire(int permits) {
+            refill();
+            if (tokens < permits) return false;
+            tokens -= permits;
+            return true;
+        }
+
+        synchronized int available() {
+            refill();
+            return (int) tokens;
+        }
+
+        private void refill() {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * perMillis);
+            lastRefill = now;
+        }
+    }
+}
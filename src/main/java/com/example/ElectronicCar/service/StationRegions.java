@@ -0,0 +1,195 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * 충전소 → 지역(시/도) 배정 + 지역별 충전소 수
+ * - 카탈로그 버전마다 한 번 배정: 경계 데이터(point-in-polygon)로 먼저 찾고, 못 찾으면 주소 앞부분으로 판단
+ * - 주소는 옛 이름/줄임말도 인식 (전라북도 = 전북특별자치도 = 전북, 강원도 = 강원특별자치도 ...)
+ * - 카탈로그 증분 변경은 바뀐 충전소만 다시 배정 (update)
+ * - 실시간 상태 합계(충전가능/충전중/점검중)는 상태 스냅샷마다 한 번만 계산 (liveTotals)
+ */
+final class StationRegions {
+
+    static final int UNKNOWN = -1;
+
+    // 2023-car-ffeine-develop의 Region enum과 같은 순서 (+ 세종특별자치시)
+    // 중심 좌표는 지도에 표시된 지역명 텍스트 위치 기준
+    private static final String[] NAMES = {
+            "서울특별시", "인천광역시", "광주광역시", "대구광역시", "울산광역시", "대전광역시", "부산광역시", "세종특별자치시",
+            "경기도", "강원특별자치도", "충청남도", "충청북도", "경상북도", "경상남도", "전라북도", "전라남도", "제주특별자치도"
+    };
+    private static final double[] CENTER_LATS = {
+            37.5665, 37.4636, 35.1595, 35.8714, 35.5384, 36.3504, 35.1796, 36.4800,
+            37.3500, 37.7000, 36.6000, 36.9900, 36.2000, 35.2000, 35.7000, 34.8000, 33.3800
+    };
+    private static final double[] CENTER_LNGS = {
+            126.9780, 126.6480, 126.8526, 128.6014, 129.3114, 127.3845, 129.0756, 127.2890,
+            127.1500, 128.3000, 126.8000, 127.9000, 128.8000, 128.1000, 127.1000, 126.9000, 126.5500
+    };
+
+    // 주소 첫 단어 → 지역 ID (정식 명칭, 옛 명칭, 줄임말)
+    private static final Map<String, Integer> ALIASES = new HashMap<>();
+    // 띄어쓰기 없는 주소용 (긴 이름부터 비교)
+    private static final String[] PREFIXES;
+
+    static {
+        alias(0, "서울특별시", "서울시", "서울");
+        alias(1, "인천광역시", "인천시", "인천");
+        alias(2, "광주광역시", "광주");
+        alias(3, "대구광역시", "대구시", "대구");
+        alias(4, "울산광역시", "울산시", "울산");
+        alias(5, "대전광역시", "대전시", "대전");
+        alias(6, "부산광역시", "부산시", "부산");
+        alias(7, "세종특별자치시", "세종시", "세종");
+        alias(8, "경기도", "경기");
+        alias(9, "강원특별자치도", "강원도", "강원");
+        alias(10, "충청남도", "충남");
+        alias(11, "충청북도", "충북");
+        alias(12, "경상북도", "경북");
+        alias(13, "경상남도", "경남");
+        alias(14, "전라북도", "전북특별자치도", "전북");
+        alias(15, "전라남도", "전남");
+        alias(16, "제주특별자치도", "제주도", "제주");
+
+        PREFIXES = ALIASES.keySet().stream()
+                .filter(name -> name.length() >= 3)
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .toArray(String[]::new);
+    }
+
+    private static void alias(int region, String... names) {
+        for (String name : names) ALIASES.put(name, region);
+    }
+
+    private final StationCatalog catalog;
+    private final byte[] regionIds;
+    private final int[] counts;
+
+    StationRegions(StationCatalog catalog, RegionBoundaries boundaries) {
+        this.catalog = catalog;
+        this.regionIds = new byte[catalog.size()];
+        this.counts = new int[NAMES.length];
+
+        // 배정은 충전소마다 독립 → 병렬
+        IntStream.range(0, catalog.size()).parallel()
+                .forEach(i -> regionIds[i] = (byte) assign(catalog, i, boundaries));
+        for (byte region : regionIds) {
+            if (region != UNKNOWN) counts[region]++;
+        }
+    }
+
+    private StationRegions(StationCatalog catalog, byte[] regionIds, int[] counts) {
+        this.catalog = catalog;
+        this.regionIds = regionIds;
+        this.counts = counts;
+    }
+
+    // 다음 카탈로그 버전용 (바뀐 충전소만 다시 배정하고 개수 조정)
+    StationRegions update(StationCatalogDelta delta, RegionBoundaries boundaries) {
+        StationCatalog next = delta.current();
+        if (delta.previous() != catalog) {
+            return new StationRegions(next, boundaries);
+        }
+
+        byte[] nextIds = Arrays.copyOf(regionIds, next.size());
+        int[] nextCounts = counts.clone();
+        for (int ordinal : delta.stale()) {
+            if (regionIds[ordinal] != UNKNOWN) nextCounts[regionIds[ordinal]]--;
+        }
+        for (int ordinal : delta.changed()) {
+            int region = assign(next, ordinal, boundaries);
+            nextIds[ordinal] = (byte) region;
+            if (region != UNKNOWN) nextCounts[region]++;
+        }
+        return new StationRegions(next, nextIds, nextCounts);
+    }
+
+    StationCatalog catalog() { return catalog; }
+
+    static int regionCount() { return NAMES.length; }
+    static String name(int region) { return NAMES[region]; }
+    static double centerLat(int region) { return CENTER_LATS[region]; }
+    static double centerLng(int region) { return CENTER_LNGS[region]; }
+
+    int regionOf(int ordinal) { return regionIds[ordinal]; }
+    int count(int region) { return counts[region]; }
+
+    // 지역 이름 (정식/옛/줄임) → 지역 ID
+    static int regionOfName(String name) {
+        if (name == null) return UNKNOWN;
+        Integer region = ALIASES.get(name.trim());
+        return region == null ? UNKNOWN : region;
+    }
+
+    // 주소 앞부분 → 지역 ID
+    static int regionOfAddress(String addr) {
+        if (addr == null || addr.isEmpty()) return UNKNOWN;
+        String trimmed = addr.trim();
+        int space = trimmed.indexOf(' ');
+        Integer region = ALIASES.get(space < 0 ? trimmed : trimmed.substring(0, space));
+        if (region != null) return region;
+
+        for (String prefix : PREFIXES) {
+            if (trimmed.startsWith(prefix)) return ALIASES.get(prefix);
+        }
+        return UNKNOWN;
+    }
+
+    private static int assign(StationCatalog catalog, int ordinal, RegionBoundaries boundaries) {
+        int region = boundaries.locate(catalog.lat(ordinal), catalog.lng(ordinal));
+        return region != UNKNOWN ? region : regionOfAddress(catalog.addr(ordinal));
+    }
+
+    // 상태 스냅샷 기준 지역별 충전기 상태 합계 - 처음 한 번 또는 카탈로그가 바뀌었을 때만 (전체 순회)
+    // 같은 카탈로그의 다음 스냅샷은 Live.next 로 바뀐 충전소만 반영
+    Live liveTotals(StationStatusSnapshot snapshot) {
+        Live live = new Live(this, snapshot);
+        for (int i = 0; i < regionIds.length; i++) {
+            live.add(regionIds[i], snapshot, i, 1);
+        }
+        return live;
+    }
+
+    // 지역별 상태 합계 (불변 - 스냅샷 교체 때 새로 만들어 바꿔 끼움)
+    static final class Live {
+        private final StationRegions regions;
+        private final StationStatusSnapshot snapshot;
+        private final int[] available = new int[NAMES.length];
+        private final int[] charging = new int[NAMES.length];
+        private final int[] check = new int[NAMES.length];
+
+        private Live(StationRegions regions, StationStatusSnapshot snapshot) {
+            this.regions = regions;
+            this.snapshot = snapshot;
+        }
+
+        StationRegions regions() { return regions; }
+        StationStatusSnapshot snapshot() { return snapshot; }
+        int available(int region) { return available[region]; }
+        int charging(int region) { return charging[region]; }
+        int check(int region) { return check[region]; }
+
+        // 같은 카탈로그의 다음 스냅샷: 개수가 바뀐 충전소(changed)만 이전 값을 빼고 새 값을 더함
+        Live next(StationStatusSnapshot current, int[] changed) {
+            Live live = new Live(regions, current);
+            System.arraycopy(available, 0, live.available, 0, NAMES.length);
+            System.arraycopy(charging, 0, live.charging, 0, NAMES.length);
+            System.arraycopy(check, 0, live.check, 0, NAMES.length);
+            for (int ordinal : changed) {
+                int region = regions.regionIds[ordinal];
+                live.add(region, snapshot, ordinal, -1);
+                live.add(region, current, ordinal, 1);
+            }
+            return live;
+        }
+
+        private void add(int region, StationStatusSnapshot source, int ordinal, int sign) {
+            if (region == UNKNOWN) return;
+            available[region] += sign * source.available(ordinal);
+            charging[region] += sign * source.charging(ordinal);
+            check[region] += sign * source.check(ordinal);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * 충전소 이름/주소/운영기관 검색 인덱스 (카탈로그 버전마다 한 번 빌드, 이후 읽기 전용)
+ * - 공백/기호를 뺀 소문자 글자 기준 1글자 + 2글자(n-gram) 역색인 → 검색어의 n-gram 목록 교집합이 후보
+ * - 초성 검색: 한글 음절을 초성(ㄱ~ㅎ)으로 바꾼 글자의 2글자 역색인을 따로 둠
+ *   ("ㄱㄴ충전" 처럼 초성과 음절이 섞인 입력도 가능 - 입력 중인 마지막 글자가 초성이어도 찾음)
+ * - 후보는 빌드 때 정규화해 둔 글자(char[] 하나에 연속 저장)와 비교해 확인 후 점수순
+ *   (이름 > 운영기관 > 주소, 앞부분 일치 > 중간 일치, 짧은 이름 우선)
+ * - 카탈로그 증분 변경(update)은 색인을 다시 만들지 않고, 바뀐 ordinal 을 색인에서 제외(stale)한 뒤
+ *   따로 글자 비교(extras) → 변경분이 많아지면 그때 전체 재빌드
+ */
+final class StationSearchIndex {
+
+    static final String NAME = "name";
+    static final String OPERATOR = "operator";
+    static final String ADDR = "addr";
+
+    private static final String[] FIELDS = {NAME, OPERATOR, ADDR};
+    private static final int[] FIELD_WEIGHTS = {300, 200, 100};
+
+    private static final char HANGUL_BASE = 0xAC00;
+    private static final char HANGUL_LAST = 0xD7A3;
+    private static final int CHOSEONG_PERIOD = 21 * 28;
+    private static final String CHOSEONG = "ㄱㄲㄴㄷㄸㄹㅁㅂㅃㅅㅆㅇㅈㅉㅊㅋㅌㅍㅎ";
+    private static final char JAMO_BASE = 0x3131;
+    private static final boolean[] IS_CHOSEONG = new boolean[0x314E - JAMO_BASE + 1];
+
+    static {
+        for (char c : CHOSEONG.toCharArray()) IS_CHOSEONG[c - JAMO_BASE] = true;
+    }
+
+    // 따로 확인할 변경분이 이 개수와 색인 크기의 1/8 을 모두 넘으면 재빌드
+    private static final int MIN_REBUILD_EXTRAS = 1024;
+    private static final int[] NO_EXTRAS = new int[0];
+
+    private final StationCatalog catalog;
+    private final int numItems;
+    private final Map<Integer, int[]> syllables;   // 1/2글자 → 오름차순 ordinal
+    private final Map<Integer, int[]> initials;    // 초성 2글자 → 오름차순 ordinal
+
+    // 정규화된 필드 글자 (ordinal * 필드 수 + 필드 번호 → texts 안의 시작 위치)
+    private final char[] texts;
+    private final int[] offsets;
+
+    private final long[] stale;
+    private final int[] extras;
+
+    StationSearchIndex(StationCatalog catalog) {
+        this.catalog = catalog;
+        this.numItems = catalog.size();
+        this.stale = null;
+        this.extras = NO_EXTRAS;
+
+        Map<Integer, Postings> syllableBuilder = new HashMap<>();
+        Map<Integer, Postings> initialBuilder = new HashMap<>();
+        char[] chars = new char[numItems * 32];
+        int[] starts = new int[numItems * FIELDS.length + 1];
+        int length = 0;
+        for (int i = 0; i < numItems; i++) {
+            for (int field = 0; field < FIELDS.length; field++) {
+                char[] text = normalize(fieldText(catalog, i, field));
+                if (length + text.length > chars.length) {
+                    chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + text.length));
+                }
+                System.arraycopy(text, 0, chars, length, text.length);
+                length += text.length;
+                starts[i * FIELDS.length + field + 1] = length;
+
+                for (int k = 0; k < text.length; k++) {
+                    add(syllableBuilder, gram(text[k], (char) 0), i);
+                    if (k + 1 < text.length) {
+                        add(syllableBuilder, gram(text[k], text[k + 1]), i);
+                        add(initialBuilder, gram(choseong(text[k]), choseong(text[k + 1])), i);
+                    }
+                }
+            }
+        }
+        this.syllables = toArrays(syllableBuilder);
+        this.initials = toArrays(initialBuilder);
+        this.texts = Arrays.copyOf(chars, length);
+        this.offsets = starts;
+    }
+
+    private StationSearchIndex(StationSearchIndex base, StationCatalog catalog, long[] stale, int[] extras) {
+        this.catalog = catalog;
+        this.numItems = base.numItems;
+        this.syllables = base.syllables;
+        this.initials = base.initials;
+        this.texts = base.texts;
+        this.offsets = base.offsets;
+        this.stale = stale;
+        this.extras = extras;
+    }
+
+    // 다음 카탈로그 버전용 (색인은 공유하고 바뀐 충전소만 따로 확인)
+    StationSearchIndex update(StationCatalogDelta delta) {
+        StationCatalog next = delta.current();
+        if (delta.previous() != catalog) {
+            return new StationSearchIndex(next);
+        }
+
+        long[] nextStale = stale == null ? new long[(numItems + 63) >>> 6] : stale.clone();
+        for (int ordinal : delta.stale()) {
+            if (ordinal < numItems) nextStale[ordinal >>> 6] |= 1L << ordinal;
+        }
+        for (int ordinal : delta.changed()) {
+            if (ordinal < numItems) nextStale[ordinal >>> 6] |= 1L << ordinal;
+        }
+
+        int[] nextExtras = IntStream.concat(Arrays.stream(extras), Arrays.stream(delta.changed()))
+                .filter(ordinal -> ordinal < next.size())
+                .sorted().distinct().toArray();
+        if (nextExtras.length > Math.max(MIN_REBUILD_EXTRAS, numItems / 8)) {
+            return new StationSearchIndex(next);
+        }
+        return new StationSearchIndex(this, next, nextStale, nextExtras);
+    }
+
+    StationCatalog catalog() { return catalog; }
+
+    /**
+     * 검색어와 일치하는 충전소 (점수 높은 순, 최대 limit 개)
+     * - 결과: id, name, addr, operator, lat, lng, chargerType, matchedField
+     */
+    List<Map<String, Object>> search(String query, int limit) {
+        char[] q = normalize(query);
+        if (q.length == 0 || limit <= 0) return new ArrayList<>();
+
+        // 점수가 낮은 것부터 꺼내는 크기 limit 의 힙 (점수 같으면 ordinal 큰 것이 먼저 밀려남)
+        PriorityQueue<long[]> top = new PriorityQueue<>(limit + 1,
+                (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+
+        int[] candidates = candidates(q);
+        if (candidates == null) {
+            // 초성 1글자: 이름 첫 글자만 비교 (거의 모든 충전소가 어딘가에 포함하므로 자동완성에 의미 없음)
+            for (int i = 0; i < numItems; i++) {
+                int from = offsets[i * FIELDS.length];
+                if (from < offsets[i * FIELDS.length + 1] && choseong(texts[from]) == q[0] && !isStale(i)) {
+                    offer(top, limit, q, i, null);
+                }
+            }
+        } else {
+            for (int ordinal : candidates) {
+                if (!isStale(ordinal)) offer(top, limit, q, ordinal, null);
+            }
+        }
+        // 색인 이후 바뀐 충전소는 현재 카탈로그 글자로 확인
+        for (int ordinal : extras) {
+            char[][] fields = new char[FIELDS.length][];
+            for (int field = 0; field < FIELDS.length; field++) {
+                fields[field] = normalize(fieldText(catalog, ordinal, field));
+            }
+            offer(top, limit, q, ordinal, fields);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            long[] entry = top.poll();
+            results.add(result((int) entry[1], (int) entry[2]));
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    // 검색어 n-gram 목록 교집합 (초성이 섞인 글자쌍은 초성 색인 사용, null = 전체 확인 필요)
+    private int[] candidates(char[] q) {
+        List<int[]> lists = new ArrayList<>();
+        if (q.length == 1) {
+            if (isChoseong(q[0])) return null;
+            lists.add(syllables.getOrDefault(gram(q[0], (char) 0), NO_EXTRAS));
+        }
+        for (int k = 0; k + 1 < q.length; k++) {
+            if (isChoseong(q[k]) || isChoseong(q[k + 1])) {
+                lists.add(initials.getOrDefault(gram(choseong(q[k]), choseong(q[k + 1])), NO_EXTRAS));
+            } else {
+                lists.add(syllables.getOrDefault(gram(q[k], q[k + 1]), NO_EXTRAS));
+            }
+        }
+
+        // 짧은 목록부터 교집합
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] result = lists.get(0);
+        for (int k = 1; k < lists.size() && result.length > 0; k++) {
+            result = intersect(result, lists.get(k));
+        }
+        return result;
+    }
+
+    private boolean isStale(int ordinal) {
+        return stale != null && (stale[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    // fields 가 null 이면 색인에 저장된 글자 사용
+    private void offer(PriorityQueue<long[]> top, int limit, char[] q, int ordinal, char[][] fields) {
+        long best = Long.MIN_VALUE;
+        int bestField = -1;
+        for (int field = 0; field < FIELDS.length; field++) {
+            char[] text;
+            int from, to;
+            if (fields == null) {
+                text = texts;
+                from = offsets[ordinal * FIELDS.length + field];
+                to = offsets[ordinal * FIELDS.length + field + 1];
+            } else {
+                text = fields[field];
+                from = 0;
+                to = text.length;
+            }
+            int position = indexOf(text, from, to, q);
+            if (position < 0) continue;
+
+            int textLength = to - from;
+            long score = FIELD_WEIGHTS[field]
+                    + (position == 0 ? 50 : -Math.min(position, 40))
+                    + (position == 0 && textLength == q.length ? 100 : 0)
+                    - Math.min(textLength, 40) / 4;
+            if (score > best) {
+                best = score;
+                bestField = field;
+            }
+        }
+        if (bestField < 0) return;
+
+        // 힙이 찼고 최저 점수보다 낮으면 버림 (같은 점수는 ordinal 작은 쪽 우선)
+        if (top.size() == limit) {
+            long[] lowest = top.peek();
+            if (best < lowest[0] || (best == lowest[0] && ordinal > lowest[1])) return;
+        }
+        top.add(new long[]{best, ordinal, bestField});
+        if (top.size() > limit) top.poll();
+    }
+
+    private Map<String, Object> result(int ordinal, int field) {
+        Map<String, Object> station = new LinkedHashMap<>();
+        station.put("id", catalog.id(ordinal));
+        station.put("name", catalog.name(ordinal));
+        station.put("addr", catalog.addr(ordinal));
+        station.put("operator", catalog.operator(ordinal));
+        station.put("lat", catalog.lat(ordinal));
+        station.put("lng", catalog.lng(ordinal));
+        station.put("chargerType", catalog.chargerType(ordinal));
+        station.put("matchedField", FIELDS[field]);
+        return station;
+    }
+
+    // ---- 글자 처리 ----
+
+    private static String fieldText(StationCatalog catalog, int ordinal, int field) {
+        return switch (field) {
+            case 0 -> catalog.name(ordinal);
+            case 1 -> catalog.operator(ordinal);
+            default -> catalog.addr(ordinal);
+        };
+    }
+
+    // 글자/숫자만 남기고 소문자로 (공백, 괄호, 하이픈 등 제거)
+    static char[] normalize(String text) {
+        if (text == null) return new char[0];
+        char[] result = new char[text.length()];
+        int n = 0;
+        for (int k = 0; k < text.length(); k++) {
+            char c = text.charAt(k);
+            if (Character.isLetterOrDigit(c)) result[n++] = Character.toLowerCase(c);
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    // 한글 음절 → 초성 (호환 자모 ㄱ~ㅎ), 그 외 글자는 그대로
+    static char choseong(char c) {
+        if (c < HANGUL_BASE || c > HANGUL_LAST) return c;
+        return CHOSEONG.charAt((c - HANGUL_BASE) / CHOSEONG_PERIOD);
+    }
+
+    private static boolean isChoseong(char c) {
+        return c >= JAMO_BASE && c - JAMO_BASE < IS_CHOSEONG.length && IS_CHOSEONG[c - JAMO_BASE];
+    }
+
+    // text[from, to) 안에서 검색어 위치 (검색어 글자가 초성이면 음절의 초성과 비교, 없으면 -1)
+    private static int indexOf(char[] text, int from, int to, char[] q) {
+        outer:
+        for (int p = from; p + q.length <= to; p++) {
+            for (int k = 0; k < q.length; k++) {
+                char t = text[p + k];
+                if (t != q[k] && !(isChoseong(q[k]) && choseong(t) == q[k])) continue outer;
+            }
+            return p - from;
+        }
+        return -1;
+    }
+
+    private static int gram(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    // ---- 역색인 ----
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+    }
+
+    // ordinal 은 오름차순으로 들어오므로 마지막 값과 같으면 중복
+    private static void add(Map<Integer, Postings> builder, int gram, int ordinal) {
+        Postings postings = builder.computeIfAbsent(gram, k -> new Postings());
+        if (postings.size > 0 && postings.ordinals[postings.size - 1] == ordinal) return;
+        if (postings.size == postings.ordinals.length) {
+            postings.ordinals = Arrays.copyOf(postings.ordinals, postings.size * 2);
+        }
+        postings.ordinals[postings.size++] = ordinal;
+    }
+
+    private static Map<Integer, int[]> toArrays(Map<Integer, Postings> builder) {
+        Map<Integer, int[]> result = new HashMap<>(builder.size() * 2);
+        builder.forEach((gram, postings) -> result.put(gram, Arrays.copyOf(postings.ordinals, postings.size)));
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int n = 0, i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+}
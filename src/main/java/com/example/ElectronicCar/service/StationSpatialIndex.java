@@ -0,0 +1,421 @@
+package com.example.ElectronicCar.service;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * 충전소 좌표용 정적 R-tree (Hilbert 정렬 + 패킹, flatbush 방식)
+ * - 카탈로그 로드 시 한 번만 빌드, 이후 읽기 전용 (여러 스레드에서 동시에 조회 가능)
+ * - 노드 박스는 double[] 하나에 (minLng, minLat, maxLng, maxLat) 순서로 연속 저장
+ * - 범위 조회 비용: O(log n + k)
+ * - 카탈로그 증분 변경(update)은 트리를 다시 만들지 않고, 바뀐 ordinal 을 트리에서 제외(stale)한 뒤
+ *   새 좌표로 따로 검사(extras) → 변경분이 많아지면 그때 전체 재빌드
+ */
+public final class StationSpatialIndex {
+
+    private static final int NODE_SIZE = 16;
+    private static final int HILBERT_MAX = (1 << 16) - 1;
+
+    // 따로 검사할 변경분이 이 개수와 트리 크기의 1/8 을 모두 넘으면 재빌드
+    private static final int MIN_REBUILD_EXTRAS = 1024;
+    private static final int[] NO_EXTRAS = new int[0];
+
+    private final StationCatalog catalog;
+    private final int numItems;
+    private final int[] levelBounds;
+    private final double[] boxes;
+    private final int[] indices;
+
+    // 트리에 있지만 더 이상 유효하지 않은 ordinal (비트셋, 변경 없으면 null) + 현재 좌표로 따로 검사할 ordinal
+    private final long[] stale;
+    private final int[] extras;
+
+    public StationSpatialIndex(StationCatalog catalog) {
+        this.catalog = catalog;
+        this.numItems = catalog.size();
+        this.stale = null;
+        this.extras = NO_EXTRAS;
+
+        // 레벨별 노드 수 계산 (리프부터 루트까지)
+        int n = numItems;
+        int numNodes = n;
+        int[] bounds = new int[32];
+        int levels = 0;
+        bounds[levels++] = n * 4;
+        do {
+            n = (n + NODE_SIZE - 1) / NODE_SIZE;
+            numNodes += n;
+            bounds[levels++] = numNodes * 4;
+        } while (n > 1);
+        this.levelBounds = Arrays.copyOf(bounds, levels);
+        this.boxes = new double[numNodes * 4];
+        this.indices = new int[numNodes];
+
+        if (numItems == 0) return;
+
+        double[] lats = catalog.latArray();
+        double[] lngs = catalog.lngArray();
+
+        // 전체 범위
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numItems; i++) {
+            minX = Math.min(minX, lngs[i]);
+            minY = Math.min(minY, lats[i]);
+            maxX = Math.max(maxX, lngs[i]);
+            maxY = Math.max(maxY, lats[i]);
+        }
+
+        // Hilbert 값 기준으로 충전소 정렬 (가까운 충전소가 같은 노드에 모이도록)
+        double width = maxX - minX, height = maxY - minY;
+        long[] keyed = new long[numItems];
+        for (int i = 0; i < numItems; i++) {
+            int hx = width == 0 ? 0 : (int) (HILBERT_MAX * (lngs[i] - minX) / width);
+            int hy = height == 0 ? 0 : (int) (HILBERT_MAX * (lats[i] - minY) / height);
+            keyed[i] = ((hilbert(hx, hy) & 0xFFFFFFFFL) << 31) | i;
+        }
+        Arrays.sort(keyed);
+
+        // 리프 채우기
+        for (int i = 0; i < numItems; i++) {
+            int ordinal = (int) (keyed[i] & Integer.MAX_VALUE);
+            int pos = i * 4;
+            boxes[pos] = lngs[ordinal];
+            boxes[pos + 1] = lats[ordinal];
+            boxes[pos + 2] = lngs[ordinal];
+            boxes[pos + 3] = lats[ordinal];
+            indices[i] = ordinal;
+        }
+
+        // 상위 노드 채우기 (자식 NODE_SIZE개씩 묶어서 박스 계산)
+        int pos = 0;
+        int nodeIndex = numItems;
+        for (int level = 0; level < levelBounds.length - 1; level++) {
+            int end = levelBounds[level];
+            while (pos < end) {
+                int firstChild = pos / 4;
+                double nodeMinX = Double.POSITIVE_INFINITY, nodeMinY = Double.POSITIVE_INFINITY;
+                double nodeMaxX = Double.NEGATIVE_INFINITY, nodeMaxY = Double.NEGATIVE_INFINITY;
+                for (int j = 0; j < NODE_SIZE && pos < end; j++, pos += 4) {
+                    nodeMinX = Math.min(nodeMinX, boxes[pos]);
+                    nodeMinY = Math.min(nodeMinY, boxes[pos + 1]);
+                    nodeMaxX = Math.max(nodeMaxX, boxes[pos + 2]);
+                    nodeMaxY = Math.max(nodeMaxY, boxes[pos + 3]);
+                }
+                int nodePos = nodeIndex * 4;
+                boxes[nodePos] = nodeMinX;
+                boxes[nodePos + 1] = nodeMinY;
+                boxes[nodePos + 2] = nodeMaxX;
+                boxes[nodePos + 3] = nodeMaxY;
+                indices[nodeIndex++] = firstChild * 4;
+            }
+        }
+    }
+
+    // 스냅샷 파일에서 읽은 트리로 복원 (정렬/박스 계산 생략)
+    StationSpatialIndex(StationCatalog catalog, int[] levelBounds, double[] boxes, int[] indices) {
+        this.catalog = catalog;
+        this.numItems = catalog.size();
+        this.levelBounds = levelBounds;
+        this.boxes = boxes;
+        this.indices = indices;
+        this.stale = null;
+        this.extras = NO_EXTRAS;
+    }
+
+    private StationSpatialIndex(StationSpatialIndex tree, StationCatalog catalog, long[] stale, int[] extras) {
+        this.catalog = catalog;
+        this.numItems = tree.numItems;
+        this.levelBounds = tree.levelBounds;
+        this.boxes = tree.boxes;
+        this.indices = tree.indices;
+        this.stale = stale;
+        this.extras = extras;
+    }
+
+    // 다음 카탈로그 버전용 인덱스 (트리는 공유, 바뀐 ordinal 만 따로 관리)
+    StationSpatialIndex update(StationCatalogDelta delta) {
+        StationCatalog next = delta.current();
+        if (delta.previous() != catalog) {
+            return new StationSpatialIndex(next);
+        }
+
+        long[] nextStale = stale == null ? new long[(numItems + 63) >>> 6] : stale.clone();
+        for (int ordinal : delta.stale()) {
+            if (ordinal < numItems) nextStale[ordinal >>> 6] |= 1L << ordinal;
+        }
+        for (int ordinal : delta.changed()) {
+            if (ordinal < numItems) nextStale[ordinal >>> 6] |= 1L << ordinal;
+        }
+
+        int[] nextExtras = IntStream.concat(Arrays.stream(extras), Arrays.stream(delta.changed()))
+                .filter(ordinal -> ordinal < next.size())
+                .sorted().distinct().toArray();
+        if (nextExtras.length > Math.max(MIN_REBUILD_EXTRAS, numItems / 8)) {
+            return new StationSpatialIndex(next);
+        }
+        return new StationSpatialIndex(this, next, nextStale, nextExtras);
+    }
+
+    public StationCatalog catalog() { return catalog; }
+
+    // 스냅샷 저장용 내부 배열 (읽기 전용)
+    int[] levelBounds() { return levelBounds; }
+    double[] boxes() { return boxes; }
+    int[] indices() { return indices; }
+
+    /**
+     * 범위 내 충전소 ordinal 을 visitor 에 전달 (visitor 가 false 를 반환하면 즉시 중단)
+     * @return 끝까지 탐색했으면 true, 중간에 중단했으면 false
+     */
+    public boolean search(double minLat, double minLng, double maxLat, double maxLng, IntPredicate visitor) {
+        if (!searchTree(minLat, minLng, maxLat, maxLng, visitor)) return false;
+
+        // 트리 빌드 이후 바뀐 충전소는 현재 좌표로 검사
+        double[] lats = catalog.latArray();
+        double[] lngs = catalog.lngArray();
+        for (int ordinal : extras) {
+            double lat = lats[ordinal], lng = lngs[ordinal];
+            if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) continue;
+            if (!visitor.test(ordinal)) return false;
+        }
+        return true;
+    }
+
+    private boolean searchTree(double minLat, double minLng, double maxLat, double maxLng, IntPredicate visitor) {
+        if (numItems == 0) return true;
+
+        int[] stack = new int[levelBounds.length * NODE_SIZE];
+        int stackSize = 0;
+        int nodePos = boxes.length - 4;
+
+        while (true) {
+            // 현재 노드의 자식들 검사
+            int end = Math.min(nodePos + NODE_SIZE * 4, upperBound(nodePos));
+            for (int pos = nodePos; pos < end; pos += 4) {
+                if (maxLng < boxes[pos] || maxLat < boxes[pos + 1]
+                        || minLng > boxes[pos + 2] || minLat > boxes[pos + 3]) continue;
+
+                int index = indices[pos >> 2];
+                if (nodePos < numItems * 4) {
+                    if (stale != null && (stale[index >>> 6] & (1L << index)) != 0) continue;
+                    if (!visitor.test(index)) return false;
+                } else {
+                    stack[stackSize++] = index;
+                }
+            }
+
+            if (stackSize == 0) return true;
+            nodePos = stack[--stackSize];
+        }
+    }
+
+    // 범위 내 충전소 ordinal 목록 (limit 개까지)
+    public int[] search(double minLat, double minLng, double maxLat, double maxLng, int limit) {
+        if (limit <= 0) return new int[0];
+        Collector collector = new Collector(limit);
+        search(minLat, minLng, maxLat, maxLng, collector);
+        return Arrays.copyOf(collector.ordinals, collector.size);
+    }
+
+    // 범위 내 충전소 중 filter 를 통과한 ordinal 목록 (limit 개까지)
+    public int[] search(double minLat, double minLng, double maxLat, double maxLng, int limit, IntPredicate filter) {
+        if (limit <= 0) return new int[0];
+        Collector collector = new Collector(limit);
+        search(minLat, minLng, maxLat, maxLng, ordinal -> !filter.test(ordinal) || collector.test(ordinal));
+        return Arrays.copyOf(collector.ordinals, collector.size);
+    }
+
+    // 범위 내 충전소 개수 (limit 에서 중단)
+    public int count(double minLat, double minLng, double maxLat, double maxLng, int limit) {
+        int[] count = {0};
+        if (limit <= 0) return 0;
+        search(minLat, minLng, maxLat, maxLng, ordinal -> ++count[0] < limit);
+        return count[0];
+    }
+
+    /**
+     * 가까운 순으로 충전소를 visitor 에 전달 (best-first: 박스까지의 최소 거리가 가까운 노드부터 펼침)
+     * - 거리(m)는 좌표 스캐너와 같은 근사 (기준 위도의 cos 로 경도를 보정한 평면 거리)
+     * - maxDistanceMeters 보다 먼 충전소는 방문하지 않음, visitor 가 false 를 반환하면 즉시 중단
+     * - 큐에는 아직 펼치지 않은 노드/충전소만 들어가므로 가까운 결과를 찾으면 나머지 트리는 보지 않음
+     */
+    public void nearest(double lat, double lng, double maxDistanceMeters, NearestVisitor visitor) {
+        double kx = Math.cos(Math.toRadians(lat)) * StationCoordinateScanner.DEG_TO_M;
+        double ky = StationCoordinateScanner.DEG_TO_M;
+        double maxDistance2 = maxDistanceMeters * maxDistanceMeters;
+        DistanceQueue queue = new DistanceQueue();
+
+        // 트리 빌드 이후 바뀐 충전소는 현재 좌표로 거리 계산해서 처음부터 큐에 넣음
+        double[] lats = catalog.latArray();
+        double[] lngs = catalog.lngArray();
+        for (int ordinal : extras) {
+            double dx = (lngs[ordinal] - lng) * kx;
+            double dy = (lats[ordinal] - lat) * ky;
+            double distance2 = dx * dx + dy * dy;
+            if (distance2 <= maxDistance2) queue.push(distance2, -ordinal - 1);
+        }
+        // 양수 = 펼칠 노드의 자식 박스 시작 위치, 음수 = 충전소 (-ordinal - 1)
+        if (numItems > 0) queue.push(0, boxes.length - 4);
+
+        while (queue.size > 0) {
+            double distance2 = queue.peekKey();
+            int value = queue.pop();
+            if (value < 0) {
+                if (!visitor.visit(-value - 1, Math.sqrt(distance2))) return;
+                continue;
+            }
+
+            int nodePos = value;
+            boolean leaf = nodePos < numItems * 4;
+            int end = Math.min(nodePos + NODE_SIZE * 4, upperBound(nodePos));
+            for (int pos = nodePos; pos < end; pos += 4) {
+                double dx = axisDistance(lng, boxes[pos], boxes[pos + 2]) * kx;
+                double dy = axisDistance(lat, boxes[pos + 1], boxes[pos + 3]) * ky;
+                double childDistance2 = dx * dx + dy * dy;
+                if (childDistance2 > maxDistance2) continue;
+
+                int index = indices[pos >> 2];
+                if (!leaf) {
+                    queue.push(childDistance2, index);
+                } else if (stale == null || (stale[index >>> 6] & (1L << index)) == 0) {
+                    queue.push(childDistance2, -index - 1);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface NearestVisitor {
+        // false 를 반환하면 탐색 중단
+        boolean visit(int ordinal, double distanceMeters);
+    }
+
+    private static double axisDistance(double value, double min, double max) {
+        return value < min ? min - value : value > max ? value - max : 0;
+    }
+
+    // 거리 제곱 기준 최소 힙 (double 키 + int 값, 박싱 없음)
+    private static final class DistanceQueue {
+        private double[] keys = new double[64];
+        private int[] values = new int[64];
+        private int size;
+
+        void push(double key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int pos = size++;
+            while (pos > 0) {
+                int parent = (pos - 1) >> 1;
+                if (keys[parent] <= key) break;
+                keys[pos] = keys[parent];
+                values[pos] = values[parent];
+                pos = parent;
+            }
+            keys[pos] = key;
+            values[pos] = value;
+        }
+
+        double peekKey() {
+            return keys[0];
+        }
+
+        int pop() {
+            int top = values[0];
+            size--;
+            if (size > 0) {
+                double key = keys[size];
+                int value = values[size];
+                int pos = 0;
+                int half = size >> 1;
+                while (pos < half) {
+                    int child = (pos << 1) + 1;
+                    if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                    if (keys[child] >= key) break;
+                    keys[pos] = keys[child];
+                    values[pos] = values[child];
+                    pos = child;
+                }
+                keys[pos] = key;
+                values[pos] = value;
+            }
+            return top;
+        }
+    }
+
+    private static final class Collector implements IntPredicate {
+        private final int limit;
+        private int[] ordinals;
+        private int size;
+
+        Collector(int limit) {
+            this.limit = limit;
+            this.ordinals = new int[Math.min(limit, 1024)];
+        }
+
+        @Override
+        public boolean test(int ordinal) {
+            if (size == ordinals.length) ordinals = Arrays.copyOf(ordinals, size * 2);
+            ordinals[size++] = ordinal;
+            return size < limit;
+        }
+    }
+
+    private int upperBound(int nodePos) {
+        for (int bound : levelBounds) {
+            if (bound > nodePos) return bound;
+        }
+        return levelBounds[levelBounds.length - 1];
+    }
+
+    // Hilbert 곡선 값 계산 (16비트 x, y → 32비트)
+    // https://github.com/rawrunprotected/hilbert_curves (public domain)
+    private static int hilbert(int x, int y) {
+        int a = x ^ y;
+        int b = 0xFFFF ^ a;
+        int c = 0xFFFF ^ (x | y);
+        int d = x & (y ^ 0xFFFF);
+
+        int A = a | (b >>> 1);
+        int B = (a >>> 1) ^ a;
+        int C = ((c >>> 1) ^ (b & (d >>> 1))) ^ c;
+        int D = ((a & (c >>> 1)) ^ (d >>> 1)) ^ d;
+
+        a = A; b = B; c = C; d = D;
+        A = ((a & (a >>> 2)) ^ (b & (b >>> 2)));
+        B = ((a & (b >>> 2)) ^ (b & ((a ^ b) >>> 2)));
+        C ^= ((a & (c >>> 2)) ^ (b & (d >>> 2)));
+        D ^= ((b & (c >>> 2)) ^ ((a ^ b) & (d >>> 2)));
+
+        a = A; b = B; c = C; d = D;
+        A = ((a & (a >>> 4)) ^ (b & (b >>> 4)));
+        B = ((a & (b >>> 4)) ^ (b & ((a ^ b) >>> 4)));
+        C ^= ((a & (c >>> 4)) ^ (b & (d >>> 4)));
+        D ^= ((b & (c >>> 4)) ^ ((a ^ b) & (d >>> 4)));
+
+        a = A; b = B; c = C; d = D;
+        C ^= ((a & (c >>> 8)) ^ (b & (d >>> 8)));
+        D ^= ((b & (c >>> 8)) ^ ((a ^ b) & (d >>> 8)));
+
+        a = C ^ (C >>> 1);
+        b = D ^ (D >>> 1);
+
+        int i0 = x ^ y;
+        int i1 = b | (0xFFFF ^ (i0 | a));
+
+        i0 = (i0 | (i0 << 8)) & 0x00FF00FF;
+        i0 = (i0 | (i0 << 4)) & 0x0F0F0F0F;
+        i0 = (i0 | (i0 << 2)) & 0x33333333;
+        i0 = (i0 | (i0 << 1)) & 0x55555555;
+
+        i1 = (i1 | (i1 << 8)) & 0x00FF00FF;
+        i1 = (i1 | (i1 << 4)) & 0x0F0F0F0F;
+        i1 = (i1 | (i1 << 2)) & 0x33333333;
+        i1 = (i1 | (i1 << 1)) & 0x55555555;
+
+        return (i1 << 1) | i0;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+
+/**
+ * 카탈로그 위에 얹는 실시간 상태 스냅샷 (불변)
+ * - 실시간 API에 있는 충전소: API 응답의 충전기 목록을 그대로 참조
+ * - 실시간 API에 없는 충전소: 주작 상태를 seed + 충전소 id 로 결정적으로 생성 (목록은 저장하지 않고 필요할 때 재생성)
+ *   같은 seed 면 스냅샷/카탈로그 번호가 바뀌어도 같은 충전소는 같은 상태 → 변경 로그에 주작 상태 전이가 쌓이지 않음
+ * - 충전소별 충전가능/충전중/점검중 개수와 요약 문자열은 빌드 시 한 번만 계산
+ */
+public final class StationStatusSnapshot {
+
+    private final StationCatalog catalog;
+    private final long seed;
+    private final long version;
+    private final List<Map<String, String>>[] liveDetails;
+    private final String[] summaries;
+    private final int[] available;
+    private final int[] charging;
+    private final int[] check;
+    private final int[] total;
+
+    @SuppressWarnings("unchecked")
+    private StationStatusSnapshot(StationCatalog catalog, long seed, long version) {
+        int n = catalog.size();
+        this.catalog = catalog;
+        this.seed = seed;
+        this.version = version;
+        this.liveDetails = new List[n];
+        this.summaries = new String[n];
+        this.available = new int[n];
+        this.charging = new int[n];
+        this.check = new int[n];
+        this.total = new int[n];
+    }
+
+    public static StationStatusSnapshot build(StationCatalog catalog,
+                                              Map<String, List<Map<String, String>>> realtimeStatusMap,
+                                              long seed, long version) {
+        StationStatusSnapshot snapshot = new StationStatusSnapshot(catalog, seed, version);
+        Map<String, String> summaryPool = new HashMap<>();
+
+        for (int i = 0; i < catalog.size(); i++) {
+            List<Map<String, String>> details = realtimeStatusMap.get(catalog.id(i));
+            if (details != null && !details.isEmpty()) {
+                snapshot.liveDetails[i] = details;
+                int a = 0, c = 0, k = 0;
+                for (Map<String, String> d : details) {
+                    String s = d.get("status");
+                    if ("충전가능".equals(s)) a++;
+                    else if ("충전중".equals(s)) c++;
+                    else if ("점검중".equals(s)) k++;
+                }
+                snapshot.available[i] = a;
+                snapshot.charging[i] = c;
+                snapshot.check[i] = k;
+                snapshot.total[i] = details.size();
+                snapshot.summaries[i] = pool(summaryPool, details.get(0).getOrDefault("summary", "정보없음"));
+            } else {
+                snapshot.generateFake(i, null);
+                snapshot.summaries[i] = pool(summaryPool, fakeSummary(
+                        snapshot.available[i], snapshot.charging[i], snapshot.check[i], snapshot.total[i]));
+            }
+        }
+        return snapshot;
+    }
+
+    public StationCatalog catalog() { return catalog; }
+
+    long seed() { return seed; }
+
+    // 만든 순서대로 증가하는 번호 (응답 ETag 재료)
+    long version() { return version; }
+
+    // 충전기 개수(가능/충전중/점검중/전체)가 바뀐 ordinal - 스냅샷 교체 때 타일 제거 + 지역 합계 갱신에 같이 사용
+    // (증분 반영 후에도 바뀌지 않은 충전소의 ordinal 은 그대로라 같은 ordinal 끼리 비교, 새 ordinal 은 증분 반영 때 처리됨)
+    static int[] countChanges(StationStatusSnapshot previous, StationStatusSnapshot current) {
+        int n = Math.min(previous.catalog.size(), current.catalog.size());
+        int[] ordinals = new int[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (previous.available[i] != current.available[i] || previous.charging[i] != current.charging[i]
+                    || previous.check[i] != current.check[i] || previous.total[i] != current.total[i]) {
+                ordinals[size++] = i;
+            }
+        }
+        return Arrays.copyOf(ordinals, size);
+    }
+    public boolean isLive(int i) { return liveDetails[i] != null; }
+    public String status(int i) { return summaries[i]; }
+    public int available(int i) { return available[i]; }
+    public int charging(int i) { return charging[i]; }
+    public int check(int i) { return check[i]; }
+    public int total(int i) { return total[i]; }
+
+    // 충전기별 상세 (실시간이면 API 응답 그대로, 아니면 주작 목록 재생성)
+    public List<Map<String, String>> details(int i) {
+        List<Map<String, String>> live = liveDetails[i];
+        if (live != null) return live;
+        List<Map<String, String>> fakeList = new ArrayList<>(4);
+        generateFake(i, fakeList);
+        return fakeList;
+    }
+
+    // ⚙️ 실시간 데이터 없을 경우 → 주작 생성 (같은 seed + 충전소 id 면 항상 같은 결과)
+    private void generateFake(int i, List<Map<String, String>> out) {
+        String id = catalog.id(i);
+        String chargerType = catalog.chargerType(i);
+
+        int count;
+        if (chargerType.contains("+")) count = chargerType.split("\\+").length;
+        else if (chargerType.contains("콤보")) count = 2;
+        else count = 1;
+
+        SplittableRandom random = new SplittableRandom(seed ^ (id.hashCode() * 0x9E3779B97F4A7C15L));
+        int a = 0, c = 0, k = 0;
+        for (int n = 1; n <= count; n++) {
+            int r = random.nextInt(100);
+            String fakeStatus;
+            if (r < 60) { fakeStatus = "충전가능"; a++; }
+            else if (r < 85) { fakeStatus = "충전중"; c++; }
+            else { fakeStatus = "점검중"; k++; }
+
+            if (out != null) {
+                Map<String, String> fake = new LinkedHashMap<>();
+                fake.put("speed", (chargerType.contains("완속")) ? "완속" : "급속");
+                fake.put("chargerType", chargerType);
+                fake.put("status", fakeStatus);
+                fake.put("chgerId", id + "-" + String.format("%02d", n));
+                out.add(fake);
+            }
+        }
+
+        // 개수는 빌드 시(out == null)에만 기록 - 이후에는 읽기 전용
+        if (out == null) {
+            available[i] = a;
+            charging[i] = c;
+            check[i] = k;
+            total[i] = count;
+        }
+    }
+
+    private static String fakeSummary(int available, int charging, int check, int total) {
+        if (charging == total) return total + "/" + total + " 충전중";
+        else if (check == total) return total + "/" + total + " 점검중";
+        else if (available == total) return total + "/" + total + " 충전가능";
+        else if (charging > 0) return charging + "/" + total + " 충전중";
+        else if (check > 0) return check + "/" + total + " 점검중";
+        else return available + "/" + total + " 충전가능";
+    }
+
+    private static String pool(Map<String, String> pool, String value) {
+        String pooled = pool.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+}
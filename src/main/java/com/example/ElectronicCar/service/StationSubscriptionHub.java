@@ -0,0 +1,469 @@
+package com.example.ElectronicCar.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntPredicate;
+
+/**
+ * 화면 범위 구독 (SSE) - 상태 변경분 중 구독 범위 + 필터에 들어오는 충전소만 보냄
+ * - 구독 공간 인덱스: 구독 범위가 타일 2x2 안에 들어가는 줌을 골라 그 줌의 메르카토르 타일 칸에 등록
+ *   → 바뀐 충전소 1곳마다 구독이 있는 줌 수만큼만 칸을 조회 (구독자 전체를 보지 않음)
+ * - 연결은 SseEmitter (비동기 서블릿) → 기다리는 연결은 스레드를 잡지 않고, 보낼 때만 가상 스레드 사용
+ * - 연결마다 보낼 이벤트 큐 (최대 queueSize 개), 느린 연결이라 넘치면 쌓인 이벤트를 버리고 resync 이벤트 1개로 대체
+ * - 변경분 → 구독별 내용 모으기는 ticker 스레드 1개에서만 (구독마다 모으는 중인 목록을 필드에 둠, 맵 조회 없음)
+ *   칸 목록은 바꿀 때마다 새 배열로 교체(copy-on-write) → ticker 는 락 없이 읽고, 구독/이동 요청은 전달을 기다리지 않음
+ * - 새 구독의 인덱스 등록 + 놓친 변경분 재전송은 ticker 에서 한 작업으로 → 재전송이 이후 변경분보다 먼저, 중복 없이 나감
+ * - pollInterval 마다 상태 스냅샷 갱신 확인(refresher) + 하트비트 (끊긴 연결 정리)
+ * - 구독 id 는 추측할 수 없는 128비트 난수 (id 만 알면 범위를 바꿀 수 있으므로 순번을 쓰지 않음)
+ */
+final class StationSubscriptionHub {
+
+    static final int MAX_ZOOM = 16;
+
+    private final int maxSubscriptions;
+    private final int queueSize;
+    private final long timeoutMillis;
+    private final StationChangeLog log;
+
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService ticker;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    // 칸 키 (z << 58 | x << 29 | y) → 그 칸에 등록된 구독 (배열은 바꾸지 않고 교체, 교체는 indexLock 안에서만)
+    private final ConcurrentHashMap<Long, Subscription[]> cells = new ConcurrentHashMap<>();
+    private final AtomicIntegerArray zoomCounts = new AtomicIntegerArray(MAX_ZOOM + 1);
+    private final Object indexLock = new Object();
+
+    // 같은 필터를 쓰는 구독끼리 번호 공유 (변경분마다 필터 판정은 필터 번호당 한 번)
+    private final Map<Map<String, Set<String>>, Integer> filterIds = new HashMap<>();   // indexLock
+    private final List<StationFilter> filters = new CopyOnWriteArrayList<>();
+    private int candidateStamp = 0;   // 한 좌표의 후보 중복 제거용 (ticker 스레드에서만)
+
+    /**
+     * 현재 카탈로그 기준 id → 번호, 필터 → 번호 판정
+     */
+    interface Matcher {
+        int ordinalOf(String id);
+
+        IntPredicate filter(StationFilter filter);
+    }
+
+    /**
+     * 구독 1개 (연결 1개)
+     */
+    static final class Subscription {
+        final String id;
+        final SseEmitter emitter;
+        final StationFilter filter;
+        private final int filterId;     // 필터가 없으면 -1
+
+        // 범위 {minLat, minLng, maxLat, maxLng} (통째로 교체), 등록된 칸은 indexLock 안에서만
+        private volatile double[] bounds;
+        private long[] cellKeys = new long[0];
+        private int zoom;
+        private boolean indexed = false;
+
+        // ticker 스레드에서만: 이 버전까지는 등록 시 재전송으로 처리됨 (publish 는 이후 버전만), 후보 중복 제거 표시
+        private long after = Long.MAX_VALUE;
+        private int stamp;
+
+        // 보낼 이벤트 (this 락)
+        private final ArrayDeque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean sending = false;
+        private volatile boolean closed = false;
+
+        // 변경분 1개를 모으는 중인 내용 (ticker 스레드에서만)
+        private Map<String, Object> pending;
+        private List<Object> pendingAdded, pendingUpdated, pendingRemoved, pendingStatuses;
+
+        private Subscription(String id, SseEmitter emitter, StationFilter filter, int filterId, double[] bounds) {
+            this.id = id;
+            this.emitter = emitter;
+            this.filter = filter;
+            this.filterId = filterId;
+            this.bounds = bounds;
+        }
+
+        private boolean contains(double lat, double lng) {
+            double[] b = bounds;
+            return lat >= b[0] && lat <= b[2] && lng >= b[1] && lng <= b[3];
+        }
+    }
+
+    StationSubscriptionHub(int maxSubscriptions, int queueSize, long timeoutMillis, long pollIntervalMillis,
+                           StationChangeLog log, Runnable refresher) {
+        this.maxSubscriptions = maxSubscriptions;
+        this.queueSize = Math.max(1, queueSize);
+        this.timeoutMillis = timeoutMillis;
+        this.log = log;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ev-subscription-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> {
+            if (subscriptions.isEmpty()) return;
+            try {
+                refresher.run();
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ 구독용 상태 갱신 실패: " + e.getMessage());
+            }
+            heartbeat();
+        }, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    int size() {
+        return subscriptions.size();
+    }
+
+    // 새 구독 (구독 수가 가득 찼으면 null)
+    // 인덱스 등록과 첫 이벤트는 ticker 에서: subscribed { id, version } → (since 가 있으면) 놓친 변경분 또는 resync → 이후 변경분
+    Subscription subscribe(double minLat, double minLng, double maxLat, double maxLng, StationFilter filter,
+                           Long since, Matcher matcher) {
+        if (subscriptions.size() >= maxSubscriptions) return null;
+
+        int filterId = -1;
+        if (!filter.isEmpty()) {
+            synchronized (indexLock) {
+                filterId = filterIds.computeIfAbsent(filter.selections(), k -> {
+                    filters.add(filter);
+                    return filters.size() - 1;
+                });
+            }
+        }
+        Subscription subscription = new Subscription(newId(), new SseEmitter(timeoutMillis), filter, filterId,
+                new double[]{minLat, minLng, maxLat, maxLng});
+        subscription.emitter.onCompletion(() -> remove(subscription));
+        subscription.emitter.onTimeout(() -> remove(subscription));
+        subscription.emitter.onError(error -> remove(subscription));
+        subscriptions.put(subscription.id, subscription);
+
+        ticker.execute(() -> {
+            if (subscription.closed) return;
+            // 이 시점의 버전까지는 여기서 처리, 이후 버전은 뒤에 대기 중인 publish 가 전달
+            long version = log.version();
+            List<StationChangeLog.Changeset> missed = since == null ? List.of() : log.changesetsSince(since);
+            subscription.after = version;
+            synchronized (indexLock) {
+                if (subscription.closed) return;
+                index(subscription);
+            }
+
+            send(subscription, "subscribed", null, Map.of("id", subscription.id, "version", version));
+            if (missed == null) {
+                resync(subscription);
+                return;
+            }
+            for (StationChangeLog.Changeset changeset : missed) {
+                if (changeset.version() > version) break;
+                if (!collect(changeset, matcher, subscription).isEmpty()) {
+                    send(subscription, "changes", changeset.version(), take(subscription));
+                }
+            }
+        });
+        return subscription;
+    }
+
+    // 구독 id (128비트 난수, 16진수 32자)
+    private String newId() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    // 구독 범위만 바꿈 (화면 이동, 연결은 그대로) - 없는 구독이면 false
+    boolean move(String id, double minLat, double minLng, double maxLat, double maxLng) {
+        Subscription subscription = subscriptions.get(id);
+        if (subscription == null || subscription.closed) return false;
+        synchronized (indexLock) {
+            // 새 칸에 먼저 등록하고 이전 칸에서 뺌 → 이동 중에도 전달이 빠지지 않음
+            long[] previous = subscription.cellKeys;
+            int previousZoom = subscription.zoom;
+            boolean wasIndexed = subscription.indexed;
+            subscription.bounds = new double[]{minLat, minLng, maxLat, maxLng};
+            if (!wasIndexed) return true;   // 아직 ticker 가 등록 전 → 등록할 때 새 범위 사용
+            index(subscription);
+            unindex(subscription, previous, previousZoom, subscription.cellKeys);
+        }
+        return true;
+    }
+
+    // 새 변경분을 범위 안 구독에 전달 (순서 유지를 위해 ticker 스레드에서 차례로 처리)
+    void publish(StationChangeLog.Changeset changeset, Matcher matcher) {
+        ticker.execute(() -> {
+            long start = System.currentTimeMillis();
+            List<Subscription> touched = collect(changeset, matcher, null);
+            for (Subscription subscription : touched) {
+                send(subscription, "changes", changeset.version(), take(subscription));
+            }
+            if (!touched.isEmpty()) {
+                System.out.println("📡 구독 전달 v" + changeset.version() + ": " + touched.size() + "/"
+                        + subscriptions.size() + "개 연결 (" + (System.currentTimeMillis() - start) + "ms)");
+            }
+        });
+    }
+
+    void resync(Subscription subscription) {
+        send(subscription, "resync", null, Map.of("version", log.version()));
+    }
+
+    // 이벤트 1개를 큐에 넣고, 보내는 중이 아니면 가상 스레드에서 보내기 시작
+    void send(Subscription subscription, String name, Long eventVersion, Object data) {
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+        if (eventVersion != null) event.id(String.valueOf(eventVersion));
+        enqueue(subscription, event);
+    }
+
+    void close() {
+        ticker.shutdownNow();
+        sender.shutdownNow();
+        for (Subscription subscription : subscriptions.values()) {
+            subscription.emitter.complete();
+        }
+    }
+
+    // ---- 보내기 ----
+
+    private void enqueue(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        synchronized (subscription) {
+            if (subscription.closed) return;
+            if (subscription.queue.size() >= queueSize) {
+                // 밀린 이벤트는 버리고 전체 다시 받기 요청 1개만 남김
+                subscription.queue.clear();
+                event = SseEmitter.event().name("resync")
+                        .data(Map.of("version", log.version()), MediaType.APPLICATION_JSON);
+            }
+            subscription.queue.add(event);
+            if (subscription.sending) return;
+            subscription.sending = true;
+        }
+        sender.execute(() -> drain(subscription));
+    }
+
+    private void drain(Subscription subscription) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            synchronized (subscription) {
+                event = subscription.queue.poll();
+                if (event == null || subscription.closed) {
+                    subscription.sending = false;
+                    return;
+                }
+            }
+            try {
+                subscription.emitter.send(event);
+            } catch (Exception e) {
+                remove(subscription);
+                subscription.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    // 보낼 것이 없는 연결에만 주석 한 줄 (프록시 유휴 타임아웃 방지 + 끊긴 연결 감지)
+    private void heartbeat() {
+        for (Subscription subscription : subscriptions.values()) {
+            synchronized (subscription) {
+                if (subscription.sending || !subscription.queue.isEmpty()) continue;
+            }
+            enqueue(subscription, SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        synchronized (subscription) {
+            if (subscription.closed) return;
+            subscription.closed = true;
+            subscription.queue.clear();
+        }
+        subscriptions.remove(subscription.id);
+        synchronized (indexLock) {
+            if (subscription.indexed) {
+                unindex(subscription, subscription.cellKeys, subscription.zoom, new long[0]);
+                subscription.cellKeys = new long[0];
+                subscription.indexed = false;
+            }
+        }
+    }
+
+    // ---- 변경분 → 구독별 내용 ----
+
+    // 변경분 1개를 구독별로 나눠 pending 에 모음 → 내용이 생긴 구독 목록 반환 (ticker 스레드에서만, 락 없음)
+    // only 가 null 이면 공간 인덱스로 범위 안 구독을 찾고(등록 때 이미 받은 버전이면 제외), 아니면 그 구독만 검사
+    private List<Subscription> collect(StationChangeLog.Changeset changeset, Matcher matcher, Subscription only) {
+        List<Subscription> touched = new ArrayList<>();
+        List<Subscription> found = new ArrayList<>();
+        long version = changeset.version();
+
+        IntPredicate[] predicates = new IntPredicate[filters.size()];
+        for (StationChangeLog.StatusChange change : changeset.statuses()) {
+            int ordinal = -2;   // 필터가 있는 구독을 만났을 때만 조회
+            Map<String, Object> map = null;
+            for (Subscription subscription : candidates(change.lat(), change.lng(), version, only, found)) {
+                if (subscription.filterId >= 0) {
+                    if (ordinal == -2) ordinal = matcher.ordinalOf(change.id());
+                    if (!matches(subscription, ordinal, matcher, predicates)) continue;
+                }
+                if (map == null) map = change.toMap();
+                pending(subscription, changeset, touched).pendingStatuses.add(map);
+            }
+        }
+        for (boolean added : new boolean[]{true, false}) {
+            for (Map<String, Object> station : added ? changeset.added() : changeset.updated()) {
+                if (!(station.get("lat") instanceof Double lat) || !(station.get("lng") instanceof Double lng)) continue;
+                int ordinal = matcher.ordinalOf(String.valueOf(station.get("id")));
+                for (Subscription subscription : candidates(lat, lng, version, only, found)) {
+                    if (subscription.filterId >= 0 && !matches(subscription, ordinal, matcher, predicates)) continue;
+                    Subscription target = pending(subscription, changeset, touched);
+                    (added ? target.pendingAdded : target.pendingUpdated).add(station);
+                }
+            }
+        }
+        double[] points = changeset.removedPoints();
+        for (int k = 0; k < changeset.removed().size(); k++) {
+            for (Subscription subscription : candidates(points[2 * k], points[2 * k + 1], version, only, found)) {
+                pending(subscription, changeset, touched).pendingRemoved.add(changeset.removed().get(k));
+            }
+        }
+        return touched;
+    }
+
+    // (lat, lng) 를 범위에 포함하는 구독 (found 를 재사용해서 반환)
+    // 범위 이동 중에는 한 구독이 이전/새 칸에 같이 있을 수 있어 stamp 로 중복 제거
+    private List<Subscription> candidates(double lat, double lng, long version, Subscription only,
+                                          List<Subscription> found) {
+        found.clear();
+        if (only != null) {
+            if (only.contains(lat, lng)) found.add(only);
+            return found;
+        }
+        int stamp = ++candidateStamp;
+        double x = StationClusterPyramid.lngX(lng);
+        double y = StationClusterPyramid.latY(lat);
+        for (int z = 0; z <= MAX_ZOOM; z++) {
+            if (zoomCounts.get(z) == 0) continue;
+            Subscription[] cell = cells.get(cellKey(z, tile(x, z), tile(y, z)));
+            if (cell == null) continue;
+            for (Subscription subscription : cell) {
+                if (subscription.stamp == stamp || subscription.after >= version) continue;
+                subscription.stamp = stamp;
+                if (subscription.contains(lat, lng)) found.add(subscription);
+            }
+        }
+        return found;
+    }
+
+    private boolean matches(Subscription subscription, int ordinal, Matcher matcher, IntPredicate[] predicates) {
+        if (ordinal < 0) return false;
+        if (subscription.filterId >= predicates.length) {
+            // 이번 전달 중에 새로 생긴 필터
+            return matcher.filter(filters.get(subscription.filterId)).test(ordinal);
+        }
+        IntPredicate predicate = predicates[subscription.filterId];
+        if (predicate == null) {
+            predicate = matcher.filter(filters.get(subscription.filterId));
+            predicates[subscription.filterId] = predicate;
+        }
+        return predicate.test(ordinal);
+    }
+
+    private static Subscription pending(Subscription subscription, StationChangeLog.Changeset changeset,
+                                        List<Subscription> touched) {
+        if (subscription.pending == null) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("version", changeset.version());
+            payload.put("added", subscription.pendingAdded = new ArrayList<>());
+            payload.put("updated", subscription.pendingUpdated = new ArrayList<>());
+            payload.put("removed", subscription.pendingRemoved = new ArrayList<>());
+            payload.put("statuses", subscription.pendingStatuses = new ArrayList<>());
+            subscription.pending = payload;
+            touched.add(subscription);
+        }
+        return subscription;
+    }
+
+    // 모은 내용을 꺼내고 비움
+    private static Map<String, Object> take(Subscription subscription) {
+        Map<String, Object> payload = subscription.pending;
+        subscription.pending = null;
+        subscription.pendingAdded = subscription.pendingUpdated = null;
+        subscription.pendingRemoved = subscription.pendingStatuses = null;
+        return payload;
+    }
+
+    // ---- 구독 공간 인덱스 (indexLock 안에서 호출) ----
+
+    // 현재 범위로 칸 등록 (이미 등록된 칸 정리는 호출한 쪽에서)
+    private void index(Subscription subscription) {
+        double[] b = subscription.bounds;
+        double minX = StationClusterPyramid.lngX(b[1]), maxX = StationClusterPyramid.lngX(b[3]);
+        double minY = StationClusterPyramid.latY(b[2]), maxY = StationClusterPyramid.latY(b[0]);
+        double span = Math.max(maxX - minX, maxY - minY);
+        // 타일 한 변 >= 범위 크기인 가장 큰 줌 → 범위는 타일 2x2 이내
+        int zoom = span <= 0 ? MAX_ZOOM : (int) Math.max(0, Math.min(MAX_ZOOM, Math.floor(-Math.log(span) / Math.log(2))));
+
+        int x0 = tile(minX, zoom), x1 = tile(maxX, zoom);
+        int y0 = tile(minY, zoom), y1 = tile(maxY, zoom);
+        long[] keys = new long[(x1 - x0 + 1) * (y1 - y0 + 1)];
+        int k = 0;
+        zoomCounts.incrementAndGet(zoom);
+        for (int x = x0; x <= x1; x++) {
+            for (int y = y0; y <= y1; y++) {
+                keys[k] = cellKey(zoom, x, y);
+                cells.compute(keys[k], (key, cell) -> {
+                    if (cell == null) return new Subscription[]{subscription};
+                    Subscription[] grown = Arrays.copyOf(cell, cell.length + 1);
+                    grown[cell.length] = subscription;
+                    return grown;
+                });
+                k++;
+            }
+        }
+        subscription.cellKeys = keys;
+        subscription.zoom = zoom;
+        subscription.indexed = true;
+    }
+
+    // 지정한 칸들에서 구독 제거 (keep 에 있는 칸 = 새로 등록한 칸은 남김)
+    private void unindex(Subscription subscription, long[] keys, int zoom, long[] keep) {
+        if (keys.length == 0) return;
+        for (long key : keys) {
+            if (contains(keep, key)) continue;
+            cells.computeIfPresent(key, (k, cell) -> {
+                int at = -1;
+                for (int i = 0; i < cell.length; i++) {
+                    if (cell[i] == subscription) at = i;
+                }
+                if (at < 0) return cell;
+                if (cell.length == 1) return null;
+                Subscription[] shrunk = new Subscription[cell.length - 1];
+                System.arraycopy(cell, 0, shrunk, 0, at);
+                System.arraycopy(cell, at + 1, shrunk, at, cell.length - at - 1);
+                return shrunk;
+            });
+        }
+        zoomCounts.decrementAndGet(zoom);
+    }
+
+    private static boolean contains(long[] keys, long key) {
+        for (long k : keys) {
+            if (k == key) return true;
+        }
+        return false;
+    }
+
+    private static int tile(double value, int zoom) {
+        int n = 1 << zoom;
+        return Math.max(0, Math.min(n - 1, (int) Math.floor(value * n)));
+    }
+
+    private static long cellKey(int z, int x, int y) {
+        return ((long) z << 58) | ((long) x << 29) | y;
+    }
+}
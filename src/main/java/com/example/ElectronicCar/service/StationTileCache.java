@@ -0,0 +1,99 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+
+/**
+ * 인코딩된 벡터 타일 LRU 캐시 (z/x/y → 바이트)
+ * - 줌 16 이하 타일은 만든 클러스터 계층을 같이 저장 → 계층이 다시 빌드되면 조회 시 무효 (클러스터는 전역 재계산이라 타일 단위로 못 고침)
+ * - 충전소 좌표/상태가 바뀌면 그 충전소가 걸친 타일만 (버퍼 포함, 캐시에 있는 줌만) 제거
+ * - 렌더링 도중 무효화가 일어나면 결과를 저장하지 않음 (generation 비교)
+ */
+final class StationTileCache {
+
+    static final int MAX_ZOOM = 22;
+
+    private final int capacity;
+    private final int[] zoomCounts = new int[MAX_ZOOM + 1];
+    private final LinkedHashMap<Long, Entry> tiles;
+    private long generation;
+
+    private record Entry(int zoom, Object source, byte[] bytes) {
+    }
+
+    StationTileCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.tiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= StationTileCache.this.capacity) return false;
+                zoomCounts[eldest.getValue().zoom()]--;
+                return true;
+            }
+        };
+    }
+
+    private static long key(int z, int x, int y) {
+        return ((long) z << 58) | ((long) x << 29) | y;
+    }
+
+    // source: 타일을 만든 클러스터 계층 (충전소 줌이면 null) - 다르면 없는 것으로 처리
+    synchronized byte[] get(int z, int x, int y, Object source) {
+        Entry entry = tiles.get(key(z, x, y));
+        return entry != null && entry.source() == source ? entry.bytes() : null;
+    }
+
+    // 렌더링 시작 전에 받아 두었다가 put 에 그대로 전달
+    synchronized long generation() {
+        return generation;
+    }
+
+    synchronized void put(int z, int x, int y, Object source, byte[] bytes, long generation) {
+        if (generation != this.generation) return;
+        Entry previous = tiles.put(key(z, x, y), new Entry(z, source, bytes));
+        if (previous == null) zoomCounts[z]++;
+    }
+
+    synchronized int size() {
+        return tiles.size();
+    }
+
+    synchronized void clear() {
+        tiles.clear();
+        Arrays.fill(zoomCounts, 0);
+        generation++;
+    }
+
+    // 카탈로그 증분 반영: 이전 위치(stale)와 새 위치(changed) 타일 제거
+    void invalidate(StationCatalogDelta delta) {
+        invalidate(delta.previous(), delta.stale(), delta.stale().length);
+        invalidate(delta.current(), delta.changed(), delta.changed().length);
+    }
+
+    // 상태 스냅샷 교체: 개수가 바뀐 충전소(StationStatusSnapshot.countChanges) 타일 제거
+    void invalidate(StationStatusSnapshot current, int[] changed) {
+        invalidate(current.catalog(), changed, changed.length);
+    }
+
+    private synchronized void invalidate(StationCatalog catalog, int[] ordinals, int size) {
+        generation++;
+        double pad = (double) StationVectorTile.BUFFER / StationVectorTile.EXTENT;
+        for (int z = 0; z <= MAX_ZOOM; z++) {
+            if (zoomCounts[z] == 0) continue;
+            int tileCount = 1 << z;
+            for (int k = 0; k < size; k++) {
+                double px = StationClusterPyramid.lngX(catalog.lng(ordinals[k])) * tileCount;
+                double py = StationClusterPyramid.latY(catalog.lat(ordinals[k])) * tileCount;
+                if (Double.isNaN(px) || Double.isNaN(py)) continue;
+
+                // 점이 들어 있는 타일 + 버퍼 거리 안의 이웃 타일
+                int minX = Math.max(0, (int) Math.floor(px - pad)), maxX = Math.min(tileCount - 1, (int) Math.floor(px + pad));
+                int minY = Math.max(0, (int) Math.floor(py - pad)), maxY = Math.min(tileCount - 1, (int) Math.floor(py + pad));
+                for (int tx = minX; tx <= maxX; tx++) {
+                    for (int ty = minY; ty <= maxY; ty++) {
+                        if (tiles.remove(key(z, tx, ty)) != null) zoomCounts[z]--;
+                    }
+                }
+            }
+        }
+    }
+}
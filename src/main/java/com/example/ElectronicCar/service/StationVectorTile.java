@@ -0,0 +1,180 @@
+package com.example.ElectronicCar.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 벡터 타일 1장 (Mapbox Vector Tile 2.1, protobuf 직접 인코딩 - 라이브러리 없음)
+ * - 레이어 clusters: 점 + cluster_id, point_count
+ * - 레이어 stations: 점 + id, name, chargerType (+ 상태 스냅샷이 있으면 available, charging, check, total)
+ * - 좌표는 타일 안 EXTENT x EXTENT 격자, 타일 밖 BUFFER 만큼의 점도 포함 (경계에 걸친 마커가 잘리지 않도록)
+ */
+final class StationVectorTile {
+
+    static final int EXTENT = 4096;
+    static final int BUFFER = 64;
+
+    private final int x, y;
+    private final double scale;
+    private final Layer clusters = new Layer("clusters");
+    private final Layer stations = new Layer("stations");
+
+    StationVectorTile(int z, int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.scale = 1L << z;
+    }
+
+    // 버퍼를 포함한 타일 범위 (메르카토르 [0, 1] 좌표: minX, minY, maxX, maxY)
+    double[] bounds() {
+        double pad = (double) BUFFER / EXTENT;
+        return new double[]{(x - pad) / scale, (y - pad) / scale, (x + 1 + pad) / scale, (y + 1 + pad) / scale};
+    }
+
+    void addCluster(double mx, double my, long clusterId, int count) {
+        clusters.begin(clusterId);
+        clusters.tag("cluster_id", clusterId);
+        clusters.tag("point_count", count);
+        clusters.end(tileX(mx), tileY(my));
+    }
+
+    // snapshot 이 null 이면 상태 없이 위치/이름만
+    void addStation(double mx, double my, StationCatalog catalog, int ordinal, StationStatusSnapshot snapshot) {
+        stations.begin(-1);
+        stations.tag("id", catalog.id(ordinal));
+        stations.tag("name", catalog.name(ordinal));
+        stations.tag("chargerType", catalog.chargerType(ordinal));
+        if (snapshot != null) {
+            stations.tag("available", snapshot.available(ordinal));
+            stations.tag("charging", snapshot.charging(ordinal));
+            stations.tag("check", snapshot.check(ordinal));
+            stations.tag("total", snapshot.total(ordinal));
+        }
+        stations.end(tileX(mx), tileY(my));
+    }
+
+    private int tileX(double mx) {
+        return (int) Math.round((mx * scale - x) * EXTENT);
+    }
+
+    private int tileY(double my) {
+        return (int) Math.round((my * scale - y) * EXTENT);
+    }
+
+    // Tile { repeated Layer layers = 3; } - 점이 없는 레이어는 생략
+    byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Layer layer : List.of(clusters, stations)) {
+            if (layer.count > 0) writeBytes(out, 3, layer.encode());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 레이어 1개 (속성 키/값은 레이어 안에서 사전으로 공유)
+     */
+    private static final class Layer {
+        private final String name;
+        private final ByteArrayOutputStream features = new ByteArrayOutputStream();
+        private final Map<String, Integer> keys = new LinkedHashMap<>();
+        private final Map<Object, Integer> values = new LinkedHashMap<>();
+        private int count;
+
+        // 만드는 중인 feature
+        private long id;
+        private final ByteArrayOutputStream tags = new ByteArrayOutputStream();
+
+        Layer(String name) {
+            this.name = name;
+        }
+
+        void begin(long id) {
+            this.id = id;
+            tags.reset();
+        }
+
+        void tag(String key, Object value) {
+            if (value == null) return;
+            Object normalized = value instanceof Number number ? (Object) number.longValue() : value;
+            writeVarint(tags, keys.computeIfAbsent(key, k -> keys.size()));
+            writeVarint(tags, values.computeIfAbsent(normalized, k -> values.size()));
+        }
+
+        // Feature { id = 1; tags = 2 (packed); type = 3 (POINT); geometry = 4 (packed: MoveTo(1) + zigzag x, y) }
+        void end(int px, int py) {
+            ByteArrayOutputStream feature = new ByteArrayOutputStream();
+            if (id >= 0) {
+                writeTag(feature, 1, 0);
+                writeVarint(feature, id);
+            }
+            writeBytes(feature, 2, tags.toByteArray());
+            writeTag(feature, 3, 0);
+            writeVarint(feature, 1);
+
+            ByteArrayOutputStream geometry = new ByteArrayOutputStream();
+            writeVarint(geometry, (1 << 3) | 1);
+            writeVarint(geometry, zigzag(px));
+            writeVarint(geometry, zigzag(py));
+            writeBytes(feature, 4, geometry.toByteArray());
+
+            writeBytes(features, 2, feature.toByteArray());
+            count++;
+        }
+
+        // Layer { version = 15; name = 1; features = 2; keys = 3; values = 4; extent = 5 }
+        byte[] encode() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeTag(out, 15, 0);
+            writeVarint(out, 2);
+            writeBytes(out, 1, name.getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(features.toByteArray());
+            for (String key : keys.keySet()) {
+                writeBytes(out, 3, key.getBytes(StandardCharsets.UTF_8));
+            }
+            for (Object value : values.keySet()) {
+                // Value { string_value = 1; uint_value = 5; sint_value = 6 }
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                if (value instanceof Long number) {
+                    if (number >= 0) {
+                        writeTag(encoded, 5, 0);
+                        writeVarint(encoded, number);
+                    } else {
+                        writeTag(encoded, 6, 0);
+                        writeVarint(encoded, (number << 1) ^ (number >> 63));
+                    }
+                } else {
+                    writeBytes(encoded, 1, value.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                writeBytes(out, 4, encoded.toByteArray());
+            }
+            writeTag(out, 5, 0);
+            writeVarint(out, EXTENT);
+            return out.toByteArray();
+        }
+    }
+
+    // ---- protobuf 인코딩 ----
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static void writeTag(ByteArrayOutputStream out, int field, int wireType) {
+        writeVarint(out, ((long) field << 3) | wireType);
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, int field, byte[] bytes) {
+        writeTag(out, field, 2);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.ElectronicCar.service;
+
+import java.util.*;
+
+/**
+ * 카탈로그 + 실시간 스냅샷을 기존 /api/ev/all JSON 형태(List<Map>)로 보여주는 읽기 전용 뷰
+ * - 충전소별 Map을 미리 만들어 두지 않고, 직렬화 시점에 컬럼에서 바로 읽음
+ * - 키 순서: id, name, addr, operator, lat, lng, chargerType, status, realtime
+ * - 필드 선택(projection): 위 키 + 충전기 개수(available, charging, check, total) 중 일부만 (순서는 FIELDS 순서)
+ */
+public final class StationViews {
+
+    private static final String[] STATION_KEYS = {
+            "id", "name", "addr", "operator", "lat", "lng", "chargerType", "status", "realtime"
+    };
+
+    // 선택 가능한 필드 전체 (컬럼 형식의 필드 비트 순서와 같음)
+    static final List<String> FIELDS = List.of(
+            "id", "name", "addr", "operator", "lat", "lng", "chargerType", "status", "realtime",
+            "available", "charging", "check", "total"
+    );
+
+    private StationViews() {
+    }
+
+    // fields=... 파라미터 → 필드 배열 (없으면 기본 키, 모르는 필드가 있으면 null)
+    // statusSummary 는 status 와 같음, realtime 의 chgerId 는 충전소 id 기준이므로 realtime 을 고르면 id 도 포함
+    public static String[] projection(Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) return STATION_KEYS;
+        Set<String> selected = new HashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (name.isEmpty()) continue;
+            if (name.equals("statusSummary")) name = "status";
+            if (!FIELDS.contains(name)) return null;
+            selected.add(name);
+        }
+        if (selected.isEmpty()) return STATION_KEYS;
+        if (selected.contains("realtime")) selected.add("id");
+        return FIELDS.stream().filter(selected::contains).toArray(String[]::new);
+    }
+
+    // 필드 배열 → 비트 (FIELDS 순서, ETag/바이너리 헤더용)
+    static int fieldMask(String[] keys) {
+        int mask = 0;
+        for (String key : keys) mask |= 1 << FIELDS.indexOf(key);
+        return mask;
+    }
+
+    public static List<Map<String, Object>> stations(StationStatusSnapshot snapshot) {
+        return stations(snapshot, STATION_KEYS);
+    }
+
+    public static List<Map<String, Object>> stations(StationStatusSnapshot snapshot, String[] keys) {
+        return new AbstractList<>() {
+            @Override
+            public Map<String, Object> get(int index) {
+                Objects.checkIndex(index, size());
+                return new StationMap(snapshot, index, keys);
+            }
+
+            @Override
+            public int size() {
+                return snapshot.catalog().size();
+            }
+        };
+    }
+
+    public static Map<String, Object> station(StationStatusSnapshot snapshot, int ordinal) {
+        return new StationMap(snapshot, ordinal, STATION_KEYS);
+    }
+
+    static Map<String, Object> station(StationStatusSnapshot snapshot, int ordinal, String[] keys) {
+        return new StationMap(snapshot, ordinal, keys);
+    }
+
+    // 상세 조회용: 기본 키 + 충전기 개수까지 전부
+    static Map<String, Object> detail(StationStatusSnapshot snapshot, int ordinal) {
+        return new StationMap(snapshot, ordinal, FIELDS.toArray(String[]::new));
+    }
+
+    private static final class StationMap extends AbstractMap<String, Object> {
+
+        private final StationStatusSnapshot snapshot;
+        private final int ordinal;
+        private final String[] keys;
+
+        StationMap(StationStatusSnapshot snapshot, int ordinal, String[] keys) {
+            this.snapshot = snapshot;
+            this.ordinal = ordinal;
+            this.keys = keys;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return containsKey(key) ? valueOf((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (!(key instanceof String name)) return false;
+            for (String k : keys) {
+                if (k.equals(name)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            String key = keys[next++];
+                            return new SimpleImmutableEntry<>(key, valueOf(key));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+
+        private Object valueOf(String key) {
+            StationCatalog catalog = snapshot.catalog();
+            return switch (key) {
+                case "id" -> catalog.id(ordinal);
+                case "name" -> catalog.name(ordinal);
+                case "addr" -> catalog.addr(ordinal);
+                case "operator" -> catalog.operator(ordinal);
+                case "lat" -> catalog.lat(ordinal);
+                case "lng" -> catalog.lng(ordinal);
+                case "chargerType" -> catalog.chargerType(ordinal);
+                case "status" -> snapshot.status(ordinal);
+                case "realtime" -> snapshot.details(ordinal);
+                case "available" -> snapshot.available(ordinal);
+                case "charging" -> snapshot.charging(ordinal);
+                case "check" -> snapshot.check(ordinal);
+                case "total" -> snapshot.total(ordinal);
+                default -> null;
+            };
+        }
+    }
+}
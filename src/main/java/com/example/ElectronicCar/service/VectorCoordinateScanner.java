@@ -0,0 +1,105 @@
+package com.example.ElectronicCar.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 좌표 전수 조사 - SIMD 구현 (jdk.incubator.vector)
+ * - 플랫폼 선호 폭(AVX2 4레인, AVX-512 8레인)으로 lat/lng 를 한 번에 비교하고 마스크의 비트로 결과 추출
+ * - ordinals 가 주어지면(흩어진 인덱스) gather 로드가 스칼라보다 느리므로 스칼라 구현에 위임
+ * - --add-modules jdk.incubator.vector 로 실행했을 때만 로드됨 (StationCoordinateScanners 참고)
+ */
+final class VectorCoordinateScanner implements StationCoordinateScanner {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final ScalarCoordinateScanner scalar = new ScalarCoordinateScanner();
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.length() + "x64";
+    }
+
+    @Override
+    public int filterBox(double[] lats, double[] lngs, int[] ordinals, int size,
+                         double minLat, double minLng, double maxLat, double maxLng, int[] out) {
+        if (ordinals != null) {
+            return scalar.filterBox(lats, lngs, ordinals, size, minLat, minLng, maxLat, maxLng, out);
+        }
+
+        int lanes = SPECIES.length();
+        int upper = SPECIES.loopBound(size);
+        int count = 0;
+
+        for (int k = 0; k < upper; k += lanes) {
+            DoubleVector la = DoubleVector.fromArray(SPECIES, lats, k);
+            DoubleVector lo = DoubleVector.fromArray(SPECIES, lngs, k);
+            VectorMask<Double> mask = la.compare(VectorOperators.GE, minLat)
+                    .and(la.compare(VectorOperators.LE, maxLat))
+                    .and(lo.compare(VectorOperators.GE, minLng))
+                    .and(lo.compare(VectorOperators.LE, maxLng));
+
+            long bits = mask.toLong();
+            while (bits != 0) {
+                int lane = Long.numberOfTrailingZeros(bits);
+                out[count++] = k + lane;
+                bits &= bits - 1;
+            }
+        }
+
+        // 남은 꼬리 구간은 스칼라로
+        for (int i = upper; i < size; i++) {
+            double lat = lats[i], lng = lngs[i];
+            if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int withinRadius(double[] lats, double[] lngs, int[] ordinals, int size,
+                            double lat, double lng, double radiusMeters,
+                            int[] outOrdinals, double[] outDistances) {
+        if (ordinals != null) {
+            return scalar.withinRadius(lats, lngs, ordinals, size, lat, lng, radiusMeters, outOrdinals, outDistances);
+        }
+
+        int lanes = SPECIES.length();
+        int upper = SPECIES.loopBound(size);
+        double kx = Math.cos(Math.toRadians(lat)) * DEG_TO_M;
+        double r2 = radiusMeters * radiusMeters;
+        double[] laneDistances = new double[lanes];
+        int count = 0;
+
+        for (int k = 0; k < upper; k += lanes) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, lngs, k).sub(lng).mul(kx);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, lats, k).sub(lat).mul(DEG_TO_M);
+            DoubleVector d2 = dx.mul(dx).add(dy.mul(dy));
+
+            long bits = d2.compare(VectorOperators.LE, r2).toLong();
+            if (bits == 0) continue;
+            d2.intoArray(laneDistances, 0);
+            while (bits != 0) {
+                int lane = Long.numberOfTrailingZeros(bits);
+                outOrdinals[count] = k + lane;
+                outDistances[count++] = Math.sqrt(laneDistances[lane]);
+                bits &= bits - 1;
+            }
+        }
+
+        // 남은 꼬리 구간은 스칼라로
+        for (int i = upper; i < size; i++) {
+            double dx = (lngs[i] - lng) * kx;
+            double dy = (lats[i] - lat) * DEG_TO_M;
+            double d2 = dx * dx + dy * dy;
+            if (d2 <= r2) {
+                outOrdinals[count] = i;
+                outDistances[count++] = Math.sqrt(d2);
+            }
+        }
+        return count;
+    }
+}
@@ -9,7 +9,8 @@ function loadFavorites() {
         return;
     }
 
-    fetch(`/favorites/user/${user.username}`)
+    // 즐겨찾기 + 충전소별 실시간 상태를 한 번에 (전체 충전소 목록을 받지 않음)
+    fetch(`/favorites/user/${encodeURIComponent(user.username)}/status`)
         .then(res => {
             if (res.ok) {
                 return res.json();
@@ -26,22 +27,38 @@ function loadFavorites() {
         });
 }
 
+// 마지막으로 받은 즐겨찾기 목록 (항목 클릭 시 충전소 상세 표시용)
+let loadedFavorites = [];
+
+// 충전기 상태 요약 (충전가능 / 전체)
+function favoriteAvailabilityHtml(station) {
+    if (!station) {
+        return '<div style="font-size: 12px; color: #999;">충전소 정보 없음</div>';
+    }
+    const color = station.available > 0 ? '#2e7d32' : '#c62828';
+    const checking = station.check > 0 ? ` · 점검 ${station.check}` : '';
+    return `<div style="font-size: 12px; color: ${color}; font-weight: 500;">충전가능 ${station.available} / ${station.total}`
+        + `<span style="color: #999; font-weight: 400;"> · 충전중 ${station.charging}${checking}</span></div>`;
+}
+
 // 즐겨찾기 목록 표시
 function displayFavorites(favorites) {
     const container = document.getElementById('favorites-list');
+    loadedFavorites = favorites || [];
     
     if (!favorites || favorites.length === 0) {
         container.innerHTML = '<div style="padding: 20px; text-align: center; color: #999;">즐겨찾기한 충전소가 없습니다.</div>';
         return;
     }
 
-    container.innerHTML = favorites.map(fav => `
+    container.innerHTML = favorites.map((fav, index) => `
         <div class="favorite-item" style="padding: 16px; margin-bottom: 12px; background: #fff; border: 1px solid #e8eaed; border-radius: 8px; cursor: pointer; transition: all 0.2s ease;" 
-             onclick="goToFavoriteStation(${fav.lat}, ${fav.lng}, '${fav.placeName}')">
+             onclick="goToFavorite(${index})">
             <div style="display: flex; justify-content: space-between; align-items: start;">
                 <div style="flex: 1;">
                     <div style="font-weight: 600; font-size: 16px; color: #333; margin-bottom: 4px;">${fav.placeName}</div>
                     <div style="font-size: 13px; color: #666; margin-bottom: 8px;">${fav.address || ''}</div>
+                    ${favoriteAvailabilityHtml(fav.station)}
                 </div>
                 <button class="delete-favorite-btn" onclick="event.stopPropagation(); deleteFavorite(${fav.id})" 
                         style="background: #ffebee; border: none; color: #c62828; padding: 6px 12px; border-radius: 6px; cursor: pointer; font-size: 12px; font-weight: 500;">
@@ -52,26 +69,34 @@ function displayFavorites(favorites) {
     `).join('');
 }
 
+// 목록 항목 클릭 (응답에 충전소 상세가 있으면 그대로 표시)
+function goToFavorite(index) {
+    const fav = loadedFavorites[index];
+    if (!fav) return;
+    goToFavoriteStation(fav.lat, fav.lng, fav.placeName, fav.station);
+}
+
 // 즐겨찾기로 이동
-function goToFavoriteStation(lat, lng, placeName) {
+function goToFavoriteStation(lat, lng, placeName, favoriteStation) {
     // 지도 중심 이동 및 확대
     if (typeof setMapCenterAndLevel === 'function') {
         setMapCenterAndLevel(lat, lng, 3);
     }
 
-    // 해당 충전소 찾기 및 상세 정보 표시
-    if (window.currentStations && Array.isArray(window.currentStations)) {
-        const station = window.currentStations.find(s => 
+    // 해당 충전소 찾기 및 상세 정보 표시 (즐겨찾기 응답의 충전소 상세 우선, 없으면 지도에 로드된 목록에서)
+    let station = favoriteStation || null;
+    if (!station && Array.isArray(window.currentStations)) {
+        station = window.currentStations.find(s => 
             Math.abs(s.lat - lat) < 0.0001 && Math.abs(s.lng - lng) < 0.0001
         );
+    }
         
-        if (station) {
-            if (typeof showSidebarDetail === 'function') {
-                showSidebarDetail(station);
-            }
-            if (typeof highlightMarkerByStation === 'function') {
-                highlightMarkerByStation(station);
-            }
+    if (station) {
+        if (typeof showSidebarDetail === 'function') {
+            showSidebarDetail(station);
+        }
+        if (typeof highlightMarkerByStation === 'function') {
+            highlightMarkerByStation(station);
         }
     }
 
@@ -114,7 +139,8 @@ function addToFavorites(station) {
         placeName: station.name,
         address: station.addr || '',
         lat: station.lat,
-        lng: station.lng
+        lng: station.lng,
+        statId: station.id || null
     };
 
     fetch('/favorites/add', {
@@ -138,7 +164,7 @@ function addToFavorites(station) {
 }
 
 // 오버레이에서 즐겨찾기 추가
-function addToFavoritesFromOverlay(event, placeName, address, lat, lng) {
+function addToFavoritesFromOverlay(event, placeName, address, lat, lng, statId) {
     event.preventDefault();
     event.stopPropagation();
     
@@ -159,7 +185,8 @@ function addToFavoritesFromOverlay(event, placeName, address, lat, lng) {
         placeName: placeName,
         address: address || '',
         lat: lat,
-        lng: lng
+        lng: lng,
+        statId: statId || null
     };
 
     console.log('📤 즐겨찾기 추가 요청:', favoriteData);
@@ -200,4 +227,5 @@ window.addToFavorites = addToFavorites;
 window.addToFavoritesFromOverlay = addToFavoritesFromOverlay;
 window.deleteFavorite = deleteFavorite;
 window.goToFavoriteStation = goToFavoriteStation;
+window.goToFavorite = goToFavorite;
 
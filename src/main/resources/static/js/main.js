@@ -429,11 +429,19 @@ function init() {
         };
     }
 
-    // 충전소 데이터 로드
-    loadStations()
+    // 충전소 데이터 로드 (가까운 순 스트리밍이면 첫 묶음이 오자마자 먼저 표시, 전부 받은 뒤 다시 표시)
+    let firstBatchShown = false;
+    loadStations(() => {
+        firstBatchShown = true;
+        if (!isLoginSuccess) {
+            finishLoading();
+        }
+        updateStations();
+        isFirstLoad = true; // 전부 받은 뒤에도 첫 화면 기준(레벨별 표시 범위)으로 다시 그림
+    })
         .then(() => {
             // 로그인 후가 아니면 로딩 완료 처리
-            if (!isLoginSuccess) {
+            if (!isLoginSuccess && !firstBatchShown) {
                 finishLoading();
             }
             // updateStations를 전역 함수로 등록 (idle 이벤트에서 호출 가능하도록)
@@ -1627,7 +1627,7 @@ function showStationDetail(station) {
         </div>
         <div class="overlay-footer">
           <a href="#" class="overlay-link" onclick="window.handleDetailClick(event); return false;">상세 정보 보기</a>
-          <a href="#" class="overlay-link favorite-link" onclick="window.addToFavoritesFromOverlay(event, '${station.name.replace(/'/g, "\\'")}', '${(station.addr || '').replace(/'/g, "\\'")}', ${station.lat}, ${station.lng}); return false;">
+          <a href="#" class="overlay-link favorite-link" onclick="window.addToFavoritesFromOverlay(event, '${station.name.replace(/'/g, "\\'")}', '${(station.addr || '').replace(/'/g, "\\'")}', ${station.lat}, ${station.lng}, '${station.id || ''}'); return false;">
             <span class="favorite-star">⭐</span> 즐겨찾기
           </a>
         </div>
@@ -3,9 +3,102 @@
 let allStations = [];
 let lastSearchCenter = null;
 
+// 컬럼 형식 응답 (application/vnd.evhub.columnar+json) → 기존 /api/ev/all 과 같은 충전소 객체 배열
+// fields 로 일부 필드만 받은 경우 받은 필드만 채움
+function decodeColumnarStations(data) {
+    const dict = data.dictionaries;
+    const st = data.stations;
+    const rt = data.realtime;
+    const stations = new Array(data.count);
+    for (let i = 0; i < data.count; i++) {
+        const station = {};
+        if (st.id) station.id = st.id[i];
+        if (st.name) station.name = st.name[i];
+        if (st.addr) station.addr = st.addr[i];
+        if (st.operator) station.operator = dict.operator[st.operator[i]];
+        if (st.lat) station.lat = st.lat[i];
+        if (st.lng) station.lng = st.lng[i];
+        if (st.chargerType) station.chargerType = dict.chargerType[st.chargerType[i]];
+        if (st.status) station.status = dict.status[st.status[i]];
+        if (rt) {
+            const realtime = [];
+            for (let k = rt.offset[i]; k < rt.offset[i + 1]; k++) {
+                const charger = {
+                    speed: dict.speed[rt.speed[k]],
+                    chargerType: dict.chargerType[rt.chargerType[k]],
+                    status: dict.chargerStatus[rt.status[k]],
+                    chgerId: st.id[i] + '-' + rt.chargerId[k]
+                };
+                // 실시간 데이터는 첫 충전기에 요약(summary)이 붙어 있음
+                if (st.live && st.live[i] && k === rt.offset[i]) charger.summary = station.status;
+                realtime.push(charger);
+            }
+            station.realtime = realtime;
+        }
+        for (const key of ['available', 'charging', 'check', 'total']) {
+            if (st[key]) station[key] = st[key][i];
+        }
+        stations[i] = station;
+    }
+    return stations;
+}
+
 // 충전소 데이터 로드
-function loadStations() {
-    return fetch('/api/ev/all')
+// - 지도 중심을 알면 가까운 순 NDJSON 스트리밍 (onFirstBatch: 첫 묶음이 도착하면 한 번 호출 → 첫 화면 마커 먼저 표시)
+// - 스트리밍을 못 쓰거나 실패하면 전체 목록 한 번에
+function loadStations(onFirstBatch) {
+    const center = typeof getMapCenter === 'function' ? getMapCenter() : null;
+    if (center && window.ReadableStream && window.TextDecoder) {
+        return streamStations(center, onFirstBatch)
+            .then(data => {
+                console.log(`✅ 충전소 데이터 스트리밍 완료: ${data.length}개`);
+                return data;
+            })
+            .catch(error => {
+                console.warn('⚠️ 스트리밍 로드 실패, 전체 로드로 전환:', error);
+                return fetchAllStations();
+            });
+    }
+    return fetchAllStations();
+}
+
+// 기준 좌표에서 가까운 순으로 한 줄씩 받아서 allStations 에 바로 추가
+function streamStations(center, onFirstBatch) {
+    return fetch(`/api/ev/all/stream?lat=${center.lat}&lng=${center.lng}`)
+        .then(res => {
+            if (!res.ok || !res.body) {
+                throw new Error(`HTTP error! status: ${res.status} ${res.statusText}`);
+            }
+            const reader = res.body.getReader();
+            const decoder = new TextDecoder();
+            const stations = [];
+            let buffer = '';
+            let notified = false;
+            allStations = stations;
+            window.allStations = stations;
+
+            const pump = () => reader.read().then(({ done, value }) => {
+                buffer += done ? decoder.decode() : decoder.decode(value, { stream: true });
+                const lines = buffer.split('\n');
+                buffer = done ? '' : lines.pop();
+                for (const line of lines) {
+                    if (line) stations.push(JSON.parse(line));
+                }
+                if (!notified && !done && stations.length > 0) {
+                    notified = true;
+                    if (onFirstBatch) onFirstBatch(stations);
+                }
+                return done ? stations : pump();
+            });
+            return pump();
+        });
+}
+
+// 전체 충전소 한 번에 로드 (키 반복이 없는 컬럼 형식으로 받아서 객체 배열로 복원, 서버가 모르면 기존 JSON 배열)
+function fetchAllStations() {
+    return fetch('/api/ev/all', {
+        headers: { 'Accept': 'application/vnd.evhub.columnar+json, application/json;q=0.9' }
+    })
         .then(res => {
             if (!res.ok) {
                 // 더 자세한 에러 정보
@@ -17,6 +110,9 @@ function loadStations() {
             return res.json();
         })
         .then(data => {
+            if (data && data.format === 'columnar') {
+                data = decodeColumnarStations(data);
+            }
             if (!data || !Array.isArray(data)) {
                 throw new Error('데이터 형식이 올바르지 않습니다. 배열이 아닙니다.');
             }
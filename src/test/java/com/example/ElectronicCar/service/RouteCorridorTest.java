@@ -0,0 +1,32 @@
+package com.example.ElectronicCar.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCorridorTest {
+
+    @Test
+    void decodesGooglePolyline() {
+        // Google polyline 문서의 예시: (38.5, -120.2) → (40.7, -120.95) → (43.252, -126.453)
+        RouteCorridor route = RouteCorridor.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+
+        assertNotNull(route);
+        assertEquals(3, route.pointCount());
+        assertEquals(38.5, route.lat(0), 1e-9);
+        assertEquals(-120.2, route.lng(0), 1e-9);
+        assertEquals(40.7, route.lat(1), 1e-9);
+        assertEquals(-120.95, route.lng(1), 1e-9);
+        assertEquals(43.252, route.lat(2), 1e-9);
+        assertEquals(-126.453, route.lng(2), 1e-9);
+        assertTrue(route.length() > 0);
+    }
+
+    @Test
+    void rejectsMalformedPolyline() {
+        // 위도만 있고 경도가 없음 / 허용 범위 밖 문자 / 점 1개
+        assertNull(RouteCorridor.decode("_p~iF"));
+        assertNull(RouteCorridor.decode("_p~iF~ps|U !"));
+        assertNull(RouteCorridor.decode("_p~iF~ps|U"));
+    }
+}
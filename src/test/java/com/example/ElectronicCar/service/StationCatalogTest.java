@@ -0,0 +1,157 @@
+package com.example.ElectronicCar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationCatalogTest {
+
+    // S0 ~ S(n-1), ordinal = 번호
+    private static StationCatalog catalog(int n) {
+        StationCatalog.Builder builder = new StationCatalog.Builder(1);
+        for (int i = 0; i < n; i++) {
+            builder.add("S" + i, "충전소" + i, "주소" + i, "운영기관" + (i % 3),
+                    37 + i * 1e-4, 127 + i * 1e-4, "DC콤보", "충전대기");
+        }
+        return builder.build();
+    }
+
+    @Test
+    void upsertUpdatesExistingStationInPlace() {
+        StationCatalog base = catalog(5);
+        StationCatalogBatch batch = new StationCatalogBatch();
+        batch.upsert("S3", "새이름", null, null, 36.5, 127.5, null, null);
+
+        StationCatalogDelta delta = base.apply(batch, 2);
+
+        StationCatalog current = delta.current();
+        assertEquals(2, current.version());
+        assertEquals(5, current.size());
+        assertEquals(3, current.ordinalOf("S3"));
+        assertEquals("새이름", current.name(3));
+        assertEquals("주소3", current.addr(3));
+        assertEquals(36.5, current.lat(3));
+        assertArrayEquals(new int[]{3}, delta.changed());
+        assertArrayEquals(new int[]{3}, delta.stale());
+        assertEquals(1, delta.updated());
+
+        // 이전 버전은 그대로
+        assertEquals("충전소3", base.name(3));
+        assertEquals(37 + 3 * 1e-4, base.lat(3));
+    }
+
+    @Test
+    void upsertWithoutChangesReturnsNull() {
+        StationCatalog base = catalog(5);
+        StationCatalogBatch batch = new StationCatalogBatch();
+        batch.upsert("S1", "충전소1", "주소1", "운영기관1", Double.NaN, Double.NaN, null, null);
+        // 좌표 없는 신규 충전소는 건너뜀
+        batch.upsert("S9", "신규", "주소", "운영기관", Double.NaN, Double.NaN, "AC완속", null);
+
+        assertNull(base.apply(batch, 2));
+    }
+
+    @Test
+    void upsertAppendsNewStation() {
+        StationCatalog base = catalog(5);
+        StationCatalogBatch batch = new StationCatalogBatch();
+        batch.upsert("S9", "신규", "주소9", "새운영기관", 35.1, 129.0, "AC완속", null);
+
+        StationCatalogDelta delta = base.apply(batch, 2);
+
+        StationCatalog current = delta.current();
+        assertEquals(6, current.size());
+        assertEquals(5, current.ordinalOf("S9"));
+        assertEquals("S9", current.id(5));
+        assertEquals("새운영기관", current.operator(5));
+        assertEquals("AC완속", current.chargerType(5));
+        assertEquals("정보없음", current.csvStatus(5));
+        assertArrayEquals(new int[]{5}, delta.changed());
+        assertArrayEquals(new int[0], delta.stale());
+        assertEquals(1, delta.added());
+        assertEquals(-1, base.ordinalOf("S9"));
+    }
+
+    @Test
+    void removeMovesLastStationIntoHole() {
+        StationCatalog base = catalog(5);
+        StationCatalogBatch batch = new StationCatalogBatch();
+        batch.remove("S1");
+
+        StationCatalogDelta delta = base.apply(batch, 2);
+
+        StationCatalog current = delta.current();
+        assertEquals(4, current.size());
+        assertEquals(-1, current.ordinalOf("S1"));
+        assertEquals(1, current.ordinalOf("S4"));
+        assertEquals("S4", current.id(1));
+        assertEquals("충전소4", current.name(1));
+        assertEquals(base.lat(4), current.lat(1));
+        assertEquals(base.lng(4), current.lng(1));
+        assertArrayEquals(new int[]{1}, delta.changed());
+        assertArrayEquals(new int[]{1, 4}, delta.stale());
+        assertEquals(1, delta.removed());
+
+        assertEquals(4, base.ordinalOf("S4"));
+        assertEquals("S1", base.id(1));
+    }
+
+    @Test
+    void removeLastStationOnlyShrinks() {
+        StationCatalog base = catalog(5);
+        StationCatalogBatch batch = new StationCatalogBatch();
+        batch.remove("S4");
+        batch.remove("없는충전소");
+
+        StationCatalogDelta delta = base.apply(batch, 2);
+
+        assertEquals(4, delta.current().size());
+        assertEquals(-1, delta.current().ordinalOf("S4"));
+        assertArrayEquals(new int[0], delta.changed());
+        assertArrayEquals(new int[]{4}, delta.stale());
+    }
+
+    @Test
+    void overlayMergesIntoBaseMapAcrossVersions() {
+        // 세그먼트 경계(4096)와 덧씌우기 한도(4096)를 모두 넘도록 여러 버전에 걸쳐 추가/삭제
+        StationCatalog catalog = catalog(4000);
+        Set<String> removed = new HashSet<>();
+        Set<String> live = new HashSet<>();
+        for (int i = 0; i < 4000; i++) live.add("S" + i);
+
+        int next = 4000;
+        for (int round = 0; round < 6; round++) {
+            StationCatalogBatch batch = new StationCatalogBatch();
+            for (int k = 0; k < 1000; k++) {
+                String id = "S" + next;
+                batch.upsert(id, "신규" + next, "주소", "운영기관", 36 + next * 1e-5, 128 + next * 1e-5, "DC차데모", null);
+                live.add(id);
+                next++;
+            }
+            for (int k = 0; k < 150; k++) {
+                String id = "S" + (round * 700 + k * 3);
+                if (live.remove(id)) {
+                    batch.remove(id);
+                    removed.add(id);
+                }
+            }
+
+            StationCatalogDelta delta = catalog.apply(batch, 2 + round);
+            assertNotNull(delta);
+            catalog = delta.current();
+            assertEquals(live.size(), catalog.size());
+
+            for (String id : live) {
+                int ordinal = catalog.ordinalOf(id);
+                assertTrue(ordinal >= 0 && ordinal < catalog.size(), id);
+                assertEquals(id, catalog.id(ordinal));
+            }
+            for (String id : removed) {
+                assertEquals(-1, catalog.ordinalOf(id), id);
+            }
+        }
+    }
+}
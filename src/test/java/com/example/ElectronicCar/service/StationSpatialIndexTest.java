@@ -0,0 +1,125 @@
+package com.example.ElectronicCar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationSpatialIndexTest {
+
+    // 남한 범위에 무작위로 흩은 충전소 (시드 고정)
+    private static StationCatalog randomCatalog(Random random, int n) {
+        StationCatalog.Builder builder = new StationCatalog.Builder(1);
+        for (int i = 0; i < n; i++) {
+            builder.add("S" + i, "충전소" + i, "주소", "운영기관",
+                    randomLat(random), randomLng(random), "DC콤보", "충전대기");
+        }
+        return builder.build();
+    }
+
+    private static double randomLat(Random random) { return 33 + random.nextDouble() * 5.5; }
+    private static double randomLng(Random random) { return 125 + random.nextDouble() * 5; }
+
+    private static int[] searchAll(StationSpatialIndex index, double minLat, double minLng, double maxLat, double maxLng) {
+        int[] ordinals = index.search(minLat, minLng, maxLat, maxLng, Integer.MAX_VALUE);
+        Arrays.sort(ordinals);
+        return ordinals;
+    }
+
+    private static int[] scanAll(StationCatalog catalog, double minLat, double minLng, double maxLat, double maxLng) {
+        return IntStream.range(0, catalog.size())
+                .filter(i -> catalog.lat(i) >= minLat && catalog.lat(i) <= maxLat
+                        && catalog.lng(i) >= minLng && catalog.lng(i) <= maxLng)
+                .toArray();
+    }
+
+    private static void assertSearchMatchesScan(StationSpatialIndex index, Random random) {
+        StationCatalog catalog = index.catalog();
+        for (int q = 0; q < 200; q++) {
+            double lat = randomLat(random), lng = randomLng(random);
+            double height = random.nextDouble() * 0.5, width = random.nextDouble() * 0.5;
+            assertArrayEquals(scanAll(catalog, lat, lng, lat + height, lng + width),
+                    searchAll(index, lat, lng, lat + height, lng + width));
+        }
+    }
+
+    // 가까운 순서 + 반경 안의 충전소 집합을 전수 조사와 비교 (거리는 인덱스와 같은 근사)
+    private static void assertNearestMatchesScan(StationSpatialIndex index, Random random) {
+        StationCatalog catalog = index.catalog();
+        for (int q = 0; q < 100; q++) {
+            double lat = randomLat(random), lng = randomLng(random);
+            double radius = 2_000 + random.nextDouble() * 20_000;
+
+            List<Integer> visited = new ArrayList<>();
+            double[] last = {0};
+            index.nearest(lat, lng, radius, (ordinal, distance) -> {
+                assertTrue(distance >= last[0], "가까운 순서가 아님");
+                last[0] = distance;
+                visited.add(ordinal);
+                return true;
+            });
+
+            double kx = Math.cos(Math.toRadians(lat)) * StationCoordinateScanner.DEG_TO_M;
+            double ky = StationCoordinateScanner.DEG_TO_M;
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < catalog.size(); i++) {
+                double dx = (catalog.lng(i) - lng) * kx, dy = (catalog.lat(i) - lat) * ky;
+                if (dx * dx + dy * dy <= radius * radius) expected.add(i);
+            }
+            assertEquals(expected.size(), visited.size(), "중복 방문");
+            assertEquals(expected, new HashSet<>(visited));
+        }
+    }
+
+    @Test
+    void searchMatchesBruteForce() {
+        Random random = new Random(42);
+        StationSpatialIndex index = new StationSpatialIndex(randomCatalog(random, 5000));
+
+        assertSearchMatchesScan(index, random);
+        assertArrayEquals(scanAll(index.catalog(), -90, -180, 90, 180), searchAll(index, -90, -180, 90, 180));
+        assertEquals(10, index.search(-90, -180, 90, 180, 10).length);
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(7);
+        StationSpatialIndex index = new StationSpatialIndex(randomCatalog(random, 5000));
+
+        assertNearestMatchesScan(index, random);
+    }
+
+    @Test
+    void updateMatchesBruteForceAfterEachDelta() {
+        Random random = new Random(1234);
+        StationCatalog catalog = randomCatalog(random, 5000);
+        StationSpatialIndex index = new StationSpatialIndex(catalog);
+        int next = catalog.size();
+
+        for (int round = 0; round < 5; round++) {
+            StationCatalogBatch batch = new StationCatalogBatch();
+            // 이동 / 추가 / 삭제를 섞어서
+            for (int k = 0; k < 100; k++) {
+                String id = catalog.id(random.nextInt(catalog.size()));
+                batch.upsert(id, null, null, null, randomLat(random), randomLng(random), null, null);
+            }
+            for (int k = 0; k < 100; k++) {
+                String id = "S" + next++;
+                batch.upsert(id, "신규", "주소", "운영기관", randomLat(random), randomLng(random), "AC완속", null);
+            }
+            for (int k = 0; k < 100; k++) {
+                batch.remove(catalog.id(random.nextInt(catalog.size())));
+            }
+
+            StationCatalogDelta delta = catalog.apply(batch, 2 + round);
+            catalog = delta.current();
+            index = index.update(delta);
+            assertSame(catalog, index.catalog());
+
+            assertSearchMatchesScan(index, random);
+            assertNearestMatchesScan(index, random);
+        }
+    }
+}